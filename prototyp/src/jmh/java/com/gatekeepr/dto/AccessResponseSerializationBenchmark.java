@@ -0,0 +1,62 @@
+package com.gatekeepr.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeepr.response.SyntheticObjects;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die JSON-Serialisierung einer {@link AccessResponseDto} abhängig von Objekt- und Feldanzahl.
+ *
+ * {@code writeToStream} schreibt in einen verwerfenden Stream und entspricht damit dem Schreiben
+ * in die HTTP-Antwort; {@code writeAsBytes} baut zusätzlich das komplette Byte-Array auf.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessResponseSerializationBenchmark {
+
+    @Param({"1", "100"})
+    public int objectCount;
+
+    @Param({"10", "50"})
+    public int fieldCount;
+
+    @Param({"0", "8"})
+    public int digitRanges;
+
+    private ObjectMapper mapper;
+    private AccessResponseDto response;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+
+        ObjectProperties rights = SyntheticObjects.rights(fieldCount, digitRanges);
+        List<AccessibleObject> objects = new ArrayList<>(objectCount);
+        for (int i = 0; i < objectCount; i++) {
+            String id = "obj-" + i;
+            objects.add(new AccessibleObject("app", id, "entity0", "identity", rights,
+                    SyntheticObjects.rawData(id, fieldCount)));
+        }
+        response = new AccessResponseDto(objects, "success", null, "2024-01-01T00:00:00Z", null);
+    }
+
+    @Benchmark
+    public byte[] writeAsBytes() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
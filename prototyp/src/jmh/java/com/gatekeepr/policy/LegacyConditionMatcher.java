@@ -0,0 +1,78 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.AccessRequestDto;
+
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Frühere Auswertung der Regelbedingungen direkt auf der Rohstruktur aus rules.json
+ * (Parsen der Uhrzeiten und Zahlen bei jeder Prüfung). Dient nur als Vergleichsbasis.
+ */
+final class LegacyConditionMatcher {
+
+    private LegacyConditionMatcher() {}
+
+    static boolean matches(Map<String, Object> condition, AccessRequestDto request) {
+        if (condition == null || condition.isEmpty()) return false;
+        boolean matched = true;
+
+        if (condition.containsKey("time")) {
+            Map<String, String> timeCond = castMap(condition.get("time"));
+            LocalTime now = LocalTime.now();
+
+            boolean afterOk = !timeCond.containsKey("after") || now.isAfter(LocalTime.parse(timeCond.get("after")));
+            boolean beforeOk = !timeCond.containsKey("before") || now.isBefore(LocalTime.parse(timeCond.get("before")));
+
+            matched &= (afterOk && beforeOk);
+        }
+
+        if (condition.containsKey("context")) {
+            Map<String, String> requiredContext = castMap(condition.get("context"));
+            if (request.getContext() == null) return false;
+
+            for (Map.Entry<String, String> entry : requiredContext.entrySet()) {
+                Object actual = request.getContext().get(entry.getKey());
+                if (actual == null || !entry.getValue().equals(actual.toString())) {
+                    return false;
+                }
+            }
+        }
+
+        if (condition.containsKey("accessCount")) {
+            if (!evaluateNumericCondition(request, "accessCount", castMap(condition.get("accessCount")))) return false;
+        }
+
+        if (condition.containsKey("objectCount")) {
+            if (!evaluateNumericCondition(request, "objectCount", castMap(condition.get("objectCount")))) return false;
+        }
+
+        if (condition.containsKey("always")) {
+            Object val = condition.get("always");
+            matched &= val instanceof Boolean && (Boolean) val;
+        }
+
+        return matched;
+    }
+
+    private static boolean evaluateNumericCondition(AccessRequestDto request, String ctxKey, Map<String, Integer> cond) {
+        if (request.getContext() == null || !request.getContext().containsKey(ctxKey)) return false;
+
+        try {
+            int actual = Integer.parseInt(request.getContext().get(ctxKey).toString());
+
+            if (cond.containsKey("greaterThan") && actual <= cond.get("greaterThan")) return false;
+            if (cond.containsKey("lessThan") && actual >= cond.get("lessThan")) return false;
+            if (cond.containsKey("equals") && actual != cond.get("equals")) return false;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Map<String, T> castMap(Object obj) {
+        return (Map<String, T>) obj;
+    }
+}
@@ -0,0 +1,67 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.RuleDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die öffentlichen Einstiegspunkte der {@link PolicyEngine} abhängig von Regel- und Feldanzahl.
+ *
+ * {@code plan} trifft nach dem ersten Aufruf den Plan-Cache; {@code planForEntityClass} erzwingt
+ * zusätzlich die Gruppierung der Regeln einer Entitätsklasse in einem frischen Plan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyEngineBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int ruleCount;
+
+    @Param({"10", "50"})
+    public int fieldCount;
+
+    private PolicyEngine policyEngine;
+    private RuleIndex index;
+    private AccessRequestDto request;
+
+    @Setup
+    public void setup() {
+        RuleLoader ruleLoader = new RuleLoader();
+        ruleLoader.publish(SyntheticRules.rules(ruleCount, fieldCount));
+        index = ruleLoader.getIndex();
+        policyEngine = new PolicyEngine(new RuleActivationScheduler(ruleLoader, Clock.systemDefaultZone()),
+                new SimpleMeterRegistry());
+        request = SyntheticRules.request();
+    }
+
+    @Benchmark
+    public Map<String, String> evaluate() {
+        return policyEngine.evaluate(request);
+    }
+
+    @Benchmark
+    public List<RuleDefinition> getMatchingRules() {
+        return policyEngine.getMatchingRules(request, SyntheticRules.ENTITY_CLASS);
+    }
+
+    @Benchmark
+    public RulePlan plan() {
+        return policyEngine.plan(request);
+    }
+
+    @Benchmark
+    public RulePlan.ClassRules planForEntityClass() {
+        return new RulePlan(index, request.getContext(), LocalTime.NOON).forEntityClass(SyntheticRules.ENTITY_CLASS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.RuleDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Regelauswahl über den {@link RuleIndex} mit dem früheren linearen Durchlauf
+ * über alle Regeln bei 10, 1.000 und 50.000 Regeln.
+ *
+ * {@code linearScan} wertet die Rohbedingungen aus, {@code compiledScan} die vorübersetzten
+ * Bedingungen ohne Index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleIndexBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int ruleCount;
+
+    private PolicyEngine policyEngine;
+    private List<RuleDefinition> rules;
+    private List<CompiledRule> compiledRules;
+    private AccessRequestDto request;
+
+    @Setup
+    public void setup() {
+        rules = SyntheticRules.rules(ruleCount, 20);
+        RuleLoader ruleLoader = new RuleLoader();
+        ruleLoader.publish(rules);
+        compiledRules = ruleLoader.getIndex().getCompiledRules();
+        policyEngine = new PolicyEngine(new RuleActivationScheduler(ruleLoader, Clock.systemDefaultZone()),
+                new SimpleMeterRegistry());
+        request = SyntheticRules.request();
+    }
+
+    /** Bisheriges Verfahren: jede Regel wird für jede Anfrage geprüft */
+    @Benchmark
+    public List<RuleDefinition> linearScan() {
+        return rules.stream()
+                .filter(rule -> LegacyConditionMatcher.matches(rule.getCondition(), request))
+                .toList();
+    }
+
+    /** Jede Regel wird geprüft, aber mit vorübersetzten Bedingungen */
+    @Benchmark
+    public List<RuleDefinition> compiledScan() {
+        LocalTime now = LocalTime.now();
+        return compiledRules.stream()
+                .filter(rule -> rule.condition().matches(request.getContext(), now))
+                .map(CompiledRule::definition)
+                .toList();
+    }
+
+    /** Indexbasierte Auswahl für eine Entitätsklasse */
+    @Benchmark
+    public List<RuleDefinition> indexedForEntityClass() {
+        return policyEngine.getMatchingRules(request, SyntheticRules.ENTITY_CLASS);
+    }
+
+    /** Indexbasierte Auswahl über alle Entitätsklassen */
+    @Benchmark
+    public List<RuleDefinition> indexedAllClasses() {
+        return policyEngine.getMatchingRules(request);
+    }
+}
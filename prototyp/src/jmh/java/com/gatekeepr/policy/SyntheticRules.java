@@ -0,0 +1,91 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.RuleDefinition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Erzeugt reproduzierbare Regelsätze und Anfragen für die Benchmarks.
+ *
+ * Die Regeln verteilen sich auf mehrere Entitätsklassen ("entity0" … "entityN") und
+ * mischen alle Bedingungstypen aus rules.json (context, accessCount, objectCount, time, always).
+ */
+public final class SyntheticRules {
+
+    /** Entitätsklasse der Benchmark-Anfragen */
+    public static final String ENTITY_CLASS = "entity0";
+
+    private static final String[] ACTIONS = {"mask", "remove", "generalize", "pseudonymize", "none"};
+
+    private SyntheticRules() {
+    }
+
+    /**
+     * @param count    Anzahl der Regeln
+     * @param fields   Anzahl unterschiedlicher Felder pro Entitätsklasse
+     */
+    public static List<RuleDefinition> rules(int count, int fields) {
+        int entityClasses = Math.max(1, count / 100);
+        List<RuleDefinition> rules = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            RuleDefinition rule = new RuleDefinition();
+            // Blöcke zu je 10 Regeln enthalten alle Bedingungstypen und gehören zu einer Entitätsklasse
+            int block = i / 10;
+            rule.setField("entity" + (block % entityClasses) + ".field" + (i % fields));
+            rule.setAction(ACTIONS[i % ACTIONS.length]);
+            rule.setCondition(condition(i % 10, block));
+            if ("generalize".equals(rule.getAction())) {
+                rule.setParameters(Map.of("roundTo", 1000));
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private static Map<String, Object> condition(int type, int block) {
+        return switch (type) {
+            case 0, 1, 2 -> Map.of("context", Map.of("role", "role" + ((block + type) % 50)));
+            case 3, 4 -> Map.of("context", Map.of("region", "region" + (block % 20), "purpose", "purpose" + (block % 5)));
+            case 5 -> Map.of("accessCount", Map.of("greaterThan", block % 7));
+            case 6 -> Map.of("objectCount", Map.of("greaterThan", block % 30));
+            case 7 -> Map.of("time", Map.of("after", "00:00", "before", "23:59"));
+            case 8 -> Map.of("context", Map.of("role", "role" + (block % 50)), "accessCount", Map.of("lessThan", 100));
+            default -> Map.of("always", true);
+        };
+    }
+
+    /**
+     * PolicyEngine über den übergebenen Regeln, ohne Spring-Kontext.
+     */
+    public static PolicyEngine policyEngine(List<RuleDefinition> rules) {
+        RuleLoader ruleLoader = new RuleLoader();
+        ruleLoader.publish(rules);
+        return new PolicyEngine(new RuleActivationScheduler(ruleLoader, Clock.systemDefaultZone()), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Typische Anfrage mit Rolle, Region, Zweck sowie accessCount/objectCount im Kontext.
+     */
+    public static AccessRequestDto request() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("role", "role3");
+        context.put("region", "region3");
+        context.put("purpose", "purpose3");
+        context.put("accessCount", 4);
+        context.put("objectCount", 12);
+
+        AccessRequestDto request = new AccessRequestDto();
+        request.setApplicationId("app");
+        request.setIdentityId("identity");
+        request.setObjectEntityClass(ENTITY_CLASS);
+        request.setContext(context);
+        return request;
+    }
+}
@@ -0,0 +1,81 @@
+package com.gatekeepr.response;
+
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.policy.PolicyEngine;
+import com.gatekeepr.policy.RulePlan;
+import com.gatekeepr.policy.SyntheticRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst Filterung und Transformation eines Objekts durch die {@link ResponseEngine} sowie die
+ * DigitAccess-Hilfsmethoden einzeln.
+ *
+ * {@code filterAndTransform} nutzt einen vorab erstellten Regelplan (wie bei Mehrfach- und Suchanfragen),
+ * {@code filterAndTransformWithPlan} erstellt den Plan bei jedem Aufruf (wie bei Einzelanfragen).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEngineBenchmark {
+
+    @Param({"10", "1000"})
+    public int ruleCount;
+
+    @Param({"10", "50"})
+    public int fieldCount;
+
+    @Param({"0", "8"})
+    public int digitRanges;
+
+    private ResponseEngine responseEngine;
+    private RulePlan plan;
+    private AccessRequestDto request;
+    private Map<String, Object> rawData;
+    private List<String> readProperties;
+    private List<ObjectProperties.DigitAccess> digitsAccess;
+    private List<ObjectProperties.ReadableDigitsRange> mergedRanges;
+    private String slicedValue;
+
+    @Setup
+    public void setup() {
+        PolicyEngine policyEngine = SyntheticRules.policyEngine(SyntheticRules.rules(ruleCount, fieldCount));
+        responseEngine = new ResponseEngine(policyEngine, new SimpleMeterRegistry());
+
+        request = SyntheticRules.request();
+        plan = policyEngine.plan(request);
+        rawData = SyntheticObjects.rawData("obj-1", fieldCount);
+        readProperties = SyntheticObjects.readProperties(fieldCount);
+        digitsAccess = SyntheticObjects.digitsAccess(digitRanges);
+        mergedRanges = responseEngine.mergeDigitRanges(digitsAccess).getOrDefault("field1", List.of());
+        slicedValue = String.valueOf(rawData.get("field1"));
+    }
+
+    @Benchmark
+    public Map<String, Object> filterAndTransform() {
+        return responseEngine.filterAndTransform(rawData, readProperties, digitsAccess, plan, request);
+    }
+
+    @Benchmark
+    public Map<String, Object> filterAndTransformWithPlan() {
+        return responseEngine.filterAndTransform(rawData, readProperties, digitsAccess, request);
+    }
+
+    @Benchmark
+    public Map<String, List<ObjectProperties.ReadableDigitsRange>> mergeDigitRanges() {
+        return responseEngine.mergeDigitRanges(digitsAccess);
+    }
+
+    @Benchmark
+    public String applyDigitSlicing() {
+        return responseEngine.applyDigitSlicing(slicedValue, mergedRanges);
+    }
+}
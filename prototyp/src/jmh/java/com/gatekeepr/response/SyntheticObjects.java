@@ -0,0 +1,70 @@
+package com.gatekeepr.response;
+
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.policy.SyntheticRules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Erzeugt reproduzierbare Objektdaten und PM-Rechte passend zu {@link SyntheticRules}.
+ *
+ * Die Felder heißen wie in den synthetischen Regeln ("field0" … "fieldN"); jedes dritte Feld ist
+ * numerisch (für generalize), die übrigen sind Zeichenketten (für mask und DigitAccess).
+ */
+public final class SyntheticObjects {
+
+    private SyntheticObjects() {
+    }
+
+    /**
+     * @param id     Objekt-ID
+     * @param fields Anzahl der Datenfelder (zusätzlich zu objectId und objectEntityClass)
+     */
+    public static Map<String, Object> rawData(String id, int fields) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("objectId", id);
+        data.put("objectEntityClass", SyntheticRules.ENTITY_CLASS);
+        for (int i = 0; i < fields; i++) {
+            data.put("field" + i, i % 3 == 0 ? 10_000 + i * 137 : "DE-" + id + "-" + (4_711_000 + i));
+        }
+        return data;
+    }
+
+    /**
+     * Alle Datenfelder gelten als lesbar.
+     */
+    public static List<String> readProperties(int fields) {
+        List<String> properties = new ArrayList<>(fields + 1);
+        properties.add("objectEntityClass");
+        for (int i = 0; i < fields; i++) {
+            properties.add("field" + i);
+        }
+        return properties;
+    }
+
+    /**
+     * DigitAccess auf das erste Zeichenkettenfeld mit {@code ranges} teils überlappenden Bereichen,
+     * verteilt auf zwei Einträge derselben Property (wie sie die PM bei mehreren Zuweisungen liefert).
+     */
+    public static List<ObjectProperties.DigitAccess> digitsAccess(int ranges) {
+        if (ranges == 0) return List.of();
+
+        List<ObjectProperties.ReadableDigitsRange> first = new ArrayList<>();
+        List<ObjectProperties.ReadableDigitsRange> second = new ArrayList<>();
+        for (int r = 0; r < ranges; r++) {
+            // Bereiche der Länge 3 mit Schrittweite 2 überlappen sich paarweise
+            ObjectProperties.ReadableDigitsRange range = new ObjectProperties.ReadableDigitsRange(2 * r + 1, 2 * r + 3);
+            (r % 2 == 0 ? first : second).add(range);
+        }
+        return List.of(
+                new ObjectProperties.DigitAccess("field1", first, "digits"),
+                new ObjectProperties.DigitAccess("field1", second, "digits"));
+    }
+
+    public static ObjectProperties rights(int fields, int ranges) {
+        return new ObjectProperties(readProperties(fields), List.of(), List.of(), List.of(), digitsAccess(ranges));
+    }
+}
@@ -0,0 +1,96 @@
+package com.gatekeepr.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Antwortzeiten (in µs) und Fehler je Endpunkt und gibt Perzentile und Durchsatz aus.
+ *
+ * Die Histogramme erfassen 1 µs bis 1 h mit drei signifikanten Stellen und dürfen von
+ * mehreren Threads gleichzeitig befüllt werden.
+ */
+public final class LatencyReport {
+
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<String, Stats> byEndpoint = new ConcurrentHashMap<>();
+
+    /**
+     * @param endpoint Endpunkt der Anfrage
+     * @param nanos    Antwortzeit (im Open-Loop-Modus ab dem geplanten Startzeitpunkt)
+     * @param success  false bei Verbindungsfehlern und Statuscodes außerhalb 2xx
+     */
+    public void record(String endpoint, long nanos, boolean success) {
+        Stats stats = byEndpoint.computeIfAbsent(endpoint, k -> new Stats());
+        stats.histogram.recordValue(Math.min(MAX_MICROS, Math.max(1, nanos / 1_000)));
+        if (!success) stats.errors.increment();
+    }
+
+    /**
+     * Gibt je Endpunkt und insgesamt Anzahl, Fehlerquote, Durchsatz und Perzentile aus.
+     *
+     * @param elapsedNanos Dauer der Messphase (für den Durchsatz)
+     */
+    public void print(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Histogram total = new Histogram(MAX_MICROS, 3);
+        long totalErrors = 0;
+
+        out.printf("%-22s %9s %8s %10s", "endpoint", "requests", "errors", "req/s");
+        for (double p : PERCENTILES) out.printf(" %10s", "p" + format(p));
+        out.printf(" %10s%n", "max");
+
+        for (Map.Entry<String, Stats> e : new TreeMap<>(byEndpoint).entrySet()) {
+            Histogram histogram = e.getValue().histogram.copy();
+            long errors = e.getValue().errors.sum();
+            printLine(out, e.getKey(), histogram, errors, seconds);
+            total.add(histogram);
+            totalErrors += errors;
+        }
+        printLine(out, "total", total, totalErrors, seconds);
+        out.println("(Antwortzeiten in ms)");
+    }
+
+    /**
+     * Schreibt die vollständige Perzentilverteilung je Endpunkt als .hgrm-Datei (z. B. für den HdrHistogram-Plotter).
+     */
+    public void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Stats> e : byEndpoint.entrySet()) {
+            Path file = directory.resolve(e.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm");
+            try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()))) {
+                // Werte in µs, Ausgabe in ms
+                e.getValue().histogram.copy().outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+    }
+
+    private static void printLine(PrintStream out, String name, Histogram histogram, long errors, double seconds) {
+        long count = histogram.getTotalCount();
+        out.printf("%-22s %9d %7.2f%% %10.1f", name, count, count == 0 ? 0.0 : 100.0 * errors / count, count / seconds);
+        for (double p : PERCENTILES) out.printf(" %10.2f", histogram.getValueAtPercentile(p) / 1_000.0);
+        out.printf(" %10.2f%n", histogram.getMaxValue() / 1_000.0);
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static final class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
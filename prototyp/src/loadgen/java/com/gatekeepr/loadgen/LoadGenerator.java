@@ -0,0 +1,219 @@
+package com.gatekeepr.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Lastgenerator, der die GatekeepR-Anfragen aus postman-testdata gegen eine laufende Instanz abspielt.
+ *
+ * Zwei Betriebsarten:
+ * <ul>
+ *   <li>{@code open} – feste Ankunftsrate ({@code --rate} Anfragen/s) unabhängig von den Antwortzeiten.
+ *       Jede Antwortzeit wird ab dem <em>geplanten</em> Startzeitpunkt gemessen, sodass Rückstau beim
+ *       Senden nicht verschwiegen wird (keine "coordinated omission").</li>
+ *   <li>{@code closed} – {@code --concurrency} Threads senden jeweils die nächste Anfrage, sobald die
+ *       vorige beantwortet ist; misst die maximal erreichbare Rate bei fester Parallelität.</li>
+ * </ul>
+ * Die Anfragen der Collection werden reihum gesendet. Anfragen der Aufwärmphase ({@code --warmup})
+ * gehen nicht in die Auswertung ein.
+ *
+ * Aufruf z. B.: {@code ./gradlew loadgen -PloadgenArgs="--mode open --rate 500 --duration 60s --include gefiltert"}
+ */
+public final class LoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("collection", "../postman-testdata/V2.testdata+request.json"),
+            Map.entry("target", "http://localhost:8080"),
+            Map.entry("endpoints", "/gatekeepr/request,/gatekeepr/filtered"),
+            Map.entry("include", ""),
+            Map.entry("mode", "open"),
+            Map.entry("rate", "100"),
+            Map.entry("concurrency", "16"),
+            Map.entry("max-in-flight", "2000"),
+            Map.entry("warmup", "5s"),
+            Map.entry("duration", "30s"),
+            Map.entry("timeout", "10s"),
+            Map.entry("hgrm-dir", "")
+    );
+
+    private final List<Scenario> scenarios;
+    private final String target;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final LatencyReport report = new LatencyReport();
+
+    private LoadGenerator(List<Scenario> scenarios, String target, Duration timeout) {
+        this.scenarios = scenarios;
+        this.target = target.replaceAll("/+$", "");
+        this.timeout = timeout;
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread t = new Thread(runnable, "loadgen-http");
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        Set<String> endpoints = new LinkedHashSet<>(Arrays.asList(options.get("endpoints").split(",")));
+        List<Scenario> scenarios = PostmanCollection.load(Path.of(options.get("collection")), endpoints,
+                Pattern.compile(options.get("include")));
+        if (scenarios.isEmpty()) {
+            System.err.println("Keine passenden Anfragen in " + options.get("collection"));
+            System.exit(2);
+        }
+
+        LoadGenerator generator = new LoadGenerator(scenarios, options.get("target"), parseDuration(options.get("timeout")));
+        long warmup = parseDuration(options.get("warmup")).toNanos();
+        long duration = parseDuration(options.get("duration")).toNanos();
+
+        System.out.printf("%d Anfragen aus %s gegen %s:%n", scenarios.size(), options.get("collection"), options.get("target"));
+        scenarios.forEach(s -> System.out.printf("  %-18s %s%n", s.endpoint(), s.name()));
+
+        switch (options.get("mode")) {
+            case "open" -> {
+                double rate = Double.parseDouble(options.get("rate"));
+                System.out.printf("Open loop: %.1f Anfragen/s, warmup %ds, Dauer %ds%n", rate, warmup / 1_000_000_000, duration / 1_000_000_000);
+                generator.runOpenLoop(rate, Integer.parseInt(options.get("max-in-flight")), warmup, duration);
+            }
+            case "closed" -> {
+                int concurrency = Integer.parseInt(options.get("concurrency"));
+                System.out.printf("Closed loop: %d parallele Clients, warmup %ds, Dauer %ds%n", concurrency, warmup / 1_000_000_000, duration / 1_000_000_000);
+                generator.runClosedLoop(concurrency, warmup, duration);
+            }
+            default -> throw new IllegalArgumentException("Unbekannter Modus '" + options.get("mode") + "' (open oder closed)");
+        }
+
+        generator.report.print(System.out, duration);
+        if (!options.get("hgrm-dir").isBlank()) {
+            generator.report.writeDistributions(Path.of(options.get("hgrm-dir")));
+            System.out.println("Perzentilverteilungen geschrieben nach " + options.get("hgrm-dir"));
+        }
+    }
+
+    /**
+     * Sendet mit fester Rate; höchstens {@code maxInFlight} Anfragen gleichzeitig offen. Ist die Grenze
+     * erreicht, verzögert sich das Senden, die Wartezeit zählt aber zur Antwortzeit.
+     */
+    private void runOpenLoop(double rate, int maxInFlight, long warmupNanos, long durationNanos) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) break;
+
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            inFlight.acquire();
+
+            Scenario scenario = scenarios.get((int) (i % scenarios.size()));
+            boolean measured = intended >= measureStart;
+            client.sendAsync(request(scenario), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intended;
+                        inFlight.release();
+                        if (measured) report.record(scenario.endpoint(), latency, isSuccess(response, error));
+                    });
+        }
+
+        // Ausstehende Antworten abwarten (höchstens bis zum Timeout)
+        if (!inFlight.tryAcquire(maxInFlight, timeout.toMillis() + 1_000, TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d Anfragen nach Ablauf des Timeouts noch offen%n", maxInFlight - inFlight.availablePermits());
+        }
+    }
+
+    /**
+     * Jeder der {@code concurrency} Threads sendet die nächste Anfrage erst nach Erhalt der Antwort.
+     */
+    private void runClosedLoop(int concurrency, long warmupNanos, long durationNanos) throws InterruptedException {
+        AtomicLong sequence = new AtomicLong();
+        long measureStart = System.nanoTime() + warmupNanos;
+        long end = measureStart + durationNanos;
+
+        Thread[] clients = new Thread[concurrency];
+        for (int c = 0; c < concurrency; c++) {
+            clients[c] = new Thread(() -> {
+                long started;
+                while ((started = System.nanoTime()) < end) {
+                    Scenario scenario = scenarios.get((int) (sequence.getAndIncrement() % scenarios.size()));
+                    boolean success;
+                    try {
+                        success = isSuccess(client.send(request(scenario), HttpResponse.BodyHandlers.discarding()), null);
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (started >= measureStart) report.record(scenario.endpoint(), System.nanoTime() - started, success);
+                }
+            }, "loadgen-client-" + c);
+            clients[c].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    private HttpRequest request(Scenario scenario) {
+        return HttpRequest.newBuilder(URI.create(target + scenario.endpoint()))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(scenario.body()))
+                .build();
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response, Throwable error) {
+        return error == null && response != null && response.statusCode() / 100 == 2;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i].startsWith("--") ? args[i].substring(2) : null;
+            if (key == null || !DEFAULTS.containsKey(key) || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Ungültige Option '" + args[i] + "', bekannt: " + DEFAULTS.keySet());
+            }
+            options.put(key, args[++i]);
+        }
+        return options;
+    }
+
+    /**
+     * Liest Angaben wie "500ms", "30s" oder "2m".
+     */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s")) return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("m")) return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,77 @@
+package com.gatekeepr.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Liest die GatekeepR-Anfragen aus einer Postman-Collection (Format v2.1).
+ *
+ * Übernommen werden nur POST-Anfragen an die angegebenen GatekeepR-Endpunkte; Anfragen an die
+ * Policy Machine (Anlegen von Identitäten, Objekten usw.) werden übersprungen. Host und Port der
+ * Collection werden ignoriert, das Ziel wird beim Abspielen vorgegeben.
+ */
+public final class PostmanCollection {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PostmanCollection() {
+    }
+
+    /**
+     * @param file      Postman-Collection
+     * @param endpoints Zu übernehmende Endpunkte (z. B. "/gatekeepr/request")
+     * @param include   Nur Anfragen, deren Name (inkl. Ordnerpfad) auf diesen Ausdruck passt
+     * @return Anfragen in der Reihenfolge der Collection
+     */
+    public static List<Scenario> load(Path file, Set<String> endpoints, Pattern include) throws IOException {
+        JsonNode root = MAPPER.readTree(file.toFile());
+        List<Scenario> scenarios = new ArrayList<>();
+        collect(root.path("item"), "", endpoints, include, scenarios);
+        return scenarios;
+    }
+
+    private static void collect(JsonNode items, String folder, Set<String> endpoints, Pattern include, List<Scenario> out) {
+        for (JsonNode item : items) {
+            String name = folder.isEmpty() ? item.path("name").asText() : folder + "/" + item.path("name").asText();
+            if (item.has("item")) {
+                collect(item.path("item"), name, endpoints, include, out);
+                continue;
+            }
+
+            JsonNode request = item.path("request");
+            if (!"POST".equalsIgnoreCase(request.path("method").asText())) continue;
+
+            String endpoint = pathOf(request.path("url"));
+            if (!endpoints.contains(endpoint) || !include.matcher(name).find()) continue;
+
+            String body = request.path("body").path("raw").asText("");
+            out.add(new Scenario(name, endpoint, body.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Pfad einer Postman-URL (als Objekt mit "path" oder als String).
+     */
+    private static String pathOf(JsonNode url) {
+        if (url.has("path")) {
+            StringBuilder path = new StringBuilder();
+            url.path("path").forEach(segment -> path.append('/').append(segment.asText()));
+            return path.toString();
+        }
+        String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+        try {
+            return URI.create(raw).getPath();
+        } catch (IllegalArgumentException e) {
+            return raw;
+        }
+    }
+}
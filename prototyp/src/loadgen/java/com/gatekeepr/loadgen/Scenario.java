@@ -0,0 +1,11 @@
+package com.gatekeepr.loadgen;
+
+/**
+ * Eine abspielbare GatekeepR-Anfrage aus der Postman-Collection.
+ *
+ * @param name     Name der Anfrage inkl. Ordnerpfad (z. B. "Test V2/gefiltert/GatekeepR Multi")
+ * @param endpoint Pfad des GatekeepR-Endpunkts (z. B. "/gatekeepr/filtered")
+ * @param body     JSON-Body der Anfrage
+ */
+public record Scenario(String name, String endpoint, byte[] body) {
+}
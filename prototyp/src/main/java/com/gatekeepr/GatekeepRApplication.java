@@ -1,9 +1,14 @@
 package com.gatekeepr;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.time.Clock;
+import java.time.ZoneId;
+
 /**
  * Einstiegspunkt für die GatekeepR-Middleware.
  * 
@@ -16,4 +21,13 @@ public class GatekeepRApplication {
     public static void main(String[] args) {
         SpringApplication.run(GatekeepRApplication.class, args);
     }
+
+    /**
+     * Uhr für zeitabhängige Regeln; die Zeitzone ist über {@code gatekeepr.rules.time-zone} einstellbar
+     * (Standard: Zeitzone des Systems). In Tests kann eine feste Uhr eingesetzt werden.
+     */
+    @Bean
+    public Clock clock(@Value("${gatekeepr.rules.time-zone:}") String timeZone) {
+        return timeZone.isBlank() ? Clock.systemDefaultZone() : Clock.system(ZoneId.of(timeZone));
+    }
 }
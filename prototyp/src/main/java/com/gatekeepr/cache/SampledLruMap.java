@@ -0,0 +1,179 @@
+package com.gatekeepr.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Nebenläufige Map mit Obergrenze und näherungsweiser LRU-Verdrängung.
+ *
+ * Statt einer global gesperrten, zugriffsgeordneten {@link java.util.LinkedHashMap} liegen die
+ * Einträge in einer {@link ConcurrentHashMap} und merken sich den Zeitpunkt des letzten Zugriffs.
+ * Wird die Obergrenze überschritten, wird aus einer Zufallsstichprobe von {@value #SAMPLE_SIZE}
+ * Einträgen der am längsten nicht genutzte verdrängt (wie bei Redis). Die Obergrenze gilt für das
+ * Gesamtgewicht der Einträge, z. B. Anzahl (Gewicht 1) oder geschätzte Bytes; sie kann unter
+ * gleichzeitigen Schreibzugriffen kurzzeitig überschritten werden.
+ */
+public final class SampledLruMap<K, V> {
+
+    /** Stichprobengröße je Verdrängung */
+    static final int SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+
+    private SampledLruMap(long maxWeight, ToIntFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Höchstens {@code maxEntries} Einträge.
+     */
+    public static <K, V> SampledLruMap<K, V> withMaxEntries(int maxEntries) {
+        return new SampledLruMap<>(maxEntries, value -> 1);
+    }
+
+    /**
+     * Gesamtgewicht laut {@code weigher} höchstens {@code maxWeight}.
+     */
+    public static <K, V> SampledLruMap<K, V> withMaxWeight(long maxWeight, ToIntFunction<V> weigher) {
+        return new SampledLruMap<>(maxWeight, weigher);
+    }
+
+    /**
+     * Liefert den Wert und vermerkt den Zugriff.
+     */
+    public V get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) return null;
+        node.lastAccess = System.nanoTime();
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Setzt den Wert und verdrängt bei Bedarf.
+     *
+     * @return Bisheriger Wert oder null
+     */
+    public V put(K key, V value) {
+        Node<V> node = new Node<>(value, weigher.applyAsInt(value));
+        Node<V> replaced = map.put(key, node);
+        weight.addAndGet(node.weight - (replaced != null ? replaced.weight : 0));
+        evictIfNeeded();
+        return replaced != null ? replaced.value : null;
+    }
+
+    /**
+     * Setzt den Wert nur, wenn noch keiner vorliegt.
+     *
+     * @return Vorhandener Wert oder null, wenn {@code value} übernommen wurde
+     */
+    public V putIfAbsent(K key, V value) {
+        Node<V> node = new Node<>(value, weigher.applyAsInt(value));
+        Node<V> existing = map.putIfAbsent(key, node);
+        if (existing != null) {
+            existing.lastAccess = System.nanoTime();
+            return existing.value;
+        }
+        weight.addAndGet(node.weight);
+        evictIfNeeded();
+        return null;
+    }
+
+    /**
+     * Entfernt einen Eintrag (zählt nicht als Verdrängung).
+     */
+    public V remove(K key) {
+        Node<V> removed = map.remove(key);
+        if (removed == null) return null;
+        weight.addAndGet(-removed.weight);
+        return removed.value;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Gesamtgewicht aller Einträge.
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    /**
+     * Anzahl verdrängter Einträge seit Erzeugung.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private void evictIfNeeded() {
+        while (weight.get() > maxWeight) {
+            Map.Entry<K, Node<V>> eldest = null;
+            for (Map.Entry<K, Node<V>> candidate : sample(map, SAMPLE_SIZE)) {
+                if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) eldest = candidate;
+            }
+            if (eldest == null) return;
+            // Nur entfernen, wenn der Eintrag nicht inzwischen ersetzt wurde
+            if (map.remove(eldest.getKey(), eldest.getValue())) {
+                weight.addAndGet(-eldest.getValue().weight);
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Zufällige Stichprobe aus einer {@link ConcurrentHashMap}.
+     *
+     * Je Stichprobeneintrag wird die Tabelle über {@link Spliterator#trySplit()} zufällig halbiert, bis
+     * ein Bereich von etwa zwei Einträgen übrig ist (Aufwand logarithmisch in der Größe der Map), und
+     * dessen erster Eintrag übernommen. Bleiben die gewählten Bereiche leer, wird vom Anfang der Tabelle gelesen.
+     *
+     * @return Bis zu {@code size} Einträge (Wiederholungen möglich); leer nur bei leerer Map
+     */
+    public static <K, V> List<Map.Entry<K, V>> sample(ConcurrentHashMap<K, V> map, int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map.Entry<K, V>> sample = new ArrayList<>(size);
+
+        for (int attempt = 0; attempt < 4 * size && sample.size() < size; attempt++) {
+            Spliterator<Map.Entry<K, V>> region = map.entrySet().spliterator();
+            while (region.estimateSize() > 2) {
+                Spliterator<Map.Entry<K, V>> prefix = region.trySplit();
+                if (prefix == null) break;
+                if (random.nextBoolean()) region = prefix;
+            }
+            region.tryAdvance(sample::add);
+        }
+
+        if (sample.isEmpty()) map.entrySet().spliterator().tryAdvance(sample::add);
+        return sample;
+    }
+
+    private static final class Node<V> {
+
+        final V value;
+        final int weight;
+        volatile long lastAccess = System.nanoTime();
+
+        Node(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
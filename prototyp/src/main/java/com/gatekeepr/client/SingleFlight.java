@@ -0,0 +1,92 @@
+package com.gatekeepr.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bündelt gleichzeitige, identische Aufrufe an ein Fremdsystem (single flight).
+ *
+ * Solange ein Aufruf für einen Schlüssel läuft, erhalten weitere Aufrufer mit demselben Schlüssel
+ * dessen Ergebnis, statt selbst einen Aufruf abzusetzen. Nach Abschluss wird der Schlüssel sofort
+ * freigegeben; das Ergebnis wird nicht aufbewahrt (dafür sind die Caches zuständig).
+ *
+ * Jeder Aufrufer erhält eine eigene Kopie des gemeinsamen Futures, sodass {@code cancel} oder
+ * {@code complete} eines Aufrufers die übrigen nicht beeinflusst.
+ *
+ * Kennzahlen: {@code gatekeepr.singleflight.calls{name, outcome=executed|coalesced}} und
+ * {@code gatekeepr.singleflight.inflight{name}}.
+ *
+ * @param <K> Schlüssel; muss {@code equals}/{@code hashCode} sinnvoll implementieren (z. B. ein Record)
+ * @param <V> Ergebnistyp
+ */
+public final class SingleFlight<K, V> {
+
+    private final boolean enabled;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * @param name    Name für die Kennzahlen (z. B. "transit.single")
+     * @param enabled false = jeder Aufruf wird unmittelbar ausgeführt
+     */
+    public SingleFlight(String name, boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.executed = calls(meterRegistry, name, "executed");
+        this.coalesced = calls(meterRegistry, name, "coalesced");
+        Gauge.builder("gatekeepr.singleflight.inflight", inFlight, Map::size)
+                .tag("name", name)
+                .description("Laufende gebündelte Aufrufe")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Führt {@code call} aus oder schließt sich einem laufenden Aufruf mit gleichem Schlüssel an.
+     *
+     * @param call Startet den Aufruf; wird nur vom ersten Aufrufer eines Schlüssels ausgeführt
+     * @return Future mit dem (gemeinsamen) Ergebnis
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        if (!enabled) {
+            executed.increment();
+            return call.get();
+        }
+
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, shared);
+        if (running != null) {
+            coalesced.increment();
+            return running.copy();
+        }
+
+        executed.increment();
+        try {
+            call.get().whenComplete((value, error) -> {
+                // Erst freigeben, dann abschließen: spätere Aufrufer starten einen neuen Aufruf
+                inFlight.remove(key, shared);
+                if (error != null) shared.completeExceptionally(error);
+                else shared.complete(value);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("gatekeepr.singleflight.calls")
+                .description("Aufrufe an Fremdsysteme, ausgeführt oder mit einem laufenden Aufruf gebündelt")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
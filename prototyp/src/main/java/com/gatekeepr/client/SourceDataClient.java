@@ -1,16 +1,55 @@
 package com.gatekeepr.client;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
- * Simuliert den Datenabruf aus einem externen Quellsystem.
- * 
- * Liefert aktuell variierende Fahrzeugdaten (z. B. für Filter- und Testzwecke).
+ * Datenabruf aus dem Quellsystem.
+ *
+ * Im Modus {@code simulated} (Standard) werden Fahrzeugdaten im Prozess erzeugt. Die Werte sind
+ * pro Objekt-ID deterministisch, sodass wiederholte Abrufe und Lasttests reproduzierbare Daten liefern.
+ * Im Modus {@code http} werden die Daten per GET {@code <base-url>/<entityClass>/<objectId>} geladen,
+ * z. B. von der Stand-in-Quelle des Profils {@code source-standin}. Mehrere Objekte werden in Blöcken
+ * von {@code batch-size} per POST {@code <base-url>/<entityClass>/batch} geladen; bietet das Quellsystem
+ * diesen Endpunkt nicht an, wird auf parallele Einzelabrufe zurückgefallen.
+ *
+ * Wird eine Projektion (Feldliste) übergeben, fordert der Client nur diese Felder an
+ * ({@code ?fields=a,b} bzw. {@code "fields"} im Batch-Body), sofern {@code projection-enabled} gesetzt ist.
+ * Quellsysteme ohne Projektionsunterstützung ignorieren den Parameter und liefern das vollständige Objekt.
+ *
+ * Liefert das Quellsystem eine Versionskennung ({@code ETag}), kann ein Objekt bedingt nachgeladen werden
+ * ({@code If-None-Match} bzw. {@code "etags"} im Batch-Body); unveränderte Objekte werden dann nur als
+ * {@code 304} bzw. in {@code "notModified"} gemeldet. Im Modus {@code simulated} gibt es keine Versionskennung.
+ *
+ * Gleichzeitige identische Abrufe (gleiches Objekt bzw. gleicher Block, gleiche Projektion und
+ * Versionskennung) werden im Modus {@code http} über {@link SingleFlight} zu einem Aufruf gebündelt.
  */
 @Slf4j
 @Component
@@ -21,31 +60,194 @@ public class SourceDataClient {
     private static final String[] FUEL_TYPES = {"Diesel", "Benzin", "Elektro", "Hybrid"};
     private static final String[] STATUSES = {"active", "inactive", "maintenance"};
 
-    private final Random random = new Random();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> OBJECT_DATA = new TypeReference<>() {};
+    private static final TypeReference<BatchResponse> BATCH_DATA = new TypeReference<>() {};
+
+    /** Basis-URL des Quellsystems; null im Modus simulated */
+    private final String baseUrl;
+
+    private final Duration requestTimeout;
+
+    private final HttpClient httpClient;
+
+    /** Maximale Anzahl an Objekt-IDs pro Batch-Abruf */
+    private final int batchSize;
+
+    /** Wird auf false gesetzt, sobald das Quellsystem den Batch-Endpunkt ablehnt */
+    private volatile boolean bulkSupported;
+
+    /** Ob Feldprojektionen an das Quellsystem weitergegeben werden */
+    private final boolean projectionEnabled;
+
+    /** Bündelt gleichzeitige Einzelabrufe mit gleichem Schlüssel */
+    private final SingleFlight<ObjectKey, SourceObject> singleFlight;
+
+    /** Bündelt gleichzeitige Abrufe desselben Blocks */
+    private final SingleFlight<ChunkKey, Map<String, SourceObject>> chunkFlight;
+
+    public SourceDataClient(
+            @Value("${gatekeepr.source.mode:simulated}") String mode,
+            @Value("${gatekeepr.source.base-url:}") String baseUrl,
+            @Value("${gatekeepr.source.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${gatekeepr.source.request-timeout:5s}") Duration requestTimeout,
+            @Value("${gatekeepr.source.batch-size:100}") int batchSize,
+            @Value("${gatekeepr.source.bulk-enabled:true}") boolean bulkEnabled,
+            @Value("${gatekeepr.source.projection-enabled:true}") boolean projectionEnabled,
+            @Value("${gatekeepr.source.single-flight:true}") boolean singleFlight,
+            MeterRegistry meterRegistry
+    ) {
+        boolean http = "http".equalsIgnoreCase(mode);
+        if (!http && !"simulated".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unbekannter Quellsystem-Modus '" + mode + "' (erlaubt: simulated, http)");
+        }
+        if (http && baseUrl.isBlank()) {
+            throw new IllegalArgumentException("gatekeepr.source.base-url fehlt für Modus http");
+        }
+
+        this.baseUrl = http ? baseUrl : null;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = http ? HttpClient.newBuilder().connectTimeout(connectTimeout).build() : null;
+        this.batchSize = Math.max(1, batchSize);
+        this.bulkSupported = bulkEnabled;
+        this.projectionEnabled = projectionEnabled;
+        this.singleFlight = new SingleFlight<>("source.single", singleFlight, meterRegistry);
+        this.chunkFlight = new SingleFlight<>("source.batch", singleFlight, meterRegistry);
+
+        log.info("Quellsystem-Client initialisiert (mode={}{})", mode.toLowerCase(Locale.ROOT), http ? ", baseUrl=" + baseUrl : "");
+    }
 
     /**
-     * Simuliert den Abruf eines Objekts aus einem Quellsystem.
+     * Lädt die Rohdaten eines Objekts aus dem Quellsystem.
      *
      * @param objectId     Die Objekt-ID (z. B. UUID)
      * @param entityClass  Die Entitätsklasse (z. B. "Vehicle")
-     * @return Eine Map mit simulierten Fahrzeugdaten
+     * @return Eine Map mit den Objektdaten
+     * @throws SourceUnavailableException wenn das Quellsystem (Modus http) nicht erreichbar ist oder fehlerhaft antwortet
      */
     public Map<String, Object> loadObjectData(String objectId, String entityClass) {
-        log.info("Simulating data fetch for objectId='{}', entityClass='{}'", objectId, entityClass);
+        return loadObjectData(objectId, entityClass, null);
+    }
+
+    /**
+     * Lädt die Rohdaten eines Objekts, beschränkt auf die angegebenen Felder.
+     *
+     * @param fields Benötigte Felder oder null für das vollständige Objekt
+     * @see #loadObjectData(String, String)
+     */
+    public Map<String, Object> loadObjectData(String objectId, String entityClass, Collection<String> fields) {
+        return loadObject(objectId, entityClass, fields, null).data();
+    }
+
+    /**
+     * Lädt ein Objekt, bei bekannter Versionskennung nur, wenn es sich seitdem geändert hat.
+     *
+     * @param fields      Benötigte Felder oder null für das vollständige Objekt
+     * @param ifNoneMatch Zuletzt gesehene Versionskennung oder null für einen unbedingten Abruf
+     * @return Objektdaten mit Versionskennung oder {@link SourceObject#notModified()}
+     * @throws SourceUnavailableException wenn das Quellsystem (Modus http) nicht erreichbar ist oder fehlerhaft antwortet
+     */
+    public SourceObject loadObject(String objectId, String entityClass, Collection<String> fields, String ifNoneMatch) {
+        log.debug("Data fetch for objectId='{}', entityClass='{}', fields={}, ifNoneMatch={}", objectId, entityClass, fields, ifNoneMatch);
+        Collection<String> projection = projectionEnabled ? fields : null;
+        if (baseUrl == null) {
+            return new SourceObject(project(simulate(objectId, entityClass), projection), null);
+        }
+        SourceObject object = join(fetchAsync(objectId, entityClass, projection, ifNoneMatch));
+        if (object == null) {
+            throw new SourceUnavailableException("Objekt '" + objectId + "' im Quellsystem nicht gefunden", null);
+        }
+        return object;
+    }
+
+    /**
+     * Lädt die Rohdaten mehrerer Objekte; die Blöcke werden parallel abgerufen.
+     *
+     * @param objectIds    Die Objekt-IDs (Duplikate werden nur einmal geladen)
+     * @param entityClass  Die Entitätsklasse
+     * @return Objektdaten je Objekt-ID in Eingabereihenfolge; vom Quellsystem nicht gelieferte Objekte fehlen
+     * @throws SourceUnavailableException wenn das Quellsystem (Modus http) nicht erreichbar ist oder fehlerhaft antwortet
+     */
+    public Map<String, Map<String, Object>> loadObjectData(List<String> objectIds, String entityClass) {
+        return loadObjectData(objectIds, entityClass, null);
+    }
+
+    /**
+     * Lädt die Rohdaten mehrerer Objekte, beschränkt auf die angegebenen Felder.
+     *
+     * @param fields Benötigte Felder (für alle Objekte gleich) oder null für vollständige Objekte
+     * @see #loadObjectData(List, String)
+     */
+    public Map<String, Map<String, Object>> loadObjectData(List<String> objectIds, String entityClass, Collection<String> fields) {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        loadObjects(objectIds, entityClass, fields, Map.of()).forEach((objectId, object) -> result.put(objectId, object.data()));
+        return result;
+    }
+
+    /**
+     * Lädt mehrere Objekte; Objekte mit bekannter Versionskennung nur, wenn sie sich seitdem geändert haben.
+     *
+     * @param fields      Benötigte Felder (für alle Objekte gleich) oder null für vollständige Objekte
+     * @param ifNoneMatch Zuletzt gesehene Versionskennung je Objekt-ID; Objekte ohne Eintrag werden unbedingt geladen
+     * @return Objekte je Objekt-ID in Eingabereihenfolge; vom Quellsystem nicht gelieferte Objekte fehlen
+     * @throws SourceUnavailableException wenn das Quellsystem (Modus http) nicht erreichbar ist oder fehlerhaft antwortet
+     */
+    public Map<String, SourceObject> loadObjects(List<String> objectIds, String entityClass, Collection<String> fields,
+                                                 Map<String, String> ifNoneMatch) {
+        log.debug("Batch data fetch for {} objects, entityClass='{}', fields={}, conditional={}",
+                objectIds.size(), entityClass, fields, ifNoneMatch.size());
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(objectIds));
+        Map<String, SourceObject> result = new LinkedHashMap<>();
+        Collection<String> projection = projectionEnabled ? fields : null;
+
+        if (baseUrl == null) {
+            distinctIds.forEach(objectId -> result.put(objectId,
+                    new SourceObject(project(simulate(objectId, entityClass), projection), null)));
+            return result;
+        }
+
+        List<CompletableFuture<Map<String, SourceObject>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            chunks.add(fetchChunkAsync(distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size())),
+                    entityClass, projection, ifNoneMatch));
+        }
+
+        Map<String, SourceObject> loaded = new HashMap<>();
+        chunks.forEach(chunk -> loaded.putAll(join(chunk)));
+        for (String objectId : distinctIds) {
+            SourceObject object = loaded.get(objectId);
+            if (object != null) result.put(objectId, object);
+        }
+        return result;
+    }
+
+    /**
+     * Beschränkt Objektdaten auf die angegebenen Felder (null = unverändert).
+     */
+    public static Map<String, Object> project(Map<String, Object> data, Collection<String> fields) {
+        if (fields == null) return data;
+        data.keySet().retainAll(fields instanceof Set<?> ? fields : new HashSet<>(fields));
+        return data;
+    }
+
+    /**
+     * Erzeugt die simulierten Daten eines Objekts; gleiche Objekt-IDs ergeben stets gleiche Werte.
+     */
+    public static Map<String, Object> simulate(String objectId, String entityClass) {
+        SplittableRandom random = new SplittableRandom(objectId == null ? 0 : objectId.hashCode());
 
         Map<String, Object> data = new LinkedHashMap<>();
         data.put("objectId", objectId);
         data.put("objectEntityClass", entityClass != null ? entityClass : "vehicle");
 
-        // Zufallsdaten für vehicle
         if ("vehicle".equalsIgnoreCase(entityClass)) {
-            data.put("licensePlate", generateRandomPlate());
-            data.put("brand", randomChoice(BRANDS));
-            data.put("model", randomChoice(MODELS));
+            data.put("licensePlate", generatePlate(random));
+            data.put("brand", choice(random, BRANDS));
+            data.put("model", choice(random, MODELS));
             data.put("location", "DE");
-            data.put("fuelType", randomChoice(FUEL_TYPES));
+            data.put("fuelType", choice(random, FUEL_TYPES));
             data.put("mileage", 5000 + random.nextInt(195_000));
-            data.put("status", randomChoice(STATUSES));
+            data.put("status", choice(random, STATUSES));
         } else {
             // Optional: generisches Objekt
             data.put("name", "Generic Object");
@@ -56,14 +258,190 @@ public class SourceDataClient {
         return data;
     }
 
-    private String randomChoice(String[] options) {
+    private CompletableFuture<SourceObject> fetchAsync(String objectId, String entityClass, Collection<String> fields,
+                                                       String ifNoneMatch) {
+        return singleFlight.execute(new ObjectKey(entityClass, objectId, fields != null ? new TreeSet<>(fields) : null, ifNoneMatch),
+                () -> sendFetch(objectId, entityClass, fields, ifNoneMatch));
+    }
+
+    /**
+     * Einzelabruf; liefert null, wenn das Objekt im Quellsystem nicht existiert (404).
+     */
+    private CompletableFuture<SourceObject> sendFetch(String objectId, String entityClass, Collection<String> fields,
+                                                      String ifNoneMatch) {
+        String url = baseUrl + "/" + encode(entityClass) + "/" + encode(objectId);
+        if (fields != null) {
+            url += "?fields=" + encode(String.join(",", new TreeSet<>(fields)));
+        }
+        String requestUrl = url;
+        HttpRequest.Builder builder = requestBuilder(requestUrl).GET();
+        if (ifNoneMatch != null) builder.header("If-None-Match", ifNoneMatch);
+
+        return send(builder.build(), requestUrl).thenApply(response -> {
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            if (response.statusCode() == 304 && ifNoneMatch != null) {
+                return new SourceObject(null, etag != null ? etag : ifNoneMatch);
+            }
+            if (response.statusCode() == 404) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                throw new SourceUnavailableException("Quellsystem antwortete mit Status " + response.statusCode() + " (" + requestUrl + ")", null);
+            }
+            return new SourceObject(read(response.body(), OBJECT_DATA, requestUrl), etag);
+        });
+    }
+
+    /**
+     * Lädt einen Block von Objekten über den Batch-Endpunkt oder, falls dieser fehlt, per Einzelabruf.
+     */
+    private CompletableFuture<Map<String, SourceObject>> fetchChunkAsync(List<String> objectIds, String entityClass,
+                                                                         Collection<String> fields, Map<String, String> ifNoneMatch) {
+        if (!bulkSupported) {
+            return fetchSinglesAsync(objectIds, entityClass, fields, ifNoneMatch);
+        }
+
+        Map<String, String> etags = new LinkedHashMap<>();
+        for (String objectId : objectIds) {
+            String etag = ifNoneMatch.get(objectId);
+            if (etag != null) etags.put(objectId, etag);
+        }
+        return chunkFlight.execute(new ChunkKey(entityClass, List.copyOf(objectIds), fields != null ? new TreeSet<>(fields) : null, etags),
+                () -> sendChunk(objectIds, entityClass, fields, etags));
+    }
+
+    private CompletableFuture<Map<String, SourceObject>> sendChunk(List<String> objectIds, String entityClass,
+                                                                   Collection<String> fields, Map<String, String> etags) {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("objectIds", objectIds);
+        if (fields != null) body.put("fields", new TreeSet<>(fields));
+        if (!etags.isEmpty()) body.put("etags", etags);
+
+        String url = baseUrl + "/" + encode(entityClass) + "/batch";
+        HttpRequest request;
+        try {
+            request = requestBuilder(url)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new SourceUnavailableException("Batch-Anfrage konnte nicht serialisiert werden", e);
+        }
+
+        return send(request, url).thenCompose(response -> {
+            int status = response.statusCode();
+            if (status == 404 || status == 405 || status == 501) {
+                log.warn("Quellsystem bietet keinen Batch-Endpunkt an ({}), verwende Einzelabrufe", status);
+                bulkSupported = false;
+                return fetchSinglesAsync(objectIds, entityClass, fields, etags);
+            }
+            if (status != 200) {
+                throw new SourceUnavailableException("Quellsystem antwortete mit Status " + status + " (" + url + ")", null);
+            }
+
+            BatchResponse batch = read(response.body(), BATCH_DATA, url);
+            Map<String, String> returnedEtags = batch.etags() != null ? batch.etags() : Map.of();
+            Map<String, SourceObject> result = new HashMap<>();
+            for (Map<String, Object> data : batch.objects() != null ? batch.objects() : List.<Map<String, Object>>of()) {
+                Object objectId = data.get("objectId");
+                if (objectId != null) result.put(objectId.toString(), new SourceObject(data, returnedEtags.get(objectId.toString())));
+            }
+            // Nur Objekte, für die eine Versionskennung mitgeschickt wurde, können unverändert sein
+            for (String objectId : batch.notModified() != null ? batch.notModified() : List.<String>of()) {
+                String etag = etags.get(objectId);
+                if (etag != null) result.put(objectId, new SourceObject(null, etag));
+            }
+            return CompletableFuture.completedFuture(result);
+        });
+    }
+
+    private CompletableFuture<Map<String, SourceObject>> fetchSinglesAsync(List<String> objectIds, String entityClass,
+                                                                           Collection<String> fields, Map<String, String> ifNoneMatch) {
+        List<CompletableFuture<SourceObject>> single = objectIds.stream()
+                .map(objectId -> fetchAsync(objectId, entityClass, fields, ifNoneMatch.get(objectId)))
+                .toList();
+        return CompletableFuture.allOf(single.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            // Nicht gefundene Objekte (404) fehlen wie beim Batch-Endpunkt im Ergebnis
+            Map<String, SourceObject> result = new HashMap<>();
+            for (int i = 0; i < objectIds.size(); i++) {
+                SourceObject object = single.get(i).join();
+                if (object != null) result.put(objectIds.get(i), object);
+            }
+            return result;
+        });
+    }
+
+    private HttpRequest.Builder requestBuilder(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+    }
+
+    /**
+     * Sendet eine Anfrage asynchron; Verbindungsfehler und Timeouts werden als {@link SourceUnavailableException} gemeldet.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, String url) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                        new SourceUnavailableException("Quellsystem nicht erreichbar (" + url + ")", unwrap(e))));
+    }
+
+    private static <T> T read(byte[] body, TypeReference<T> type, String url) {
+        try {
+            return MAPPER.readValue(body, type);
+        } catch (IOException e) {
+            throw new SourceUnavailableException("Ungültige Antwort des Quellsystems (" + url + ")", e);
+        }
+    }
+
+    /**
+     * Wartet auf ein Future und reicht {@link SourceUnavailableException} unverpackt weiter.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static String choice(SplittableRandom random, String[] options) {
         return options[random.nextInt(options.length)];
     }
 
-    private String generateRandomPlate() {
+    private static String generatePlate(SplittableRandom random) {
         String letters = String.valueOf((char) (random.nextInt(26) + 'A')) +
                          (char) (random.nextInt(26) + 'A');
         int number = 100 + random.nextInt(900);
         return letters + "-" + number;
     }
+
+    private static String encode(String value) {
+        return value == null ? "null" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Antwort des Quellsystems zu einem Objekt.
+     *
+     * @param data Objektdaten; null, wenn das Objekt seit der angefragten Versionskennung unverändert ist
+     * @param etag Versionskennung des Objekts oder null, wenn das Quellsystem keine liefert
+     */
+    public record SourceObject(Map<String, Object> data, String etag) {
+
+        public boolean notModified() {
+            return data == null;
+        }
+    }
+
+    private record ObjectKey(String entityClass, String objectId, Set<String> fields, String ifNoneMatch) {}
+
+    private record ChunkKey(String entityClass, List<String> objectIds, Set<String> fields, Map<String, String> etags) {}
+
+    record BatchResponse(List<Map<String, Object>> objects, Map<String, String> etags, List<String> notModified) {}
 }
@@ -0,0 +1,11 @@
+package com.gatekeepr.client;
+
+/**
+ * Signalisiert, dass das Quellsystem nicht erreichbar war oder fehlerhaft geantwortet hat.
+ */
+public class SourceUnavailableException extends RuntimeException {
+
+    public SourceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,28 +1,136 @@
 package com.gatekeepr.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gatekeepr.dto.ObjectProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Client zur Kommunikation mit dem externen Policy Machine.
  * Dient der Abfrage zugriffsbezogener Metadaten und der Suche nach freigegebenen Objekten.
+ *
+ * Basiert auf einem gemeinsam genutzten {@link HttpClient} (HTTP/2 mit Fallback auf HTTP/1.1,
+ * Keep-Alive-Verbindungspool). Die Zahl gleichzeitig laufender PM-Aufrufe ist durch
+ * {@code max-concurrent-requests} begrenzt; wer keinen Platz bekommt, wartet bis zu {@code request-timeout}
+ * und erhält dann eine {@link TransitUnavailableException}. Größe und Keep-Alive des Verbindungspools
+ * sind JVM-weite Einstellungen des JDK-Clients und werden beim Start gesetzt, z. B.
+ * {@code -Djdk.httpclient.connectionPoolSize=64 -Djdk.httpclient.keepalive.timeout=30}. Alle Abfragen stehen zusätzlich als nicht-blockierende
+ * {@link CompletableFuture}-Varianten zur Verfügung. Gleichzeitige identische Rechteabfragen
+ * (einzeln oder als Batch-Block) werden über {@link SingleFlight} zu einem Aufruf gebündelt.
  */
 @Slf4j
 @Component
 public class TransitAccessClient {
 
-    private static final String TRANSIT_BASE_URL = "http://192.168.71.102:8085/v1"; //IP unter der die Polcy Machine errechbar ist
-    private static final String API_KEY = "614D5358726EC07655BF4A38CA751E5055FEF920ECCAC2624C";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final HttpClient httpClient;
+
+    /** Threads für die Verarbeitung der asynchronen Antworten */
+    private final ExecutorService responseExecutor;
+
+    /** Basis-URL, unter der die Policy Machine erreichbar ist */
+    private final String transitBaseUrl;
+
+    private final String apiKey;
+
+    /** Maximale Dauer eines einzelnen PM-Aufrufs */
+    private final Duration requestTimeout;
+
+    /** Begrenzt die gleichzeitig laufenden PM-Aufrufe */
+    private final Semaphore permits;
+
+    /** Maximale Anzahl an Objekt-IDs pro Batch-Aufruf */
+    private final int batchSize;
+
+    /** Wird auf false gesetzt, sobald die PM den Batch-Endpunkt ablehnt */
+    private volatile boolean bulkSupported;
+
+    /** Laufzeiten der PM-Aufrufe (gatekeepr.transit.requests, je operation und outcome) */
+    private final MeterRegistry meterRegistry;
+
+    /** Bereits registrierte Timer, damit nicht jeder Aufruf die Registry durchsucht */
+    private final Map<TimerKey, Timer> requestTimers = new ConcurrentHashMap<>();
+
+    /** Bündelt gleichzeitige Einzelabfragen mit gleichem Schlüssel */
+    private final SingleFlight<RightsKey, AccessRights> singleFlight;
+
+    /** Bündelt gleichzeitige Batch-Abfragen desselben Blocks */
+    private final SingleFlight<BatchKey, Map<String, AccessRights>> batchFlight;
+
+    public TransitAccessClient(
+            @Value("${gatekeepr.transit.base-url:http://192.168.71.102:8085/v1}") String transitBaseUrl,
+            @Value("${gatekeepr.transit.api-key:}") String apiKey,
+            @Value("${gatekeepr.transit.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${gatekeepr.transit.request-timeout:5s}") Duration requestTimeout,
+            @Value("${gatekeepr.transit.max-concurrent-requests:64}") int maxConcurrentRequests,
+            @Value("${gatekeepr.transit.io-threads:8}") int ioThreads,
+            @Value("${gatekeepr.transit.batch-size:100}") int batchSize,
+            @Value("${gatekeepr.transit.bulk-enabled:true}") boolean bulkEnabled,
+            @Value("${gatekeepr.transit.single-flight:true}") boolean singleFlight,
+            MeterRegistry meterRegistry
+    ) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new IllegalArgumentException("gatekeepr.transit.api-key fehlt (z. B. per Umgebungsvariable GATEKEEPR_TRANSIT_API_KEY)");
+        }
+        this.meterRegistry = meterRegistry;
+        this.singleFlight = new SingleFlight<>("transit.single", singleFlight, meterRegistry);
+        this.batchFlight = new SingleFlight<>("transit.batch", singleFlight, meterRegistry);
+        this.transitBaseUrl = transitBaseUrl;
+        this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+        this.batchSize = Math.max(1, batchSize);
+        this.bulkSupported = bulkEnabled;
+
+        this.permits = new Semaphore(Math.max(1, maxConcurrentRequests));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.responseExecutor = Executors.newFixedThreadPool(Math.max(1, ioThreads), runnable -> {
+            Thread t = new Thread(runnable, "gatekeepr-transit-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(responseExecutor)
+                .build();
+
+        log.info("TRANSIT-Client initialisiert (baseUrl={}, connectTimeout={}, requestTimeout={}, maxConcurrentRequests={}, ioThreads={})",
+                transitBaseUrl, connectTimeout, requestTimeout, maxConcurrentRequests, ioThreads);
+    }
 
     /**
      * Abfrage von Zugriffsrechten auf ein einzelnes Objekt.
@@ -34,31 +142,163 @@ public class TransitAccessClient {
      * @return Objekt mit Lese-/Schreibrechten oder leeres Rechteobjekt
      */
     public AccessRights getAccessRights(String applicationId, String objectId, String identityId, String requestedById) {
-        String url = String.format("%s/application/%s/access/%s?identityId=%s&requestedById=%s",
-                TRANSIT_BASE_URL, applicationId, objectId, identityId, requestedById);
+        return join(getAccessRightsAsync(applicationId, objectId, identityId, requestedById));
+    }
+
+    /**
+     * Nicht-blockierende Variante von {@link #getAccessRights(String, String, String, String)}.
+     *
+     * @return Future mit den Rechten; schlägt nie fehl (leeres Rechteobjekt bei Fehlern)
+     */
+    public CompletableFuture<AccessRights> getAccessRightsAsync(String applicationId, String objectId, String identityId, String requestedById) {
+        return loadAccessRightsAsync(applicationId, objectId, identityId, requestedById)
+                .exceptionally(e -> {
+                    log.error("Fehler beim Aufruf des TRANSIT-Systems", unwrap(e));
+                    return AccessRights.empty();
+                });
+    }
 
+    /**
+     * Wie {@link #getAccessRights(String, String, String, String)}, unterscheidet aber zwischen
+     * "keine Rechte" (404, leeres Rechteobjekt) und einem Ausfall der PM (Exception).
+     *
+     * @throws TransitUnavailableException wenn die PM nicht erreichbar ist oder fehlerhaft antwortet
+     */
+    public AccessRights loadAccessRights(String applicationId, String objectId, String identityId, String requestedById) {
+        return join(loadAccessRightsAsync(applicationId, objectId, identityId, requestedById));
+    }
+
+    /**
+     * Nicht-blockierende Variante von {@link #loadAccessRights(String, String, String, String)}.
+     *
+     * @return Future mit den Rechten; schlägt mit {@link TransitUnavailableException} fehl, wenn die PM ausfällt
+     */
+    public CompletableFuture<AccessRights> loadAccessRightsAsync(String applicationId, String objectId, String identityId, String requestedById) {
+        return singleFlight.execute(new RightsKey(applicationId, objectId, identityId, requestedById),
+                () -> fetchAccessRightsAsync(applicationId, objectId, identityId, requestedById));
+    }
+
+    private CompletableFuture<AccessRights> fetchAccessRightsAsync(String applicationId, String objectId, String identityId, String requestedById) {
+        String url = String.format("%s/application/%s/access/%s?identityId=%s&requestedById=%s",
+                transitBaseUrl, encodePath(applicationId), encodePath(objectId), encode(identityId), encode(requestedById));
 
         log.info(url);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-API-KEY", API_KEY);
+        return send(get(url), "single", "TRANSIT-Abfrage fehlgeschlagen für objectId='" + objectId + "'")
+                .thenApply(response -> {
+                    if (response.statusCode() == 404) {
+                        log.info("Keine Zugriffsrechte in TRANSIT gefunden (404) fuer applicationId='{}', objectId='{}', identityId='{}'",
+                                applicationId, objectId, identityId);
+                        return AccessRights.empty();
+                    }
+                    AccessRights rights = parse(response, AccessRights.class, "objectId='" + objectId + "'");
+                    return rights != null ? rights : AccessRights.empty();
+                });
+    }
 
+    /**
+     * Abfrage von Zugriffsrechten auf mehrere Objekte.
+     *
+     * Die IDs werden in Blöcke von {@code gatekeepr.transit.batch-size} aufgeteilt und über den
+     * Batch-Endpunkt der PM abgefragt. Nur wenn die PM keinen Batch-Endpunkt anbietet (404/405/501),
+     * wird auf parallele Einzelabfragen zurückgefallen. Bei einem Ausfall der PM werden keine
+     * Einzelabfragen nachgeschoben (das würde eine gestörte PM mit N-facher Last treffen); wie bei
+     * {@link #getAccessRights(String, String, String, String)} gelten dann leere Rechte.
+     *
+     * @param applicationId  ID der Application
+     * @param objectIds      Die IDs der Objekte
+     * @param identityId     Die ID der anfragenden Identität
+     * @param requestedById  Die ID des ursprünglichen Anfragenden
+     * @return Zugriffsrechte je Objekt-ID in Eingabereihenfolge (leeres Rechteobjekt, falls keine Rechte oder PM nicht erreichbar)
+     */
+    public Map<String, AccessRights> getAccessRights(String applicationId, List<String> objectIds, String identityId, String requestedById) {
         try {
-            ResponseEntity<AccessRights> response = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(headers), AccessRights.class
-            );
+            return loadAccessRights(applicationId, objectIds, identityId, requestedById);
+        } catch (TransitUnavailableException e) {
+            log.error("Fehler beim Batch-Aufruf des TRANSIT-Systems", e);
+            Map<String, AccessRights> result = new LinkedHashMap<>();
+            objectIds.forEach(objectId -> result.put(objectId, AccessRights.empty()));
+            return result;
+        }
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody();
+    /**
+     * Wie {@link #getAccessRights(String, List, String, String)}, wirft aber bei einem Ausfall der PM.
+     *
+     * Im Rückfall auf Einzelabfragen betrifft ein fehlgeschlagener Aufruf nur sein Objekt (leere Rechte).
+     *
+     * @throws TransitUnavailableException wenn die PM nicht erreichbar ist oder fehlerhaft antwortet
+     */
+    public Map<String, AccessRights> loadAccessRights(String applicationId, List<String> objectIds, String identityId, String requestedById) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(objectIds));
+        Map<String, AccessRights> result = new LinkedHashMap<>();
+
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            List<String> chunk = distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size()));
+
+            Map<String, AccessRights> chunkResult = bulkSupported
+                    ? join(batchFlight.execute(new BatchKey(applicationId, List.copyOf(chunk), identityId, requestedById),
+                            () -> fetchBatchAsync(applicationId, chunk, identityId, requestedById)))
+                    : null;
+
+            if (chunkResult == null) {
+                List<CompletableFuture<AccessRights>> single = chunk.stream()
+                        .map(objectId -> getAccessRightsAsync(applicationId, objectId, identityId, requestedById))
+                        .toList();
+                chunkResult = new LinkedHashMap<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkResult.put(chunk.get(i), join(single.get(i)));
+                }
+            }
+
+            for (String objectId : chunk) {
+                result.put(objectId, chunkResult.getOrDefault(objectId, AccessRights.empty()));
             }
-        } catch (HttpClientErrorException.NotFound e) {
-            log.info("Keine Zugriffsrechte in TRANSIT gefunden (404) fuer applicationId='{}', objectId='{}', identityId='{}'",
-                    applicationId, objectId, identityId);
-        } catch (Exception e) {
-            log.error("Fehler beim Aufruf des TRANSIT-Systems", e);
         }
 
-        return AccessRights.empty();
+        return result;
+    }
+
+    /**
+     * Führt einen einzelnen Batch-Aufruf gegen die PM aus.
+     *
+     * @return Future mit Rechten je Objekt-ID oder null, wenn die PM keinen Batch-Endpunkt anbietet;
+     *         schlägt mit {@link TransitUnavailableException} fehl, wenn die PM ausfällt
+     */
+    private CompletableFuture<Map<String, AccessRights>> fetchBatchAsync(String applicationId, List<String> objectIds, String identityId, String requestedById) {
+        String url = String.format("%s/application/%s/access/batch", transitBaseUrl, encodePath(applicationId));
+        log.info("{} ({} Objekte)", url, objectIds.size());
+
+        HttpRequest request;
+        try {
+            request = requestBuilder(url)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            MAPPER.writeValueAsBytes(new BatchAccessRequest(identityId, requestedById, objectIds))))
+                    .build();
+        } catch (IOException e) {
+            throw new TransitUnavailableException("Batch-Anfrage konnte nicht serialisiert werden", e);
+        }
+
+        return send(request, "batch", "TRANSIT-Batch-Abfrage fehlgeschlagen").thenApply(response -> {
+            int status = response.statusCode();
+            if (status == 404 || status == 405 || status == 501) {
+                log.warn("TRANSIT bietet keinen Batch-Endpunkt an ({}), verwende Einzelabfragen", status);
+                bulkSupported = false;
+                return null;
+            }
+
+            BatchAccessResponse body = parse(response, BatchAccessResponse.class, "Batch");
+            Map<String, AccessRights> rights = new HashMap<>();
+            if (body != null) {
+                for (AccessRights ar : body.getObjects()) {
+                    if (ar.getObjectId() != null && ar.getObjectProperties() != null) {
+                        rights.put(ar.getObjectId(), ar);
+                    }
+                }
+            }
+            return rights;
+        });
     }
 
     /**
@@ -80,40 +320,281 @@ public class TransitAccessClient {
             Boolean createdByMyOwn,
             Integer pageSize
     ) {
-        StringBuilder url = new StringBuilder(TRANSIT_BASE_URL + "/application/" + applicationId + "/access/search/?");
+        return searchAccessibleObjects(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize, null);
+    }
+
+    /**
+     * Abfrage einer Seite der zugänglichen Objekte.
+     *
+     * @param offset Optional: Anzahl der zu überspringenden Treffer (Parameter {@code offset} der PM)
+     * @see #searchAccessibleObjects(String, String, String, String, Boolean, Integer)
+     */
+    public List<ObjectAccess> searchAccessibleObjects(
+            String applicationId,
+            String identityId,
+            String requestedById,
+            String entityClass,
+            Boolean createdByMyOwn,
+            Integer pageSize,
+            Integer offset
+    ) {
+        return join(searchAccessibleObjectsAsync(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize, offset));
+    }
+
+    /**
+     * Nicht-blockierende Variante von {@link #searchAccessibleObjects}.
+     *
+     * @return Future mit der Liste der zugänglichen Objekte; schlägt nie fehl (leere Liste bei Fehlern)
+     */
+    public CompletableFuture<List<ObjectAccess>> searchAccessibleObjectsAsync(
+            String applicationId,
+            String identityId,
+            String requestedById,
+            String entityClass,
+            Boolean createdByMyOwn,
+            Integer pageSize,
+            Integer offset
+    ) {
+        String url = searchUrl(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize, offset);
+        log.info("TRANSIT-Objektsuche: {}", url);
+
+        return send(get(url), "search", "TRANSIT-Objektsuche fehlgeschlagen")
+                .thenApply(response -> {
+                    SearchResponse body = parse(response, SearchResponse.class, "Objektsuche");
+                    return body != null ? body.getObjects() : List.<ObjectAccess>of();
+                })
+                .exceptionally(e -> {
+                    log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT", unwrap(e));
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Sucht die zugänglichen Objekte und liest die Antwort schrittweise ein.
+     *
+     * Jedes {@link ObjectAccess} wird an {@code sink} übergeben, sobald es dekodiert ist – die
+     * Trefferliste wird nie vollständig im Speicher gehalten, und die Weiterverarbeitung überlappt
+     * mit der Übertragung. Läuft im aufrufenden Thread; blockiert {@code sink}, wird entsprechend
+     * langsamer gelesen.
+     *
+     * Wie bei {@link #searchAccessibleObjects} gilt ein Fehler vor dem ersten Treffer als leeres
+     * Ergebnis. Bricht die Antwort nach bereits übergebenen Treffern ab, wird eine
+     * {@link TransitUnavailableException} geworfen, damit kein unvollständiges Ergebnis als
+     * vollständig erscheint. Fehler aus {@code sink} werden unverändert weitergereicht.
+     *
+     * Das Permit für gleichzeitige PM-Aufrufe wird nur bis zum Eintreffen der Antwort-Header gehalten
+     * (ebenso misst {@code gatekeepr.transit.requests} nur diese Zeit); das Einlesen des Bodys läuft im
+     * Takt von {@code sink} und soll andere PM-Aufrufe nicht blockieren.
+     *
+     * @return Anzahl der übergebenen Objekte
+     * @see #searchAccessibleObjects(String, String, String, String, Boolean, Integer, Integer)
+     */
+    public int streamAccessibleObjects(
+            String applicationId,
+            String identityId,
+            String requestedById,
+            String entityClass,
+            Boolean createdByMyOwn,
+            Integer pageSize,
+            Integer offset,
+            Consumer<ObjectAccess> sink
+    ) {
+        String url = searchUrl(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize, offset);
+        log.info("TRANSIT-Objektsuche (gestreamt): {}", url);
+
+        try {
+            acquirePermit("TRANSIT-Objektsuche fehlgeschlagen");
+        } catch (TransitUnavailableException e) {
+            log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT: {}", e.getMessage());
+            return 0;
+        }
+        long start = System.nanoTime();
+        String outcome = "error";
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(get(url), HttpResponse.BodyHandlers.ofInputStream());
+            outcome = (response.statusCode() / 100) + "xx";
+        } catch (IOException e) {
+            log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT", e);
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitUnavailableException("TRANSIT-Objektsuche unterbrochen", e);
+        } finally {
+            permits.release();
+            requestTimer("search", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        int count = 0;
+        try (InputStream body = response.body(); JsonParser parser = MAPPER.getFactory().createParser(body)) {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT: Status {}", response.statusCode());
+                return 0;
+            }
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) return 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"objects".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    ObjectAccess access = MAPPER.readValue(parser, ObjectAccess.class);
+                    count++;
+                    sink.accept(access);
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            if (count > 0) {
+                throw new TransitUnavailableException("TRANSIT-Objektsuche nach " + count + " Treffern abgebrochen", e);
+            }
+            log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT", e);
+            return 0;
+        }
+    }
+
+    private String searchUrl(String applicationId, String identityId, String requestedById, String entityClass,
+                             Boolean createdByMyOwn, Integer pageSize, Integer offset) {
+        StringBuilder url = new StringBuilder(transitBaseUrl + "/application/" + encodePath(applicationId) + "/access/search/?");
 
         if (identityId != null && !identityId.isBlank()) {
-            url.append("identityId=").append(identityId).append("&");
+            url.append("identityId=").append(encode(identityId)).append("&");
         }
 
-        url.append("requestedById=").append(requestedById)
-           .append("&objectEntityClass=").append(entityClass)
+        url.append("requestedById=").append(encode(requestedById))
+           .append("&objectEntityClass=").append(encode(entityClass))
            .append("&createdByMyOwn=").append(createdByMyOwn != null ? createdByMyOwn : true);
 
         if (pageSize != null) {
             url.append("&pagesize=").append(pageSize);
         }
 
-        log.info("TRANSIT-Objektsuche: {}", url);
+        if (offset != null && offset > 0) {
+            url.append("&offset=").append(offset);
+        }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-API-KEY", API_KEY);
+        return url.toString();
+    }
 
+    // --- HTTP-Hilfsmethoden ---
+
+    private HttpRequest.Builder requestBuilder(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("X-API-KEY", apiKey)
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest get(String url) {
+        return requestBuilder(url).GET().build();
+    }
+
+    /**
+     * Sendet eine Anfrage asynchron; Verbindungsfehler und Timeouts werden als
+     * {@link TransitUnavailableException} gemeldet. Die Laufzeit wird je Operation und
+     * Ergebnis (Statusklasse bzw. "error") erfasst.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, String operation, String errorMessage) {
         try {
-            ResponseEntity<SearchResponse> response = restTemplate.exchange(
-                    url.toString(), HttpMethod.GET, new HttpEntity<>(headers), SearchResponse.class
-            );
+            acquirePermit(errorMessage);
+        } catch (TransitUnavailableException e) {
+            requestTimer(operation, "rejected").record(0, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> permits.release())
+                .whenComplete((response, error) -> requestTimer(operation,
+                        error != null ? "error" : (response.statusCode() / 100) + "xx")
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                        new TransitUnavailableException(errorMessage, unwrap(e))));
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody().getObjects();
+    private Timer requestTimer(String operation, String outcome) {
+        return requestTimers.computeIfAbsent(new TimerKey(operation, outcome), key -> Timer.builder("gatekeepr.transit.requests")
+                .description("Aufrufe der Policy Machine")
+                .tags("operation", key.operation(), "outcome", key.outcome())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Liest eine erfolgreiche Antwort; andere Statuscodes gelten als Ausfall der PM.
+     */
+    private <T> T parse(HttpResponse<byte[]> response, Class<T> type, String context) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            throw new TransitUnavailableException("TRANSIT antwortete mit Status " + status + " (" + context + ")", null);
+        }
+        if (response.body() == null || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new TransitUnavailableException("Ungültige TRANSIT-Antwort (" + context + ")", e);
+        }
+    }
+
+    /**
+     * Wartet bis zu {@code request-timeout} auf einen freien Platz für einen PM-Aufruf.
+     *
+     * @throws TransitUnavailableException wenn in dieser Zeit kein Platz frei wird
+     */
+    private void acquirePermit(String errorMessage) {
+        try {
+            if (!permits.tryAcquire(requestTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new TransitUnavailableException(errorMessage + ": zu viele gleichzeitige PM-Aufrufe", null);
             }
-        } catch (Exception e) {
-            log.error("Fehler beim Abrufen der zugänglichen Objekte von TRANSIT", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransitUnavailableException(errorMessage + ": unterbrochen", e);
         }
+    }
 
-        return Collections.emptyList();
+    private static String encode(String value) {
+        return value == null ? "null" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Kodiert einen Pfadabschnitt; anders als in Query-Parametern steht ein Leerzeichen dort nicht für "+".
+     */
+    private static String encodePath(String value) {
+        return encode(value).replace("+", "%20");
     }
 
+    /**
+     * Wartet auf ein Future und reicht {@link TransitUnavailableException} unverpackt weiter.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        responseExecutor.shutdownNow();
+    }
+
+    private record RightsKey(String applicationId, String objectId, String identityId, String requestedById) {}
+
+    private record BatchKey(String applicationId, List<String> objectIds, String identityId, String requestedById) {}
+
+    private record TimerKey(String operation, String outcome) {}
+
     /**
      * Wrapper für Zugriffsrechte auf ein Objekt (Lesen, Schreiben, etc.).
      */
@@ -157,6 +638,26 @@ public class TransitAccessClient {
         }
     }
 
+    /**
+     * Anfragekörper für den Batch-Endpunkt der PM.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchAccessRequest {
+        private String identityId;
+        private String requestedById;
+        private List<String> objectIds;
+    }
+
+    /**
+     * Antwort des Batch-Endpunkts: Zugriffsrechte für alle Objekte mit vorhandenen Rechten.
+     */
+    @Data
+    public static class BatchAccessResponse {
+        private List<AccessRights> objects = List.of();
+    }
+
     /**
      * Interne Hilfsklasse zur Entgegennahme von Suchergebnissen aus PM.
      */
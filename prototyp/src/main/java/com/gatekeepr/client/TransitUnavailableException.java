@@ -0,0 +1,13 @@
+package com.gatekeepr.client;
+
+/**
+ * Signalisiert, dass die Policy Machine (TRANSIT) nicht erreichbar war oder fehlerhaft geantwortet hat.
+ *
+ * Grenzt einen Ausfall der PM von einer regulären "keine Rechte"-Antwort (404) ab.
+ */
+public class TransitUnavailableException extends RuntimeException {
+
+    public TransitUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,135 @@
+package com.gatekeepr.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.service.ObjectRequestHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Schreibt die Antwort einer Zugriffsanfrage schrittweise, während die Objekte noch verarbeitet werden.
+ *
+ * Jedes Objekt wird geschrieben und geflusht, sobald es fertig ist; Status, Meldung, Zeitstempel,
+ * Anzahl und ggf. {@code nextCursor} folgen erst am Ende (Trailer), da sie vorher nicht feststehen. Tritt während der Verarbeitung
+ * ein Fehler auf, bleibt der HTTP-Status 200 und der Trailer meldet {@code "status": "error"}.
+ *
+ * Formate:
+ * <ul>
+ *   <li>JSON: {@code {"objects": [...], "status": ..., "message": ..., "timestamp": ..., "count": n, "nextCursor": ...}}
+ *       (bei gefilterten Anfragen heißt das Feld {@code data} und enthält immer eine Liste)</li>
+ *   <li>NDJSON ({@code Accept: application/x-ndjson}): ein Objekt pro Zeile, der Trailer als letzte Zeile</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessStreamWriter {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectRequestHandler objectRequestHandler;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param filteredOnly true, wenn nur die gefilterten Daten (statt vollständiger {@link AccessibleObject}s) geschrieben werden
+     * @param ndjson       true für NDJSON, sonst ein JSON-Dokument
+     */
+    public StreamingResponseBody stream(AccessRequestDto request, boolean filteredOnly, boolean ndjson) {
+        return out -> {
+            try (JsonGenerator gen = open(out, filteredOnly, ndjson)) {
+                String status = "success";
+                String message = null;
+                String nextCursor = null;
+                int[] count = {0};
+                try {
+                    nextCursor = objectRequestHandler.streamRequest(request, obj -> {
+                        write(gen, filteredOnly ? obj.getFilteredData() : obj, ndjson);
+                        count[0]++;
+                    }).nextCursor();
+                } catch (ResponseWriteException e) {
+                    // Schreiben in die Antwort fehlgeschlagen (meist Verbindungsabbruch): kein Trailer mehr möglich
+                    throw e.getCause();
+                } catch (RuntimeException e) {
+                    log.error("Fehler während der gestreamten Verarbeitung", e);
+                    status = "error";
+                    message = e.getMessage();
+                }
+                writeTrailer(gen, status, message, count[0], nextCursor, ndjson);
+            }
+        };
+    }
+
+    /**
+     * Antwort ohne Objekte, nur mit Fehler-Trailer (z. B. bei ungültiger Anfrage).
+     */
+    public StreamingResponseBody error(String message, boolean filteredOnly, boolean ndjson) {
+        return out -> {
+            try (JsonGenerator gen = open(out, filteredOnly, ndjson)) {
+                writeTrailer(gen, "error", message, 0, null, ndjson);
+            }
+        };
+    }
+
+    private JsonGenerator open(OutputStream out, boolean filteredOnly, boolean ndjson) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (ndjson) {
+            gen.setRootValueSeparator(null);
+        } else {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart(filteredOnly ? "data" : "objects");
+        }
+        return gen;
+    }
+
+    private void write(JsonGenerator gen, Object value, boolean ndjson) {
+        try {
+            gen.writeObject(value);
+            if (ndjson) gen.writeRaw('\n');
+            gen.flush();
+        } catch (IOException e) {
+            throw new ResponseWriteException(e);
+        }
+    }
+
+    private void writeTrailer(JsonGenerator gen, String status, String message, int count, String nextCursor,
+                              boolean ndjson) throws IOException {
+        if (ndjson) {
+            gen.writeStartObject();
+        } else {
+            gen.writeEndArray();
+        }
+        gen.writeStringField("status", status);
+        gen.writeStringField("message", message);
+        gen.writeStringField("timestamp", Instant.now().toString());
+        gen.writeNumberField("count", count);
+        gen.writeStringField("nextCursor", nextCursor);
+        gen.writeEndObject();
+        if (ndjson) gen.writeRaw('\n');
+        gen.flush();
+    }
+
+    /**
+     * Fehler beim Schreiben in den Antwort-Stream; wird von anderen Fehlern der Verarbeitung unterschieden.
+     */
+    private static final class ResponseWriteException extends RuntimeException {
+
+        ResponseWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
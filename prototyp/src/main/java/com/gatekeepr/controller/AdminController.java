@@ -0,0 +1,100 @@
+package com.gatekeepr.controller;
+
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.policy.RuleLoader;
+import com.gatekeepr.policy.RulePlanCache;
+import com.gatekeepr.policy.RuleStatisticsRegistry;
+import com.gatekeepr.service.AccessRightsCache;
+import com.gatekeepr.service.SearchPagePrefetcher;
+import com.gatekeepr.service.SourceDataCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Betriebs- und Diagnose-Endpunkte von GatekeepR (Caches, Zähler, Statistiken).
+ */
+@RestController
+@RequestMapping("/gatekeepr/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final AccessRightsCache accessRightsCache;
+    private final RuleLoader ruleLoader;
+    private final AccessCounterStore accessCounterStore;
+    private final RuleStatisticsRegistry ruleStatistics;
+    private final SearchPagePrefetcher searchPagePrefetcher;
+    private final SourceDataCache sourceDataCache;
+
+    /**
+     * Liefert Größe und Treffer-/Fehl-/Verdrängungszähler des AccessRights-Caches.
+     */
+    @GetMapping("/cache/access-rights")
+    public AccessRightsCache.Stats accessRightsCacheStats() {
+        return accessRightsCache.stats();
+    }
+
+    /**
+     * Liefert die Zähler des Plan-Caches des aktuell aktiven Regelstands.
+     */
+    @GetMapping("/cache/rule-plans")
+    public RulePlanCache.Stats rulePlanCacheStats() {
+        return ruleLoader.getIndex().planCacheStats();
+    }
+
+    /**
+     * Liefert Größe und Treffer-/Fehlzähler der vorab geladenen Suchseiten.
+     */
+    @GetMapping("/cache/search-pages")
+    public SearchPagePrefetcher.Stats searchPageStats() {
+        return searchPagePrefetcher.stats();
+    }
+
+    /**
+     * Liefert Größe (Einträge und geschätzte Bytes) sowie Treffer- und Revalidierungszähler des Quelldaten-Caches.
+     */
+    @GetMapping("/cache/source-data")
+    public SourceDataCache.Stats sourceDataCacheStats() {
+        return sourceDataCache.stats();
+    }
+
+    /**
+     * Liefert Treffer- und Kostenzähler aller Regeln des aktiven Regelstands sowie die Regeln,
+     * die seit dem Start noch nie angewendet wurden.
+     *
+     * Anfrageweite Prüfungen werden je Anfrage gezählt, auch wenn der Regelplan aus dem Cache kommt.
+     *
+     * @param order Sortierung: ordinal (Dateireihenfolge), applications (häufigste zuerst) oder cost (teuerste zuerst);
+     *              andere Werte ergeben 400
+     */
+    @GetMapping("/rule-stats")
+    public ResponseEntity<RuleStatisticsRegistry.Report> ruleStats(@RequestParam(defaultValue = "ordinal") String order) {
+        return Arrays.stream(RuleStatisticsRegistry.Order.values())
+                .filter(o -> o.name().equalsIgnoreCase(order))
+                .findFirst()
+                .map(o -> ResponseEntity.ok(ruleStatistics.report(o)))
+                .orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+
+    /**
+     * Liefert Anzahl, Obergrenze und Ablauf-/Verdrängungszähler der Zugriffszähler.
+     */
+    @GetMapping("/counters/access")
+    public AccessCounterStore.Stats accessCounterStats() {
+        return accessCounterStore.stats();
+    }
+
+    /**
+     * Debug-Ausgabe der aktuellen Zählerstände (Schlüssel → Zugriffe im Fenster), höchstens {@code limit} Einträge.
+     */
+    @GetMapping("/counters/access/entries")
+    public Map<String, Integer> accessCounterEntries(@RequestParam(defaultValue = "1000") int limit) {
+        return accessCounterStore.snapshot(limit);
+    }
+}
@@ -4,10 +4,16 @@ import com.gatekeepr.dto.AccessRequestDto;
 import com.gatekeepr.dto.AccessResponseDto;
 import com.gatekeepr.dto.FilteredAccessResponseDto;
 import com.gatekeepr.service.ObjectRequestHandler;
+import com.gatekeepr.service.SearchCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Zentrale Controller-Klasse für Zugriffsanfragen an GatekeepR.
@@ -20,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 public class GatekeepRController {
 
     private final ObjectRequestHandler objectRequestHandler;
+    private final AccessStreamWriter streamWriter;
 
     /**
      * Validiert eingehende Zugriffsanfragen basierend auf minimal erforderlichen Feldern.
@@ -41,6 +48,17 @@ public class GatekeepRController {
             return "identityId und applicationId ist erforderlich beim Zugriff auf ein einzelnes Objekt.";
         }
 
+        if (dto.getCursor() != null && !dto.getCursor().isBlank()) {
+            if (hasSingle || hasMultiple) {
+                return "cursor ist nur bei Suchanfragen (objectEntityClass) zulässig.";
+            }
+            try {
+                SearchCursor.of(dto);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        }
+
         return null;
     }
 
@@ -89,7 +107,8 @@ public class GatekeepRController {
                             null,
                             "error",
                             validationError,
-                            java.time.ZonedDateTime.now().toString()
+                            java.time.ZonedDateTime.now().toString(),
+                            null
                     )
             );
         }
@@ -97,4 +116,59 @@ public class GatekeepRController {
         FilteredAccessResponseDto response = objectRequestHandler.handleFilteredResponse(requestDto);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Gestreamte Variante von {@link #handleAccessRequest}: Objekte werden geschrieben, sobald sie fertig sind,
+     * Status und Zeitstempel folgen am Ende. Mit {@code Accept: application/x-ndjson} ein Objekt pro Zeile.
+     *
+     * @param requestDto Die Zugriffsanfrage
+     * @param accept     Accept-Header (wählt JSON oder NDJSON)
+     */
+    @PostMapping("/request/stream")
+    public ResponseEntity<StreamingResponseBody> streamAccessRequest(@RequestBody AccessRequestDto requestDto,
+                                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return stream(requestDto, false, accept);
+    }
+
+    /**
+     * Gestreamte Variante von {@link #getFilteredDataOnly}; {@code data} ist dabei immer eine Liste.
+     *
+     * @param requestDto Die Zugriffsanfrage
+     * @param accept     Accept-Header (wählt JSON oder NDJSON)
+     */
+    @PostMapping("/filtered/stream")
+    public ResponseEntity<StreamingResponseBody> streamFilteredData(@RequestBody AccessRequestDto requestDto,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return stream(requestDto, true, accept);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(AccessRequestDto requestDto, boolean filteredOnly, String accept) {
+        log.info("Gestreamte Zugriffsanfrage erhalten: applicationId='{}', identityId='{}', objectId='{}', entityClass='{}'",
+                requestDto.getApplicationId(),
+                requestDto.getIdentityId(),
+                requestDto.getObjectId(),
+                requestDto.getObjectEntityClass());
+
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(AccessStreamWriter.NDJSON));
+        MediaType contentType = ndjson ? AccessStreamWriter.NDJSON : MediaType.APPLICATION_JSON;
+
+        String validationError = validateRequest(requestDto);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().contentType(contentType)
+                    .body(streamWriter.error(validationError, filteredOnly, ndjson));
+        }
+
+        return ResponseEntity.ok().contentType(contentType)
+                .body(streamWriter.stream(requestDto, filteredOnly, ndjson));
+    }
+
+    /**
+     * Alle Stream-Threads und Warteplätze belegt ({@link StreamingConfig}): Anfrage mit 503 ablehnen.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> streamCapacityExceeded(TaskRejectedException e) {
+        log.warn("Gestreamte Anfrage abgelehnt, alle Stream-Threads belegt");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
 }
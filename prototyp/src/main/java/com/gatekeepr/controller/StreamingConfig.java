@@ -0,0 +1,48 @@
+package com.gatekeepr.controller;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Eigener, begrenzter Thread-Pool für gestreamte Antworten ({@link AccessStreamWriter}).
+ *
+ * Jeder Stream belegt für seine gesamte Dauer einen Thread. Statt des allgemeinen
+ * {@code applicationTaskExecutor} (unbegrenzte Warteschlange) laufen Streams auf höchstens
+ * {@code max-concurrent} Threads mit einer Warteschlange von {@code queue-capacity} Plätzen;
+ * darüber hinaus wird die Anfrage mit 503 abgelehnt (siehe {@link GatekeepRController}).
+ */
+@Slf4j
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor streamExecutor;
+
+    public StreamingConfig(
+            @Value("${gatekeepr.stream.max-concurrent:32}") int maxConcurrent,
+            @Value("${gatekeepr.stream.queue-capacity:16}") int queueCapacity
+    ) {
+        this.streamExecutor = new ThreadPoolTaskExecutor();
+        streamExecutor.setCorePoolSize(Math.max(1, maxConcurrent));
+        streamExecutor.setMaxPoolSize(Math.max(1, maxConcurrent));
+        streamExecutor.setQueueCapacity(Math.max(0, queueCapacity));
+        streamExecutor.setThreadNamePrefix("gatekeepr-stream-");
+        streamExecutor.initialize();
+
+        log.info("Stream-Executor initialisiert (maxConcurrent={}, queueCapacity={})", maxConcurrent, queueCapacity);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdown();
+    }
+}
@@ -0,0 +1,405 @@
+package com.gatekeepr.counter;
+
+import com.gatekeepr.cache.SampledLruMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zugriffszähler mit gleitendem Zeitfenster für accessCount-Regeln.
+ *
+ * Das Fenster ({@code gatekeepr.counter.window}) ist in {@code gatekeepr.counter.buckets} Zeitscheiben
+ * unterteilt; gezählt werden die Zugriffe der letzten vollständigen Fensterbreite. Jede Zeitscheibe ist
+ * ein einzelner {@code long} (Scheibennummer und Zähler), der per CAS erhöht wird – es gehen also auch
+ * bei gleichzeitigen Zugriffen keine Zählungen verloren und es werden keine Sperren benötigt.
+ *
+ * Schlüssel ohne Zugriff innerhalb des Fensters werden periodisch entfernt. Ist
+ * {@code gatekeepr.counter.max-keys} erreicht, wird für jeden neuen Schlüssel aus einer Stichprobe
+ * der am längsten nicht genutzte verdrängt.
+ *
+ * Im Replikationsmodus ({@link CounterReplicator}) ist jede Zeitscheibe ein G-Counter: pro Knoten
+ * wird der absolute Zählerstand der Scheibe gehalten und beim Zusammenführen das Maximum übernommen.
+ * Zusammenführen ist damit idempotent und reihenfolgeunabhängig; der Zählerstand eines Schlüssels ist
+ * die Summe über alle Knoten. Lokale Änderungen werden nur als geänderter Schlüssel vorgemerkt.
+ */
+@Slf4j
+@Component
+public class AccessCounterStore {
+
+    /** Bits für den Zähler innerhalb einer Zeitscheibe, darüber die Scheibennummer */
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * Mindestbreite einer Zeitscheibe: Die Scheibennummer (Epochenzeit / Scheibenbreite) muss in die
+     * oberen 39 Bit passen; bei 100 ms reicht das bis über das Jahr 3000 hinaus.
+     */
+    static final long MIN_BUCKET_MILLIS = 100;
+
+    /** Stichprobengröße für die Verdrängung bei voller Map */
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int buckets;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+    /** Seit dem letzten Abgleich lokal geänderte Schlüssel (nur im Replikationsmodus) */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean replicating;
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public AccessCounterStore(
+            Clock clock,
+            @Value("${gatekeepr.counter.window:1m}") Duration window,
+            @Value("${gatekeepr.counter.buckets:12}") int buckets,
+            @Value("${gatekeepr.counter.max-keys:100000}") int maxKeys
+    ) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("gatekeepr.counter.buckets muss mindestens 1 sein, war: " + buckets);
+        }
+        if (window.toMillis() / buckets < MIN_BUCKET_MILLIS) {
+            throw new IllegalArgumentException("Zeitscheiben von gatekeepr.counter.window=" + window + " bei " + buckets
+                    + " Scheiben sind kürzer als " + MIN_BUCKET_MILLIS + "ms");
+        }
+        this.clock = clock;
+        this.buckets = buckets;
+        this.bucketMillis = window.toMillis() / buckets;
+        this.maxKeys = Math.max(1, maxKeys);
+
+        log.info("Zugriffszähler initialisiert (window={}, buckets={}, maxKeys={})", window, this.buckets, this.maxKeys);
+    }
+
+    /**
+     * Zählt einen Zugriff und liefert die Anzahl der Zugriffe im aktuellen Fenster (inkl. diesem).
+     *
+     * @param key Schlüssel, z. B. aus Identität, Anfragendem und Objekt
+     */
+    public int incrementAndGet(String key) {
+        long slice = currentSlice();
+        while (true) {
+            SlidingWindow window = windows.get(key);
+            if (window == null) {
+                if (windows.size() >= maxKeys) evictOne();
+                window = windows.computeIfAbsent(key, k -> new SlidingWindow(buckets));
+            }
+            int count = window.incrementAndGet(slice);
+            // Wurde der Zähler währenddessen entfernt (abgelaufen/verdrängt), im neuen Zähler zählen
+            if (windows.get(key) == window) {
+                if (replicating) dirty.add(key);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Schaltet das Vormerken lokaler Änderungen für die Replikation ein.
+     */
+    public void enableReplication() {
+        this.replicating = true;
+    }
+
+    /**
+     * Entnimmt alle vorgemerkten Schlüssel und liefert deren lokale Zeitscheiben im aktuellen Fenster.
+     *
+     * @param nodeId Kennung dieses Knotens
+     */
+    public CounterDelta collectDelta(String nodeId) {
+        long slice = currentSlice();
+        List<CounterDelta.Entry> entries = new ArrayList<>();
+
+        Iterator<String> it = dirty.iterator();
+        while (it.hasNext()) {
+            String key = it.next();
+            it.remove();
+            SlidingWindow window = windows.get(key);
+            if (window != null) window.collectLocal(key, slice, entries);
+        }
+        return new CounterDelta(nodeId, bucketMillis, entries);
+    }
+
+    /**
+     * Merkt Schlüssel erneut vor, z. B. wenn ein Abgleich fehlgeschlagen ist.
+     */
+    public void markDirty(Collection<String> keys) {
+        if (replicating) dirty.addAll(keys);
+    }
+
+    /**
+     * Übernimmt die Zählerstände eines anderen Knotens (Maximum je Knoten und Zeitscheibe).
+     *
+     * @throws IllegalArgumentException wenn der andere Knoten eine abweichende Scheibenbreite verwendet
+     */
+    public void merge(CounterDelta delta) {
+        if (delta.sliceMillis() != bucketMillis) {
+            throw new IllegalArgumentException("Abweichende Scheibenbreite von Knoten '" + delta.nodeId() + "': "
+                    + delta.sliceMillis() + "ms statt " + bucketMillis + "ms");
+        }
+
+        long oldest = currentSlice() - buckets;
+        for (CounterDelta.Entry entry : delta.entries()) {
+            if (entry.slice() <= oldest) continue;
+
+            SlidingWindow window = windows.get(entry.key());
+            if (window == null) {
+                if (windows.size() >= maxKeys) evictOne();
+                window = windows.computeIfAbsent(entry.key(), k -> new SlidingWindow(buckets));
+            }
+            window.merge(delta.nodeId(), entry.slice(), entry.count());
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der Zugriffe im aktuellen Fenster, ohne zu zählen.
+     */
+    public int get(String key) {
+        SlidingWindow window = windows.get(key);
+        return window == null ? 0 : window.sum(currentSlice());
+    }
+
+    /**
+     * Momentaufnahme aller Schlüssel mit Zugriffen im aktuellen Fenster.
+     */
+    public Map<String, Integer> snapshot() {
+        return snapshot(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Momentaufnahme von höchstens {@code limit} Schlüsseln mit Zugriffen im aktuellen Fenster;
+     * die übrigen Zähler werden nicht mehr durchlaufen.
+     */
+    public Map<String, Integer> snapshot(int limit) {
+        long slice = currentSlice();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, SlidingWindow> entry : windows.entrySet()) {
+            if (result.size() >= limit) break;
+            int count = entry.getValue().sum(slice);
+            if (count > 0) result.put(entry.getKey(), count);
+        }
+        return result;
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    /**
+     * Entfernt Schlüssel, deren letzter Zugriff außerhalb des Fensters liegt.
+     */
+    @Scheduled(fixedDelayString = "${gatekeepr.counter.sweep-interval-ms:30000}")
+    public void expireIdle() {
+        long slice = currentSlice();
+        int before = windows.size();
+        windows.entrySet().removeIf(e -> e.getValue().isIdle(slice));
+        int removed = before - windows.size();
+        if (removed > 0) {
+            expired.add(removed);
+            log.debug("{} inaktive Zugriffszähler entfernt", removed);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(windows.size(), maxKeys, bucketMillis * buckets, expired.sum(), evicted.sum());
+    }
+
+    long sliceMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Übergibt alle Zeitscheiben (lokal und je entferntem Knoten) an {@code visitor}, ohne Sperren
+     * (schwach konsistent wie die Iteration der zugrunde liegenden Map).
+     */
+    void export(SlotVisitor visitor) {
+        windows.forEach((key, window) -> window.export(key, visitor));
+    }
+
+    /**
+     * Übernimmt gesicherte Zeitscheiben (Maximum je Scheibe, wie beim Abgleich).
+     *
+     * @param nodeId Knoten der Zeitscheiben oder null für lokale Zählungen
+     * @param packed Zeitscheiben im internen Format
+     */
+    void restore(String key, String nodeId, long[] packed) {
+        SlidingWindow window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys) return;
+            window = windows.computeIfAbsent(key, k -> new SlidingWindow(buckets));
+        }
+        window.restore(nodeId, packed);
+    }
+
+    /**
+     * Empfänger der Zeitscheiben beim Export.
+     */
+    interface SlotVisitor {
+        void accept(String key, String nodeId, long[] packed);
+    }
+    private long currentSlice() {
+        return clock.millis() / bucketMillis;
+    }
+
+    /**
+     * Verdrängt aus einer zufälligen Stichprobe den Schlüssel mit dem ältesten Zugriff.
+     */
+    private void evictOne() {
+        String oldestKey = null;
+        long oldestSlice = Long.MAX_VALUE;
+
+        for (Map.Entry<String, SlidingWindow> e : SampledLruMap.sample(windows, EVICTION_SAMPLE)) {
+            long last = e.getValue().lastSlice();
+            if (last < oldestSlice) {
+                oldestSlice = last;
+                oldestKey = e.getKey();
+            }
+        }
+
+        if (oldestKey != null && windows.remove(oldestKey) != null) {
+            evicted.increment();
+        }
+    }
+
+    /**
+     * Ringpuffer der Zeitscheiben eines Schlüssels. Jede Scheibe enthält
+     * {@code (Scheibennummer << COUNT_BITS) | Zähler}; Stände anderer Knoten liegen in eigenen Ringpuffern.
+     */
+    private static final class SlidingWindow {
+
+        private final AtomicLongArray slots;
+        private volatile long lastSlice;
+
+        /** Ringpuffer je entferntem Knoten, erst bei Bedarf angelegt */
+        private volatile Map<String, AtomicLongArray> remote;
+
+        SlidingWindow(int buckets) {
+            this.slots = new AtomicLongArray(buckets);
+        }
+
+        void merge(String nodeId, long slice, int count) {
+            mergeSlot(remoteRing(nodeId), (slice << COUNT_BITS) | Math.min(count, COUNT_MASK));
+        }
+
+        void restore(String nodeId, long[] packed) {
+            AtomicLongArray ring = nodeId == null ? slots : remoteRing(nodeId);
+            for (long value : packed) {
+                if (value != 0) mergeSlot(ring, value);
+            }
+        }
+
+        void export(String key, SlotVisitor visitor) {
+            visitor.accept(key, null, copy(slots));
+            Map<String, AtomicLongArray> nodes = remote;
+            if (nodes != null) nodes.forEach((nodeId, ring) -> visitor.accept(key, nodeId, copy(ring)));
+        }
+
+        /**
+         * Übernimmt einen Scheibenwert, sofern er neuer oder (bei gleicher Scheibe) größer ist.
+         */
+        private void mergeSlot(AtomicLongArray ring, long packed) {
+            long slice = packed >>> COUNT_BITS;
+            int index = (int) (slice % ring.length());
+            while (true) {
+                long current = ring.get(index);
+                long currentSlice = current >>> COUNT_BITS;
+                if (currentSlice > slice || currentSlice == slice && current >= packed) break;
+                if (ring.compareAndSet(index, current, packed)) break;
+            }
+            if (slice > lastSlice) lastSlice = slice;
+        }
+
+        private AtomicLongArray remoteRing(String nodeId) {
+            Map<String, AtomicLongArray> nodes = remote;
+            if (nodes == null) {
+                synchronized (this) {
+                    if (remote == null) remote = new ConcurrentHashMap<>();
+                    nodes = remote;
+                }
+            }
+            return nodes.computeIfAbsent(nodeId, k -> new AtomicLongArray(slots.length()));
+        }
+
+        private static long[] copy(AtomicLongArray ring) {
+            long[] values = new long[ring.length()];
+            for (int i = 0; i < values.length; i++) values[i] = ring.get(i);
+            return values;
+        }
+
+        void collectLocal(String key, long slice, List<CounterDelta.Entry> out) {
+            long oldest = slice - slots.length();
+            for (int i = 0; i < slots.length(); i++) {
+                long value = slots.get(i);
+                long valueSlice = value >>> COUNT_BITS;
+                if (valueSlice > oldest && valueSlice <= slice) {
+                    out.add(new CounterDelta.Entry(key, valueSlice, (int) (value & COUNT_MASK)));
+                }
+            }
+        }
+
+        int incrementAndGet(long slice) {
+            int index = (int) (slice % slots.length());
+            while (true) {
+                long current = slots.get(index);
+                long next = (current >>> COUNT_BITS) == slice
+                        ? Math.min(current + 1, (slice << COUNT_BITS) | COUNT_MASK)
+                        : (slice << COUNT_BITS) | 1;
+                if (slots.compareAndSet(index, current, next)) break;
+            }
+            if (slice > lastSlice) lastSlice = slice;
+            return sum(slice);
+        }
+
+        int sum(long slice) {
+            long total = sum(slots, slice);
+            Map<String, AtomicLongArray> nodes = remote;
+            if (nodes != null) {
+                for (AtomicLongArray ring : nodes.values()) total += sum(ring, slice);
+            }
+            return (int) Math.min(total, Integer.MAX_VALUE);
+        }
+
+        private static long sum(AtomicLongArray ring, long slice) {
+            long oldest = slice - ring.length();
+            long total = 0;
+            for (int i = 0; i < ring.length(); i++) {
+                long value = ring.get(i);
+                long valueSlice = value >>> COUNT_BITS;
+                if (valueSlice > oldest && valueSlice <= slice) total += value & COUNT_MASK;
+            }
+            return total;
+        }
+
+        long lastSlice() {
+            return lastSlice;
+        }
+
+        boolean isIdle(long slice) {
+            return lastSlice <= slice - slots.length();
+        }
+    }
+
+    /**
+     * Zähler des Speichers.
+     *
+     * @param windowMillis Tatsächliche Fensterbreite (Vielfaches der Scheibenbreite)
+     */
+    public record Stats(int keys, int maxKeys, long windowMillis, long expired, long evicted) {}
+}
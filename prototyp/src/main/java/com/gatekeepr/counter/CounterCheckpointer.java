@@ -0,0 +1,71 @@
+package com.gatekeepr.counter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Sichert die Zugriffszähler periodisch in eine Binärdatei ({@link CounterSnapshot}) und lädt sie beim Start.
+ *
+ * So bleiben accessCount-Regeln über Neustarts und Deployments hinweg wirksam. Die Sicherung liest
+ * die Zähler ohne Sperren auf dem Scheduler-Thread; Anfrage-Threads werden dabei nicht angehalten.
+ *
+ * Aktiv nur mit {@code gatekeepr.counter.snapshot.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gatekeepr.counter.snapshot.enabled", havingValue = "true")
+public class CounterCheckpointer {
+
+    private final AccessCounterStore store;
+    private final Path file;
+
+    public CounterCheckpointer(
+            AccessCounterStore store,
+            @Value("${gatekeepr.counter.snapshot.path:data/access-counters.bin}") String path
+    ) {
+        this.store = store;
+        this.file = Paths.get(path).toAbsolutePath();
+    }
+
+    /**
+     * Lädt die letzte Sicherung, bevor Anfragen angenommen werden.
+     */
+    @PostConstruct
+    public void restore() {
+        long start = System.nanoTime();
+        try {
+            int records = CounterSnapshot.read(store, file);
+            log.info("{} Zählerdatensätze aus '{}' geladen ({} ms)", records, file, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Zählersicherung '{}' konnte nicht geladen werden, starte ohne Zählerstände", file, e);
+        }
+    }
+
+    /**
+     * Schreibt eine neue Sicherung.
+     */
+    @Scheduled(fixedDelayString = "${gatekeepr.counter.snapshot.interval-ms:10000}",
+            initialDelayString = "${gatekeepr.counter.snapshot.interval-ms:10000}")
+    public void checkpoint() {
+        try {
+            long start = System.nanoTime();
+            int records = CounterSnapshot.write(store, file);
+            log.debug("{} Zählerdatensätze nach '{}' gesichert ({} ms)", records, file, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Zählersicherung nach '{}' fehlgeschlagen", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+}
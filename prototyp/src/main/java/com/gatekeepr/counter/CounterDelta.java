@@ -0,0 +1,27 @@
+package com.gatekeepr.counter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * Zählerstände eines Knotens für den Abgleich zwischen GatekeepR-Instanzen.
+ *
+ * @param nodeId      Kennung des sendenden Knotens
+ * @param sliceMillis Breite einer Zeitscheibe beim Sender (muss bei allen Knoten gleich sein)
+ * @param entries     Absolute Zählerstände je Schlüssel und Zeitscheibe
+ */
+public record CounterDelta(String nodeId, long sliceMillis, List<Entry> entries) {
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return entries == null || entries.isEmpty();
+    }
+
+    /**
+     * @param key   Zählerschlüssel
+     * @param slice Nummer der Zeitscheibe (Epoch-Millis / sliceMillis)
+     * @param count Zählerstand des Senders in dieser Scheibe
+     */
+    public record Entry(String key, long slice, int count) {}
+}
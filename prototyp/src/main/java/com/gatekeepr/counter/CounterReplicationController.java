@@ -0,0 +1,44 @@
+package com.gatekeepr.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Nimmt die Zählerstände anderer GatekeepR-Instanzen entgegen (siehe {@link CounterReplicator}).
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "gatekeepr.counter.replication.enabled", havingValue = "true")
+public class CounterReplicationController {
+
+    private final AccessCounterStore store;
+    private final CounterReplicator replicator;
+
+    @PostMapping(CounterReplicator.PATH)
+    public ResponseEntity<Void> merge(@RequestBody CounterDelta delta) {
+        if (delta.nodeId() == null || delta.nodeId().equals(replicator.getNodeId())) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (delta.isEmpty()) return ResponseEntity.noContent().build();
+
+        try {
+            store.merge(delta);
+        } catch (IllegalArgumentException e) {
+            log.warn("Zählerabgleich abgelehnt: {}", e.getMessage());
+            return ResponseEntity.status(409).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(CounterReplicator.PATH + "/stats")
+    public CounterReplicator.Stats stats() {
+        return replicator.stats();
+    }
+}
@@ -0,0 +1,147 @@
+package com.gatekeepr.counter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gleicht die Zugriffszähler mit den übrigen GatekeepR-Instanzen ab.
+ *
+ * Lokale Zugriffe zählen weiterhin nur im {@link AccessCounterStore} und warten nie auf das Netz.
+ * Alle {@code flush-interval-ms} werden die seither geänderten Schlüssel gesammelt als
+ * {@link CounterDelta} an jeden Peer gesendet ({@code POST /gatekeepr/replication/counters}).
+ * Schlägt das fehl, werden die Schlüssel für den nächsten Durchlauf erneut vorgemerkt; da die
+ * Stände absolut sind, ist mehrfaches Senden unschädlich.
+ *
+ * Die Knotenkennung {@code node-id} muss explizit gesetzt und über Neustarts stabil sein: Die Peers
+ * führen die Stände je Knoten, und mit {@link CounterCheckpointer} wiederhergestellte lokale Stände
+ * würden unter einer neuen Kennung zusätzlich zu den alten gezählt.
+ *
+ * Aktiv nur mit {@code gatekeepr.counter.replication.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gatekeepr.counter.replication.enabled", havingValue = "true")
+public class CounterReplicator {
+
+    static final String PATH = "/gatekeepr/replication/counters";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AccessCounterStore store;
+
+    /** Kennung dieses Knotens */
+    @Getter
+    private final String nodeId;
+
+    /** Basis-URLs der übrigen Instanzen, z. B. http://gatekeepr-2:8080 */
+    private final List<URI> peers;
+
+    private final Duration requestTimeout;
+
+    private final ExecutorService ioExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread t = new Thread(runnable, "gatekeepr-counter-replication");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final HttpClient http;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public CounterReplicator(
+            AccessCounterStore store,
+            @Value("${gatekeepr.counter.replication.node-id:}") String nodeId,
+            @Value("${gatekeepr.counter.replication.peers:}") List<String> peers,
+            @Value("${gatekeepr.counter.replication.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${gatekeepr.counter.replication.request-timeout:2s}") Duration requestTimeout
+    ) {
+        if (nodeId.isBlank()) {
+            throw new IllegalArgumentException("gatekeepr.counter.replication.node-id fehlt; "
+                    + "für die Zählerreplikation ist eine feste, über Neustarts stabile Knotenkennung nötig");
+        }
+        this.store = store;
+        this.nodeId = nodeId;
+        this.peers = peers.stream()
+                .filter(p -> p != null && !p.isBlank())
+                .map(p -> URI.create(p.replaceAll("/+$", "") + PATH))
+                .toList();
+        this.requestTimeout = requestTimeout;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .executor(ioExecutor)
+                .build();
+
+        store.enableReplication();
+        log.info("Zählerreplikation aktiv (nodeId={}, peers={})", nodeId, this.peers);
+    }
+
+    /**
+     * Sendet alle seit dem letzten Durchlauf geänderten Zählerstände an die Peers.
+     */
+    @Scheduled(fixedDelayString = "${gatekeepr.counter.replication.flush-interval-ms:250}")
+    public void flush() {
+        CounterDelta delta = store.collectDelta(nodeId);
+        if (delta.isEmpty() || peers.isEmpty()) return;
+
+        byte[] body;
+        try {
+            body = MAPPER.writeValueAsBytes(delta);
+        } catch (Exception e) {
+            log.error("Zählerabgleich konnte nicht serialisiert werden", e);
+            return;
+        }
+
+        List<String> keys = delta.entries().stream().map(CounterDelta.Entry::key).distinct().toList();
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error == null && response.statusCode() / 100 == 2) {
+                    sent.increment();
+                    return;
+                }
+                failed.increment();
+                store.markDirty(keys);
+                log.warn("Zählerabgleich mit {} fehlgeschlagen: {}", peer,
+                        error != null ? error.getMessage() : "HTTP " + response.statusCode());
+            });
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(nodeId, peers.size(), sent.sum(), failed.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        ioExecutor.shutdown();
+    }
+
+    /**
+     * @param sent   Erfolgreich zugestellte Abgleiche (je Peer gezählt)
+     * @param failed Fehlgeschlagene Abgleiche (je Peer gezählt)
+     */
+    public record Stats(String nodeId, int peers, long sent, long failed) {}
+}
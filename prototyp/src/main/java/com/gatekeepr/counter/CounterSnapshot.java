@@ -0,0 +1,157 @@
+package com.gatekeepr.counter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binäres Sicherungsformat des {@link AccessCounterStore}.
+ *
+ * <pre>
+ * Kopf:      int MAGIC, short VERSION, long sliceMillis
+ * Datensatz: int Länge, int Schlüssellänge, Schlüssel (UTF-8), int Knotenlänge (0 = lokal),
+ *            Knoten (UTF-8), int Anzahl Scheiben, long[] Scheiben
+ * Ende:      int 0
+ * </pre>
+ *
+ * Geschrieben wird in eine temporäre Datei, die anschließend atomar umbenannt wird. Gelesen wird
+ * über eine speicherabgebildete Datei; ist sie abgeschnitten, werden alle vollständigen Datensätze
+ * übernommen und der Rest verworfen.
+ */
+@Slf4j
+final class CounterSnapshot {
+
+    private static final int MAGIC = 0x474B4143; // "GKAC"
+    private static final short VERSION = 1;
+
+    private CounterSnapshot() {}
+
+    /**
+     * Schreibt den aktuellen Stand des Speichers nach {@code file}.
+     *
+     * @return Anzahl geschriebener Datensätze
+     */
+    static int write(AccessCounterStore store, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        int[] records = {0};
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(store.sliceMillis());
+
+            IOException[] failure = {null};
+            store.export((key, nodeId, packed) -> {
+                if (failure[0] != null || isEmpty(packed)) return;
+                try {
+                    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                    byte[] nodeBytes = nodeId == null ? new byte[0] : nodeId.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(4 + keyBytes.length + 4 + nodeBytes.length + 4 + 8 * packed.length);
+                    out.writeInt(keyBytes.length);
+                    out.write(keyBytes);
+                    out.writeInt(nodeBytes.length);
+                    out.write(nodeBytes);
+                    out.writeInt(packed.length);
+                    for (long value : packed) out.writeLong(value);
+                    records[0]++;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+
+            out.writeInt(0);
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records[0];
+    }
+
+    /**
+     * Liest eine Sicherung in den Speicher ein.
+     *
+     * @return Anzahl übernommener Datensätze (0, wenn keine Datei vorhanden oder unbrauchbar)
+     */
+    static int read(AccessCounterStore store, Path file) throws IOException {
+        if (!Files.exists(file)) return 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 14 || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                log.warn("Zählersicherung '{}' hat ein unbekanntes Format und wird ignoriert", file);
+                return 0;
+            }
+            long sliceMillis = buffer.getLong();
+            if (sliceMillis != store.sliceMillis()) {
+                log.warn("Zählersicherung '{}' verwendet {}ms-Scheiben statt {}ms und wird ignoriert",
+                        file, sliceMillis, store.sliceMillis());
+                return 0;
+            }
+
+            int records = 0;
+            while (true) {
+                if (buffer.remaining() < 4) {
+                    log.warn("Zählersicherung '{}' ist unvollständig, {} Datensätze übernommen", file, records);
+                    return records;
+                }
+                int length = buffer.getInt();
+                if (length == 0) return records;
+                if (length < 0 || buffer.remaining() < length) {
+                    log.warn("Zählersicherung '{}' ist unvollständig, {} Datensätze übernommen", file, records);
+                    return records;
+                }
+
+                int next = buffer.position() + length;
+                try {
+                    String key = readString(buffer);
+                    String nodeId = readString(buffer);
+                    long[] packed = new long[checkedLength(buffer, buffer.getInt(), 8)];
+                    for (int i = 0; i < packed.length; i++) packed[i] = buffer.getLong();
+                    store.restore(key, nodeId.isEmpty() ? null : nodeId, packed);
+                    records++;
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    log.warn("Fehlerhafter Datensatz in Zählersicherung '{}' übersprungen", file);
+                }
+                buffer.position(next);
+            }
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[checkedLength(buffer, buffer.getInt(), 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checkedLength(MappedByteBuffer buffer, int count, int elementSize) {
+        if (count < 0 || (long) count * elementSize > buffer.remaining()) {
+            throw new IllegalArgumentException("Ungültige Länge " + count);
+        }
+        return count;
+    }
+
+    private static boolean isEmpty(long[] packed) {
+        for (long value : packed) {
+            if (value != 0) return false;
+        }
+        return true;
+    }
+}
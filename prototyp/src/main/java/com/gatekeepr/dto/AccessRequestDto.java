@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,4 +45,37 @@ public class AccessRequestDto {
 
     /** Anzahl der zurückzugebenden Objekte bei Mehrfachabfragen (optional, z. B. 50) */
     private Integer pageSize;
+
+    /** Fortsetzungsmarke einer seitenweisen Suche (aus {@code nextCursor} der vorherigen Antwort) */
+    private String cursor;
+
+    /**
+     * Optional: nur diese Felder zurückgeben (Schnittmenge mit den Leserechten, objectId kommt immer mit).
+     * Nicht angefragte Felder werden weder geladen noch durch Regeln transformiert.
+     */
+    private List<String> fields;
+
+    /**
+     * Erzeugt eine Kopie der Anfrage mit eigenem, veränderbarem Kontext.
+     *
+     * Wird bei der parallelen Objektverarbeitung genutzt, damit objektbezogene Werte
+     * (z. B. accessCount) nicht in den gemeinsamen Kontext der Anfrage geschrieben werden.
+     *
+     * @return Kopie mit unabhängiger Kontext-Map
+     */
+    public AccessRequestDto withOwnContext() {
+        return new AccessRequestDto(
+                applicationId,
+                identityId,
+                requestedById,
+                objectId,
+                objectIds,
+                objectEntityClass,
+                context != null ? new HashMap<>(context) : new HashMap<>(),
+                createdByMyOwn,
+                pageSize,
+                cursor,
+                fields
+        );
+    }
 }
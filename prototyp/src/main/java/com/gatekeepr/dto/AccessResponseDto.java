@@ -29,6 +29,9 @@ public class AccessResponseDto {
     /** Zeitstempel der Antwort im ISO-Format */
     private String timestamp;
 
+    /** Fortsetzungsmarke für die nächste Seite einer Suche (null, wenn keine weiteren Treffer folgen) */
+    private String nextCursor;
+
     /**
      * Hilfsmethode zur schnellen Erstellung eines Fehlerobjekts mit Zeitstempel.
      *
@@ -36,6 +39,6 @@ public class AccessResponseDto {
      * @return AccessResponseDto mit Status "error"
      */
     public static AccessResponseDto error(String msg) {
-        return new AccessResponseDto(null, "error", msg, Instant.now().toString());
+        return new AccessResponseDto(null, "error", msg, Instant.now().toString(), null);
     }
 }
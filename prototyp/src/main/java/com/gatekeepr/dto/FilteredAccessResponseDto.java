@@ -26,6 +26,9 @@ public class FilteredAccessResponseDto {
     /** Zeitstempel im ISO-Format */
     private String timestamp;
 
+    /** Fortsetzungsmarke für die nächste Seite einer Suche (null, wenn keine weiteren Treffer folgen) */
+    private String nextCursor;
+
     /**
      * Erzeugt eine Fehlerantwort mit Standardstruktur.
      *
@@ -37,7 +40,8 @@ public class FilteredAccessResponseDto {
                 null,
                 "error",
                 msg,
-                java.time.ZonedDateTime.now().toString()
+                java.time.ZonedDateTime.now().toString(),
+                null
         );
     }
 }
@@ -0,0 +1,83 @@
+package com.gatekeepr.metrics;
+
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.policy.RuleLoader;
+import com.gatekeepr.service.AccessRightsCache;
+import com.gatekeepr.service.SearchPagePrefetcher;
+import com.gatekeepr.service.SourceDataCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Anfrageweite Kennzahlen und Füllstände von GatekeepR.
+ *
+ * Laufzeiten der einzelnen Verarbeitungsschritte werden direkt in den jeweiligen Komponenten
+ * erfasst (gatekeepr.transit.requests, gatekeepr.source.fetch, gatekeepr.policy.evaluation,
+ * gatekeepr.response.transform). Hier liegen die Objekte pro Anfrage sowie Gauges für Regelanzahl,
+ * Zugriffszähler und Caches. Abrufbar über {@code /actuator/prometheus}.
+ */
+@Component
+public class PipelineMetrics {
+
+    private final Map<String, DistributionSummary> objectsPerRequest;
+
+    public PipelineMetrics(MeterRegistry meterRegistry, RuleLoader ruleLoader, AccessCounterStore accessCounterStore,
+                           AccessRightsCache accessRightsCache, SearchPagePrefetcher searchPagePrefetcher,
+                           SourceDataCache sourceDataCache) {
+        this.objectsPerRequest = Map.of(
+                "single", objectsSummary(meterRegistry, "single"),
+                "multi", objectsSummary(meterRegistry, "multi"),
+                "search", objectsSummary(meterRegistry, "search")
+        );
+
+        Gauge.builder("gatekeepr.rules.size", ruleLoader, r -> r.getIndex().size())
+                .description("Anzahl geladener Regeln")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.counter.keys", accessCounterStore, AccessCounterStore::size)
+                .description("Anzahl aktiver Zugriffszähler")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.cache.size", accessRightsCache, c -> c.stats().size())
+                .tag("cache", "access-rights")
+                .description("Einträge im Cache")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.cache.size", ruleLoader, r -> r.getIndex().planCacheStats().size())
+                .tag("cache", "rule-plans")
+                .description("Einträge im Cache")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.cache.size", searchPagePrefetcher, p -> p.stats().size())
+                .tag("cache", "search-pages")
+                .description("Einträge im Cache")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.cache.size", sourceDataCache, c -> c.stats().size())
+                .tag("cache", "source-data")
+                .description("Einträge im Cache")
+                .register(meterRegistry);
+        Gauge.builder("gatekeepr.cache.bytes", sourceDataCache, c -> c.stats().bytes())
+                .tag("cache", "source-data")
+                .description("Geschätzte Größe des Caches in Bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Erfasst die Anzahl zurückgegebener Objekte einer Anfrage.
+     *
+     * @param type "single", "multi" oder "search"
+     */
+    public void recordObjects(String type, int count) {
+        DistributionSummary summary = objectsPerRequest.get(type);
+        if (summary != null) summary.record(count);
+    }
+
+    private static DistributionSummary objectsSummary(MeterRegistry meterRegistry, String type) {
+        return DistributionSummary.builder("gatekeepr.request.objects")
+                .description("Zurückgegebene Objekte pro Anfrage")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,289 @@
+package com.gatekeepr.policy;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vorübersetzte, unveränderliche Form einer Regelbedingung aus rules.json.
+ *
+ * Zeitgrenzen liegen bereits als {@link LocalTime} vor, Schwellwerte als {@code int} und
+ * Kontextanforderungen als String-Paare. Bei der Auswertung wird weder geparst noch gecastet.
+ * Ungültige Bedingungen werden schon beim Übersetzen mit einer {@link InvalidRuleException} abgelehnt.
+ *
+ * Semantik wie bisher: alle angegebenen Teilbedingungen müssen erfüllt sein, eine leere
+ * Bedingung oder "always": false trifft nie zu.
+ */
+public final class CompiledCondition {
+
+    private static final Set<String> KNOWN_KEYS = Set.of("time", "context", "accessCount", "objectCount", "always");
+    private static final Set<String> TIME_KEYS = Set.of("after", "before");
+    private static final Set<String> NUMERIC_KEYS = Set.of("greaterThan", "lessThan", "equals");
+
+    /** Bedingung, die nie zutrifft (leer oder "always": false) */
+    private final boolean never;
+
+    /** Zeitfenster (exklusive Grenzen), jeweils null wenn nicht angegeben */
+    private final LocalTime after;
+    private final LocalTime before;
+
+    /** Geforderte Kontextwerte; null wenn keine Kontextbedingung */
+    private final String[] contextKeys;
+    private final String[] contextValues;
+
+    private final NumericBound accessCount;
+    private final NumericBound objectCount;
+
+    private CompiledCondition(boolean never, LocalTime after, LocalTime before, String[] contextKeys, String[] contextValues,
+                              NumericBound accessCount, NumericBound objectCount) {
+        this.never = never;
+        this.after = after;
+        this.before = before;
+        this.contextKeys = contextKeys;
+        this.contextValues = contextValues;
+        this.accessCount = accessCount;
+        this.objectCount = objectCount;
+    }
+
+    /**
+     * Übersetzt eine Bedingung aus der Regeldatei.
+     *
+     * @param condition Rohbedingung (darf null sein)
+     * @throws InvalidRuleException bei unbekannten Schlüsseln, falschen Typen oder ungültigen Uhrzeiten
+     */
+    public static CompiledCondition compile(Map<String, Object> condition) {
+        if (condition == null || condition.isEmpty()) {
+            return new CompiledCondition(true, null, null, null, null, null, null);
+        }
+
+        for (String key : condition.keySet()) {
+            if (!KNOWN_KEYS.contains(key)) {
+                throw new InvalidRuleException("unbekannte Bedingung '" + key + "' (erlaubt: " + KNOWN_KEYS + ")");
+            }
+        }
+
+        LocalTime after = null;
+        LocalTime before = null;
+        if (condition.containsKey("time")) {
+            Map<String, Object> time = asMap(condition.get("time"), "time");
+            requireKeys(time, TIME_KEYS, "time");
+            after = parseTime(time.get("after"), "time.after");
+            before = parseTime(time.get("before"), "time.before");
+        }
+
+        String[] contextKeys = null;
+        String[] contextValues = null;
+        if (condition.containsKey("context")) {
+            Map<String, Object> context = asMap(condition.get("context"), "context");
+            List<String> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            for (Map.Entry<String, Object> e : context.entrySet()) {
+                if (!(e.getValue() instanceof String value)) {
+                    throw new InvalidRuleException("context." + e.getKey() + " muss ein String sein, war: " + e.getValue());
+                }
+                keys.add(e.getKey());
+                values.add(value);
+            }
+            contextKeys = keys.toArray(String[]::new);
+            contextValues = values.toArray(String[]::new);
+        }
+
+        NumericBound accessCount = condition.containsKey("accessCount")
+                ? NumericBound.compile(asMap(condition.get("accessCount"), "accessCount"), "accessCount")
+                : null;
+        NumericBound objectCount = condition.containsKey("objectCount")
+                ? NumericBound.compile(asMap(condition.get("objectCount"), "objectCount"), "objectCount")
+                : null;
+
+        boolean never = false;
+        if (condition.containsKey("always")) {
+            if (!(condition.get("always") instanceof Boolean always)) {
+                throw new InvalidRuleException("always muss true oder false sein, war: " + condition.get("always"));
+            }
+            never = !always;
+        }
+
+        return new CompiledCondition(never, after, before, contextKeys, contextValues, accessCount, objectCount);
+    }
+
+    /**
+     * Prüft die Bedingung gegen den Anfragekontext.
+     *
+     * @param context Anfragekontext (darf null sein)
+     * @param now     Aktuelle Uhrzeit (einmal pro Auswertung ermittelt)
+     * @return true, wenn alle Teilbedingungen erfüllt sind
+     */
+    public boolean matches(Map<String, Object> context, LocalTime now) {
+        return matchesRequest(context, now) && matchesAccessCount(context);
+    }
+
+    /**
+     * Prüft alle Teilbedingungen, die für eine Anfrage unveränderlich sind (alles außer accessCount).
+     */
+    public boolean matchesRequest(Map<String, Object> context, LocalTime now) {
+        if (never) return false;
+
+        if (after != null && !now.isAfter(after)) return false;
+        if (before != null && !now.isBefore(before)) return false;
+
+        if (contextKeys != null) {
+            if (context == null) return false;
+            for (int i = 0; i < contextKeys.length; i++) {
+                Object actual = context.get(contextKeys[i]);
+                if (actual == null || !contextValues[i].equals(actual.toString())) return false;
+            }
+        }
+
+        if (objectCount != null && !objectCount.matches(context, "objectCount")) return false;
+
+        return true;
+    }
+
+    /**
+     * Prüft nur die objektbezogene Teilbedingung accessCount (true, wenn keine angegeben).
+     */
+    public boolean matchesAccessCount(Map<String, Object> context) {
+        return accessCount == null || accessCount.matches(context, "accessCount");
+    }
+
+    public boolean isNever() {
+        return never;
+    }
+
+    public boolean hasTime() {
+        return after != null || before != null;
+    }
+
+    /** Untere Zeitgrenze (exklusiv) oder null */
+    public LocalTime getAfter() {
+        return after;
+    }
+
+    /** Obere Zeitgrenze (exklusiv) oder null */
+    public LocalTime getBefore() {
+        return before;
+    }
+
+    public boolean hasContext() {
+        return contextKeys != null;
+    }
+
+    /** Kontextschlüssel der Bedingung (leer, wenn keine Kontextbedingung) */
+    public List<String> getContextKeys() {
+        return contextKeys == null ? List.of() : List.of(contextKeys);
+    }
+
+    /** Geforderter Wert eines Kontextschlüssels oder null */
+    public String getContextValue(String key) {
+        if (contextKeys == null) return null;
+        for (int i = 0; i < contextKeys.length; i++) {
+            if (contextKeys[i].equals(key)) return contextValues[i];
+        }
+        return null;
+    }
+
+    public boolean hasAccessCount() {
+        return accessCount != null;
+    }
+
+    public boolean hasObjectCount() {
+        return objectCount != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value, String path) {
+        if (!(value instanceof Map<?, ?> map)) {
+            throw new InvalidRuleException(path + " muss ein Objekt sein, war: " + value);
+        }
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                throw new InvalidRuleException(path + " enthält ungültigen Schlüssel: " + key);
+            }
+        }
+        return (Map<String, Object>) map;
+    }
+
+    private static void requireKeys(Map<String, Object> map, Set<String> allowed, String path) {
+        for (String key : map.keySet()) {
+            if (!allowed.contains(key)) {
+                throw new InvalidRuleException("unbekannter Schlüssel '" + path + "." + key + "' (erlaubt: " + allowed + ")");
+            }
+        }
+    }
+
+    private static LocalTime parseTime(Object value, String path) {
+        if (value == null) return null;
+        if (!(value instanceof String s)) {
+            throw new InvalidRuleException(path + " muss eine Uhrzeit (HH:mm) sein, war: " + value);
+        }
+        try {
+            return LocalTime.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRuleException(path + " ist keine gültige Uhrzeit: '" + s + "'");
+        }
+    }
+
+    /**
+     * Vorübersetzte Zahlenbedingung (greaterThan/lessThan/equals) auf einen Kontextzähler.
+     */
+    private static final class NumericBound {
+        private final boolean hasGreaterThan;
+        private final int greaterThan;
+        private final boolean hasLessThan;
+        private final int lessThan;
+        private final boolean hasEquals;
+        private final int equals;
+
+        private NumericBound(Integer greaterThan, Integer lessThan, Integer equals) {
+            this.hasGreaterThan = greaterThan != null;
+            this.greaterThan = greaterThan != null ? greaterThan : 0;
+            this.hasLessThan = lessThan != null;
+            this.lessThan = lessThan != null ? lessThan : 0;
+            this.hasEquals = equals != null;
+            this.equals = equals != null ? equals : 0;
+        }
+
+        static NumericBound compile(Map<String, Object> bound, String path) {
+            requireKeys(bound, NUMERIC_KEYS, path);
+            return new NumericBound(
+                    toInt(bound.get("greaterThan"), path + ".greaterThan"),
+                    toInt(bound.get("lessThan"), path + ".lessThan"),
+                    toInt(bound.get("equals"), path + ".equals")
+            );
+        }
+
+        boolean matches(Map<String, Object> context, String key) {
+            if (context == null) return false;
+            Object raw = context.get(key);
+            if (raw == null) return false;
+
+            long actual;
+            if (raw instanceof Integer || raw instanceof Long || raw instanceof Short || raw instanceof Byte) {
+                actual = ((Number) raw).longValue();
+            } else {
+                // Vom Client übermittelte Werte (z. B. "5") wie bisher tolerant auswerten
+                try {
+                    actual = Integer.parseInt(raw.toString());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            if (actual < Integer.MIN_VALUE || actual > Integer.MAX_VALUE) return false;
+
+            if (hasGreaterThan && actual <= greaterThan) return false;
+            if (hasLessThan && actual >= lessThan) return false;
+            if (hasEquals && actual != equals) return false;
+            return true;
+        }
+
+        private static Integer toInt(Object value, String path) {
+            if (value == null) return null;
+            if (value instanceof Integer i) return i;
+            if (value instanceof Number n && n.doubleValue() == n.intValue()) return n.intValue();
+            throw new InvalidRuleException(path + " muss eine ganze Zahl sein, war: " + value);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Geprüfte und vorübersetzte Regel samt ihrer Position in der Regeldatei.
+ *
+ * @param ordinal    Position in der Regeldatei (bestimmt die Anwendungsreihenfolge)
+ * @param definition Ursprüngliche Regel aus rules.json
+ * @param condition  Vorübersetzte Bedingung
+ * @param statistics Prozessweite Treffer- und Kostenzähler der Regel
+ */
+public record CompiledRule(int ordinal, RuleDefinition definition, CompiledCondition condition, RuleStatistics statistics) {
+
+    private static final Set<String> ACTIONS = Set.of("none", "mask", "remove", "pseudonymize", "generalize");
+
+    /**
+     * Prüft und übersetzt eine Regel.
+     *
+     * @throws InvalidRuleException mit Angabe von Position, Feld und Ursache
+     */
+    public static CompiledRule compile(int ordinal, RuleDefinition rule) {
+        return compile(ordinal, rule, new RuleStatistics());
+    }
+
+    /**
+     * Wie {@link #compile(int, RuleDefinition)}, übernimmt aber bestehende Zähler (z. B. beim Neuladen).
+     */
+    public static CompiledRule compile(int ordinal, RuleDefinition rule, RuleStatistics statistics) {
+        try {
+            if (rule.getField() == null || rule.getField().isBlank()) {
+                throw new InvalidRuleException("field fehlt");
+            }
+            if (rule.getAction() == null || !ACTIONS.contains(rule.getAction())) {
+                throw new InvalidRuleException("unbekannte action '" + rule.getAction() + "' (erlaubt: " + ACTIONS + ")");
+            }
+            validateParameters(rule);
+            return new CompiledRule(ordinal, rule, CompiledCondition.compile(rule.getCondition()), statistics);
+        } catch (InvalidRuleException e) {
+            throw new InvalidRuleException(String.format("Regel #%d (field='%s', action='%s'): %s",
+                    ordinal + 1, rule.getField(), rule.getAction(), e.getMessage()));
+        }
+    }
+
+    public String field() {
+        return definition.getField();
+    }
+
+    public String action() {
+        return definition.getAction();
+    }
+
+    /**
+     * Wie {@link CompiledCondition#matches}, zählt die Prüfung aber in den Regelstatistiken.
+     */
+    public boolean matches(Map<String, Object> context, LocalTime now) {
+        if (!RuleStatistics.sample()) {
+            return record(condition.matches(context, now));
+        }
+        long start = System.nanoTime();
+        boolean matched = condition.matches(context, now);
+        statistics.recordEvaluationCost(System.nanoTime() - start);
+        return record(matched);
+    }
+
+    /**
+     * Wie {@link CompiledCondition#matchesRequest}, zählt die Prüfung aber in den Regelstatistiken.
+     */
+    public boolean matchesRequest(Map<String, Object> context, LocalTime now) {
+        if (!RuleStatistics.sample()) {
+            return record(condition.matchesRequest(context, now));
+        }
+        long start = System.nanoTime();
+        boolean matched = condition.matchesRequest(context, now);
+        statistics.recordEvaluationCost(System.nanoTime() - start);
+        return record(matched);
+    }
+
+    /**
+     * Wie {@link CompiledCondition#matchesAccessCount}, zählt die Prüfung aber in den Regelstatistiken.
+     */
+    public boolean matchesAccessCount(Map<String, Object> context) {
+        return record(condition.matchesAccessCount(context));
+    }
+
+    private boolean record(boolean matched) {
+        statistics.recordEvaluation(matched);
+        return matched;
+    }
+
+    private static void validateParameters(RuleDefinition rule) {
+        Map<String, Object> params = rule.getParameters();
+        if (params == null || !"generalize".equals(rule.getAction()) || !params.containsKey("roundTo")) return;
+
+        try {
+            if (Integer.parseInt(String.valueOf(params.get("roundTo"))) <= 0) {
+                throw new InvalidRuleException("parameters.roundTo muss größer 0 sein");
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidRuleException("parameters.roundTo muss eine ganze Zahl sein, war: " + params.get("roundTo"));
+        }
+    }
+}
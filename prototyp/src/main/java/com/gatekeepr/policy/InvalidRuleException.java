@@ -0,0 +1,17 @@
+package com.gatekeepr.policy;
+
+/**
+ * Wird beim Laden der Regeldatei ausgelöst, wenn eine Regel nicht ausgewertet werden kann
+ * (z. B. unbekannte Bedingung, ungültige Uhrzeit, nicht-numerischer Schwellwert) oder die Datei
+ * selbst nicht gelesen werden kann (fehlend, unvollständig, kein gültiges JSON).
+ */
+public class InvalidRuleException extends IllegalArgumentException {
+
+    public InvalidRuleException(String message) {
+        super(message);
+    }
+
+    public InvalidRuleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
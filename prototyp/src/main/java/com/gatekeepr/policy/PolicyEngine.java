@@ -3,12 +3,13 @@ package com.gatekeepr.policy;
 import com.gatekeepr.dto.AccessRequestDto;
 import com.gatekeepr.dto.RuleDefinition;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Kernkomponente zur Bewertung kontextabhängiger Regeln.
@@ -18,10 +19,27 @@ import java.util.*;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class PolicyEngine {
 
-    private final RuleLoader ruleLoader;
+    private final RuleActivationScheduler activation;
+
+    /** Laufzeit der Regelauswertung je Anfrage (Plan) bzw. je Aufruf von getMatchingRules */
+    private final Timer planTimer;
+    private final Timer matchTimer;
+
+    public PolicyEngine(RuleActivationScheduler activation, MeterRegistry meterRegistry) {
+        this.activation = activation;
+        this.planTimer = evaluationTimer(meterRegistry, "plan");
+        this.matchTimer = evaluationTimer(meterRegistry, "match");
+    }
+
+    private static Timer evaluationTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("gatekeepr.policy.evaluation")
+                .description("Auswertung der Regelbedingungen")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     /**
      * Bewertet alle Regeln für einen Request und gibt die Feld-Aktionen zurück.
@@ -32,17 +50,37 @@ public class PolicyEngine {
     public Map<String, String> evaluate(AccessRequestDto request) {
         Map<String, String> decisions = new HashMap<>();
 
-        for (RuleDefinition rule : ruleLoader.getRules()) {
-            log.debug("Prüfe Regel für Feld '{}', Bedingung: {}", rule.getField(), rule.getCondition());
-
-            if (matchesCondition(rule.getCondition(), request)) {
-                decisions.put(rule.getField(), rule.getAction());
-            }
+        for (RuleDefinition rule : getMatchingRules(request)) {
+            decisions.put(rule.getField(), rule.getAction());
         }
 
         return decisions;
     }
 
+    /**
+     * Erstellt den Regelplan für eine Anfrage. Anfrageweite Kontextwerte (z. B. objectCount)
+     * müssen zu diesem Zeitpunkt bereits gesetzt sein; accessCount wird erst pro Objekt geprüft.
+     * Anfragen mit gleichem relevantem Kontext im selben Zeitabschnitt erhalten denselben Plan
+     * ({@link RulePlanCache}).
+     *
+     * @param request Zugriffsanfrage
+     * @return Plan, der für alle Objekte der Anfrage wiederverwendet werden kann
+     */
+    public RulePlan plan(AccessRequestDto request) {
+        long start = System.nanoTime();
+        RulePlan plan = activation.current().plan(request.getContext());
+        planTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return plan;
+    }
+
+    /**
+     * Gibt an, ob der aktive Regelstand objectCount prüft. Nur dann muss die Trefferzahl einer Suche
+     * feststehen, bevor der Regelplan erstellt wird.
+     */
+    public boolean usesObjectCount() {
+        return activation.current().index().usesObjectCount();
+    }
+
     /**
      * Gibt alle passenden Regeln für einen Request zurück.
      * 
@@ -50,100 +88,33 @@ public class PolicyEngine {
      * @return Liste der zutreffenden Regeln
      */
     public List<RuleDefinition> getMatchingRules(AccessRequestDto request) {
-        return ruleLoader.getRules().stream()
-                .filter(rule -> matchesCondition(rule.getCondition(), request))
-                .toList();
+        return getMatchingRules(request, null);
     }
 
     /**
-     * Prüft, ob eine Bedingung (aus der JSON-Konfiguration) auf die Anfrage zutrifft.
+     * Gibt alle passenden Regeln für einen Request und eine Entitätsklasse zurück.
      *
-     * Unterstützt:
-     * - Zeitfenster (before/after)
-     * - Kontextbasierte Werte
-     * - Zugriffshäufigkeit (accessCount)
-     * - Objektanzahl (objectCount)
-     * - Always-Flag
+     * Geprüft werden nur die Kandidaten aus dem {@link RuleIndex}, also Regeln der Entitätsklasse
+     * bzw. ohne Klassenangabe, deren Kontext- und Zählerschlüssel in der Anfrage vorkommen.
+     * Die Bedingungen liegen bereits übersetzt vor ({@link CompiledCondition}); time-Bedingungen
+     * werden gegen den aktuellen Zeitabschnitt des {@link RuleActivationScheduler} geprüft.
      *
-     * @param condition Regelbedingung
-     * @param request   Zugriffsanfrage
-     * @return true, wenn die Bedingung erfüllt ist
+     * @param request     Zugriffsanfrage
+     * @param entityClass Entitätsklasse des Objekts (z. B. "vehicle") oder null für alle Klassen
+     * @return Liste der zutreffenden Regeln in Dateireihenfolge
      */
-    private boolean matchesCondition(Map<String, Object> condition, AccessRequestDto request) {
-        if (condition == null || condition.isEmpty()) return false;
-        boolean matched = true;
-
-        // Zeitbedingung (z. B. nur nach 08:00 und vor 18:00)
-        if (condition.containsKey("time")) {
-            Map<String, String> timeCond = castMap(condition.get("time"), String.class);
-            LocalTime now = LocalTime.now();
-
-            boolean afterOk = !timeCond.containsKey("after") || now.isAfter(LocalTime.parse(timeCond.get("after")));
-            boolean beforeOk = !timeCond.containsKey("before") || now.isBefore(LocalTime.parse(timeCond.get("before")));
-
-            matched &= (afterOk && beforeOk);
-        }
-
-        // Kontextbasierte Bedingungen (z. B. { "context": { "region": "EU" } })
-        if (condition.containsKey("context")) {
-            Map<String, String> requiredContext = castMap(condition.get("context"), String.class);
-            if (request.getContext() == null) return false;
-
-            for (Map.Entry<String, String> entry : requiredContext.entrySet()) {
-                Object actual = request.getContext().get(entry.getKey());
-                if (actual == null || !entry.getValue().equals(actual.toString())) {
-                    return false;
-                }
+    public List<RuleDefinition> getMatchingRules(AccessRequestDto request, String entityClass) {
+        long start = System.nanoTime();
+        Map<String, Object> context = request.getContext();
+        RuleActivationScheduler.ActiveRules active = activation.current();
+
+        List<RuleDefinition> matched = new ArrayList<>();
+        for (CompiledRule rule : active.index().candidates(context, entityClass)) {
+            if (rule.matches(context, active.time())) {
+                matched.add(rule.definition());
             }
         }
-
-        // Zugriffshäufigkeit (z. B. "accessCount" > 5)
-        if (condition.containsKey("accessCount")) {
-            Map<String, Integer> countCond = castMap(condition.get("accessCount"), Integer.class);
-            if (!evaluateNumericCondition(request, "accessCount", countCond)) return false;
-        }
-
-        // Anzahl an zurückgelieferten Objekten (z. B. zur Limitierung von Detailtiefe)
-        if (condition.containsKey("objectCount")) {
-            Map<String, Integer> countCond = castMap(condition.get("objectCount"), Integer.class);
-            if (!evaluateNumericCondition(request, "objectCount", countCond)) return false;
-        }
-
-        // Immer ausführen, wenn "always": true
-        if (condition.containsKey("always")) {
-            Object val = condition.get("always");
-            matched &= val instanceof Boolean && (Boolean) val;
-        }
-
+        matchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return matched;
     }
-
-    /**
-     * Hilfsmethode zur Prüfung numerischer Kontextwerte wie accessCount oder objectCount.
-     */
-    private boolean evaluateNumericCondition(AccessRequestDto request, String ctxKey, Map<String, Integer> cond) {
-        if (request.getContext() == null || !request.getContext().containsKey(ctxKey)) return false;
-
-        try {
-            int actual = Integer.parseInt(request.getContext().get(ctxKey).toString());
-
-            if (cond.containsKey("greaterThan") && actual <= cond.get("greaterThan")) return false;
-            if (cond.containsKey("lessThan") && actual >= cond.get("lessThan")) return false;
-            if (cond.containsKey("equals") && actual != cond.get("equals")) return false;
-
-        } catch (NumberFormatException e) {
-            log.warn("Ungültiger numerischer Wert für '{}': {}", ctxKey, request.getContext().get(ctxKey));
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Kapselt eine unsichere Cast-Operation mit unterdrückter Warnung.
-     */
-    @SuppressWarnings("unchecked")
-    private <T> Map<String, T> castMap(Object obj, Class<T> clazz) {
-        return (Map<String, T>) obj;
-    }
 }
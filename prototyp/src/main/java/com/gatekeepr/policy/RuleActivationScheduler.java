@@ -0,0 +1,142 @@
+package com.gatekeepr.policy;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hält den aktuell gültigen Zeitabschnitt der time-Bedingungen bereit.
+ *
+ * Welche time-Bedingungen zutreffen, ändert sich nur an den wenigen Grenzen aus der Regeldatei
+ * (z. B. 08:00 und 11:00). Statt bei jeder Auswertung die Uhr abzufragen, wird an jeder Grenze ein
+ * neuer {@link ActiveRules}-Stand berechnet und atomar veröffentlicht; Anfragen lesen nur diese
+ * Referenz. Nach einem Neuladen der Regeln wird der Stand beim nächsten Zugriff neu berechnet.
+ * Die Umschaltung erfolgt wenige Millisekunden nach der Grenze.
+ *
+ * Zeitzone und Uhr stammen aus der {@link Clock}-Bean ({@code gatekeepr.rules.time-zone}).
+ */
+@Slf4j
+@Component
+public class RuleActivationScheduler {
+
+    /** Abstand hinter einer Grenze, damit der neue Abschnitt sicher erreicht ist */
+    private static final Duration PROBE_OFFSET = Duration.ofMillis(5);
+
+    /** Spätestens nach dieser Zeit wird erneut geprüft (Zeitumstellung, Uhrkorrekturen) */
+    private static final Duration MAX_DELAY = Duration.ofMinutes(1);
+
+    private final RuleLoader ruleLoader;
+    private final Clock clock;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread t = new Thread(runnable, "gatekeepr-rule-activation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Aktuell gültiger Stand */
+    private volatile ActiveRules active;
+
+    /** Nächste geplante Neuberechnung */
+    private ScheduledFuture<?> next;
+
+    /** true, sobald Neuberechnungen geplant werden dürfen */
+    private volatile boolean started;
+
+    public RuleActivationScheduler(RuleLoader ruleLoader, Clock clock) {
+        this.ruleLoader = ruleLoader;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        started = true;
+        ActiveRules initial = activate();
+        log.info("Zeitgesteuerte Regelaktivierung gestartet (Zeitzone={}, Grenzen={})",
+                clock.getZone(), initial.index().getTimeBoundaries());
+    }
+
+    /**
+     * Liefert den aktuell gültigen Stand, ohne die Uhr abzufragen.
+     */
+    public ActiveRules current() {
+        ActiveRules current = active;
+        if (current == null || current.index() != ruleLoader.getIndex()) {
+            current = activate();
+        }
+        return current;
+    }
+
+    /**
+     * Berechnet den Stand für die aktuelle Uhrzeit neu, veröffentlicht ihn und plant die nächste Grenze ein.
+     */
+    synchronized ActiveRules activate() {
+        RuleIndex index = ruleLoader.getIndex();
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        LocalTime time = now.toLocalTime();
+
+        ActiveRules current = active;
+        int segment = index.timeSegment(time);
+        if (current == null || current.index() != index || current.segment() != segment) {
+            current = new ActiveRules(index, segment, time);
+            active = current;
+            log.debug("Regelstand {} aktiv für Zeitabschnitt {} ab {}", index.getVersion(), segment, time);
+        }
+
+        scheduleNext(now, index);
+        return current;
+    }
+
+    private void scheduleNext(ZonedDateTime now, RuleIndex index) {
+        if (!started) return;
+        if (next != null) next.cancel(false);
+
+        LocalTime boundary = index.nextTimeBoundary(now.toLocalTime());
+        if (boundary == null) {
+            next = null;
+            return;
+        }
+
+        ZonedDateTime at = now.with(boundary);
+        if (!at.isAfter(now)) at = at.plusDays(1);
+
+        Duration delay = Duration.between(now, at).plus(PROBE_OFFSET);
+        if (delay.compareTo(MAX_DELAY) > 0) delay = MAX_DELAY;
+
+        next = timer.schedule(this::activate, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        started = false;
+        timer.shutdownNow();
+    }
+
+    /**
+     * Regelstand samt gültigem Zeitabschnitt.
+     *
+     * {@link #plan(Map)} liefert den (gecachten) Regelplan für einen Anfragekontext.
+     *
+     * @param index   Aktiver Regelstand
+     * @param segment Zeitabschnitt laut {@link RuleIndex#timeSegment(LocalTime)}
+     * @param time    Uhrzeit innerhalb des Abschnitts; liefert für alle time-Bedingungen dasselbe
+     *                Ergebnis wie jede andere Uhrzeit des Abschnitts
+     */
+    public record ActiveRules(RuleIndex index, int segment, LocalTime time) {
+
+        public RulePlan plan(Map<String, Object> context) {
+            return index.plan(context, segment, time);
+        }
+    }
+}
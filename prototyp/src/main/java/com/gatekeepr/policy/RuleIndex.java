@@ -0,0 +1,281 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Beim Laden der Regeln aufgebauter Index, der pro Anfrage nur die Kandidatenregeln liefert.
+ *
+ * Die Regeln werden zunächst nach Entitätsklasse (Präfix des Feldnamens, z. B. "vehicle" in
+ * "vehicle.licensePlate") partitioniert. Innerhalb einer Partition wird nach Bedingungstyp
+ * unterschieden:
+ * <ul>
+ *   <li>Kontextregeln werden unter (Kontextschlüssel, Wert) abgelegt und nur geprüft, wenn der
+ *       Anfragekontext genau diesen Wert enthält.</li>
+ *   <li>Regeln auf accessCount/objectCount werden nur geprüft, wenn der Schlüssel im Kontext vorhanden ist.</li>
+ *   <li>Alle übrigen Regeln (time, always) sind immer Kandidaten.</li>
+ * </ul>
+ * Regeln, die nie zutreffen können (leere Bedingung, "always": false), werden gar nicht aufgenommen.
+ * Kandidaten werden stets in der Reihenfolge der Regeldatei geliefert.
+ *
+ * Beim Aufbau wird jede Regel zu einer {@link CompiledRule} übersetzt; ungültige Regeln führen
+ * zu einer {@link InvalidRuleException}. Unveränderte Regeln eines Vorgängerstands behalten ihre
+ * {@link RuleStatistics}.
+ */
+public final class RuleIndex {
+
+    /** Partition für Regeln ohne Entitätsklasse im Feldnamen */
+    private static final String UNQUALIFIED = "";
+
+    public static final RuleIndex EMPTY = new RuleIndex(List.of());
+
+    /** Alle Regeln in Dateireihenfolge */
+    private final List<RuleDefinition> rules;
+
+    /** Alle übersetzten Regeln in Dateireihenfolge */
+    private final List<CompiledRule> compiled;
+
+    /** Partition je Entitätsklasse (klein geschrieben) */
+    private final Map<String, Partition> partitions = new HashMap<>();
+
+    /** Partition über alle Regeln (für Anfragen ohne bekannte Entitätsklasse) */
+    private final Partition all = new Partition();
+
+    /** Fortlaufende Nummer des Regelstands */
+    private final long version;
+
+    /** Regelpläne dieses Regelstands */
+    private final RulePlanCache planCache;
+
+    /** Sortierte, eindeutige Grenzen aller time-Bedingungen */
+    private final LocalTime[] timeBoundaries;
+
+    /**
+     * Index ohne Plan-Cache.
+     *
+     * @throws InvalidRuleException wenn eine der Regeln ungültig ist
+     */
+    public RuleIndex(List<RuleDefinition> rules) {
+        this(rules, 0, 0);
+    }
+
+    /**
+     * @param version       Fortlaufende Nummer des Regelstands
+     * @param planCacheSize Maximale Anzahl gecachter Regelpläne (0 = kein Cache)
+     * @throws InvalidRuleException wenn eine der Regeln ungültig ist
+     */
+    public RuleIndex(List<RuleDefinition> rules, long version, int planCacheSize) {
+        this(rules, version, planCacheSize, null);
+    }
+
+    /**
+     * @param previous Bisheriger Regelstand (darf null sein), dessen Statistiken für gleiche Regeln fortgeführt werden
+     * @throws InvalidRuleException wenn eine der Regeln ungültig ist
+     */
+    public RuleIndex(List<RuleDefinition> rules, long version, int planCacheSize, RuleIndex previous) {
+        this.rules = List.copyOf(rules);
+        this.version = version;
+
+        Map<RuleDefinition, Deque<RuleStatistics>> carried = new HashMap<>();
+        if (previous != null) {
+            for (CompiledRule rule : previous.getCompiledRules()) {
+                carried.computeIfAbsent(rule.definition(), k -> new ArrayDeque<>()).add(rule.statistics());
+            }
+        }
+
+        List<CompiledRule> compiledRules = new ArrayList<>(this.rules.size());
+        for (int i = 0; i < this.rules.size(); i++) {
+            Deque<RuleStatistics> existing = carried.get(this.rules.get(i));
+            RuleStatistics statistics = existing == null || existing.isEmpty() ? new RuleStatistics() : existing.poll();
+            CompiledRule rule = CompiledRule.compile(i, this.rules.get(i), statistics);
+            compiledRules.add(rule);
+            if (rule.condition().isNever()) continue;
+
+            all.add(rule);
+            partitions.computeIfAbsent(entityClassOf(rule.field()), k -> new Partition()).add(rule);
+        }
+        this.compiled = List.copyOf(compiledRules);
+
+        SortedSet<LocalTime> boundaries = new TreeSet<>();
+        for (CompiledRule rule : all.rules()) {
+            if (rule.condition().getAfter() != null) boundaries.add(rule.condition().getAfter());
+            if (rule.condition().getBefore() != null) boundaries.add(rule.condition().getBefore());
+        }
+        this.timeBoundaries = boundaries.toArray(LocalTime[]::new);
+        this.planCache = new RulePlanCache(this, all.rules(), planCacheSize);
+    }
+
+    /**
+     * Liefert den Regelplan für einen Anfragekontext; gleiche Kontexte teilen sich einen Plan.
+     *
+     * @param context Anfragekontext (darf null sein)
+     * @param now     Aktuelle Uhrzeit
+     */
+    public RulePlan plan(Map<String, Object> context, LocalTime now) {
+        return planCache.get(context, timeSegment(now), now);
+    }
+
+    /**
+     * Wie {@link #plan(Map, LocalTime)} mit bereits bekanntem Zeitabschnitt.
+     */
+    public RulePlan plan(Map<String, Object> context, int timeSegment, LocalTime now) {
+        return planCache.get(context, timeSegment, now);
+    }
+
+    /**
+     * Nummer des Zeitabschnitts einer Uhrzeit: gerade Werte liegen zwischen zwei Grenzen der
+     * time-Bedingungen, ungerade genau auf einer Grenze (die Grenzen sind exklusiv, dort
+     * unterscheidet sich das Ergebnis von beiden Nachbarn). Innerhalb eines Abschnitts treffen
+     * immer dieselben time-Bedingungen zu.
+     */
+    public int timeSegment(LocalTime time) {
+        int index = Arrays.binarySearch(timeBoundaries, time);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    public List<LocalTime> getTimeBoundaries() {
+        return List.of(timeBoundaries);
+    }
+
+    /**
+     * Nächste Grenze einer time-Bedingung nach {@code time} (ggf. am Folgetag) oder null,
+     * wenn keine Regel eine Zeitbedingung hat.
+     */
+    public LocalTime nextTimeBoundary(LocalTime time) {
+        if (timeBoundaries.length == 0) return null;
+        for (LocalTime boundary : timeBoundaries) {
+            if (boundary.isAfter(time)) return boundary;
+        }
+        return timeBoundaries[0];
+    }
+
+    /**
+     * @return true, wenn mindestens eine Regel eine objectCount-Bedingung hat
+     */
+    public boolean usesObjectCount() {
+        return planCache.usesObjectCount();
+    }
+
+    public RulePlanCache.Stats planCacheStats() {
+        return planCache.stats();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<RuleDefinition> getRules() {
+        return rules;
+    }
+
+    public List<CompiledRule> getCompiledRules() {
+        return compiled;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Liefert alle Regeln, deren Bedingung für den gegebenen Kontext überhaupt zutreffen kann.
+     *
+     * @param context     Anfragekontext (darf null sein)
+     * @param entityClass Entitätsklasse des Objekts oder null für alle Klassen
+     * @return Kandidaten in Dateireihenfolge
+     */
+    public List<CompiledRule> candidates(Map<String, Object> context, String entityClass) {
+        return candidates(context, entityClass, Set.of());
+    }
+
+    /**
+     * Wie {@link #candidates(Map, String)}, liefert Regeln auf die Zählerschlüssel in {@code deferredKeys}
+     * aber auch dann, wenn der Schlüssel (noch) nicht im Kontext steht, z. B. weil accessCount erst
+     * pro Objekt ermittelt wird.
+     */
+    public List<CompiledRule> candidates(Map<String, Object> context, String entityClass, Set<String> deferredKeys) {
+        List<CompiledRule> collected = new ArrayList<>();
+
+        if (entityClass == null) {
+            all.collect(context, deferredKeys, collected);
+        } else {
+            String normalized = entityClass.toLowerCase(Locale.ROOT);
+            Partition qualified = normalized.equals(UNQUALIFIED) ? null : partitions.get(normalized);
+            if (qualified != null) qualified.collect(context, deferredKeys, collected);
+            Partition unqualified = partitions.get(UNQUALIFIED);
+            if (unqualified != null) unqualified.collect(context, deferredKeys, collected);
+        }
+
+        collected.sort(Comparator.comparingInt(CompiledRule::ordinal));
+        return collected;
+    }
+
+    /**
+     * Entitätsklasse eines Regelfelds ("vehicle.licensePlate" → "vehicle", "licensePlate" → "").
+     */
+    static String entityClassOf(String field) {
+        if (field == null) return UNQUALIFIED;
+        int dot = field.indexOf('.');
+        return dot < 0 ? UNQUALIFIED : field.substring(0, dot).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Kandidatenlisten einer Entitätsklasse, gruppiert nach Bedingungstyp.
+     */
+    private static final class Partition {
+
+        /** Regeln ohne Kontext- oder Zählerbedingung (time, always) */
+        private final List<CompiledRule> unkeyed = new ArrayList<>();
+
+        /** Regeln, die einen bestimmten Zählerschlüssel im Kontext voraussetzen */
+        private final Map<String, List<CompiledRule>> byRequiredKey = new HashMap<>();
+
+        /** Kontextregeln nach (Schlüssel, erwarteter Wert) */
+        private final Map<String, Map<String, List<CompiledRule>>> byContextValue = new HashMap<>();
+
+        /** Alle Regeln der Partition */
+        private final List<CompiledRule> rules = new ArrayList<>();
+
+        List<CompiledRule> rules() {
+            return rules;
+        }
+
+        void add(CompiledRule rule) {
+            rules.add(rule);
+            CompiledCondition condition = rule.condition();
+
+            if (!condition.getContextKeys().isEmpty()) {
+                String anchor = condition.getContextKeys().get(0);
+                byContextValue.computeIfAbsent(anchor, k -> new HashMap<>())
+                        .computeIfAbsent(condition.getContextValue(anchor), k -> new ArrayList<>())
+                        .add(rule);
+            } else if (condition.hasAccessCount()) {
+                byRequiredKey.computeIfAbsent("accessCount", k -> new ArrayList<>()).add(rule);
+            } else if (condition.hasObjectCount()) {
+                byRequiredKey.computeIfAbsent("objectCount", k -> new ArrayList<>()).add(rule);
+            } else {
+                unkeyed.add(rule);
+            }
+        }
+
+        void collect(Map<String, Object> context, Set<String> deferredKeys, List<CompiledRule> out) {
+            out.addAll(unkeyed);
+            boolean emptyContext = context == null || context.isEmpty();
+
+            for (Map.Entry<String, List<CompiledRule>> e : byRequiredKey.entrySet()) {
+                if (deferredKeys.contains(e.getKey()) || !emptyContext && context.containsKey(e.getKey())) {
+                    out.addAll(e.getValue());
+                }
+            }
+
+            if (emptyContext || byContextValue.isEmpty()) return;
+            for (Map.Entry<String, Object> e : context.entrySet()) {
+                Map<String, List<CompiledRule>> byValue = byContextValue.get(e.getKey());
+                if (byValue == null || e.getValue() == null) continue;
+                List<CompiledRule> matches = byValue.get(e.getValue().toString());
+                if (matches != null) out.addAll(matches);
+            }
+        }
+    }
+}
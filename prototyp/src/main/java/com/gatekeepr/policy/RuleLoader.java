@@ -9,12 +9,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Lädt die Filter- und Transformationsregeln (rule.json) zur Laufzeit.
@@ -29,42 +30,93 @@ public class RuleLoader {
     @Value("${gatekeepr.rules.path}")
     private String rulesPathProp;
 
-    /** Liste aller aktuell geladenen Regeln */
+    /** Maximale Anzahl gecachter Regelpläne pro Regelstand (0 = kein Cache) */
+    @Value("${gatekeepr.rules.plan-cache.max-entries:1024}")
+    private int planCacheSize;
+
+    /** Version des zuletzt veröffentlichten Regelstands */
+    private final AtomicLong version = new AtomicLong();
+
+    /** Aktuell geladene Regeln samt Index und Plan-Cache; wird bei jedem (Neu-)Laden atomar ersetzt */
     @Getter
-    private List<RuleDefinition> rules = Collections.emptyList();
+    private volatile RuleIndex index = RuleIndex.EMPTY;
 
     /**
      * Initialer Ladevorgang beim Systemstart.
      */
     @PostConstruct
     public void loadRules() {
-        this.rules = readRulesFromFile();
-        log.info("Loaded {} policy rules from '{}'", rules.size(), rulesPathProp);
+        if (tryPublish()) {
+            log.info("Loaded {} policy rules from '{}'", index.size(), rulesPathProp);
+        }
     }
 
     /**
      * Ermöglicht das manuelle Nachladen von Regeln zur Laufzeit.
      * Wird z. B. im Testkontext oder bei externer Änderung aufgerufen.
+     *
+     * Ist die Datei nicht lesbar oder enthält sie eine ungültige Regel, bleiben die bisherigen Regeln aktiv.
      */
     public void reload() {
-        this.rules = readRulesFromFile();
-        log.info("Rules reloaded ({} entries)", rules.size());
+        if (tryPublish()) {
+            log.info("Rules reloaded ({} entries)", index.size());
+        }
+    }
+
+    /**
+     * Liste aller aktuell geladenen Regeln in Dateireihenfolge.
+     */
+    public List<RuleDefinition> getRules() {
+        return index.getRules();
+    }
+
+    /**
+     * Baut den Index für die übergebenen Regeln auf und veröffentlicht ihn. Statistiken unveränderter
+     * Regeln werden übernommen. Die Version wird erst nach erfolgreichem Aufbau vergeben.
+     *
+     * @throws InvalidRuleException wenn eine der Regeln ungültig ist; der bisherige Stand bleibt aktiv
+     */
+    synchronized void publish(List<RuleDefinition> rules) {
+        RuleIndex next = new RuleIndex(rules, version.get() + 1, planCacheSize, index);
+        version.incrementAndGet();
+        this.index = next;
+    }
+
+    /**
+     * Liest die Regeldatei und veröffentlicht sie; bei nicht lesbarer Datei oder ungültigen Regeln
+     * bleibt der bisherige Stand bestehen.
+     *
+     * @return true, wenn die neuen Regeln übernommen wurden
+     */
+    private boolean tryPublish() {
+        try {
+            publish(readRulesFromFile());
+            return true;
+        } catch (InvalidRuleException e) {
+            log.error("Ungültige Regeldatei '{}', bisherige {} Regeln bleiben aktiv: {}",
+                    rulesPathProp, index.size(), e.getMessage());
+            return false;
+        }
     }
 
     /**
      * Interner Lesevorgang der JSON-basierten Regeldatei.
      *
-     * @return Liste der gültigen Regeln oder leere Liste bei Fehlern
+     * @return Liste der Regeln in Dateireihenfolge
+     * @throws InvalidRuleException wenn die Datei fehlt, nicht lesbar ist oder kein gültiges Regel-JSON enthält
      */
     private List<RuleDefinition> readRulesFromFile() {
         Path rulesFile = Paths.get(rulesPathProp);
 
         try (InputStream in = Files.newInputStream(rulesFile)) {
             ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(in, new TypeReference<>() {});
-        } catch (Exception e) {
-            log.error("Fehler beim Laden der Regeldatei '{}'", rulesFile.toAbsolutePath(), e);
-            return Collections.emptyList();
+            List<RuleDefinition> rules = mapper.readValue(in, new TypeReference<>() {});
+            if (rules == null) {
+                throw new InvalidRuleException("Regeldatei '" + rulesFile.toAbsolutePath() + "' ist leer");
+            }
+            return rules;
+        } catch (IOException e) {
+            throw new InvalidRuleException("Regeldatei '" + rulesFile.toAbsolutePath() + "' nicht lesbar: " + e.getMessage(), e);
         }
     }
 }
@@ -0,0 +1,162 @@
+package com.gatekeepr.policy;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regelauswertung für genau eine Anfrage.
+ *
+ * Zeit-, Kontext-, objectCount- und always-Bedingungen sind für alle Objekte einer Anfrage gleich
+ * und werden daher nur einmal pro Entitätsklasse geprüft; dabei entsteht auch die Gruppierung der
+ * Regeln nach Feld. Pro Objekt bleibt nur noch die accessCount-Bedingung zu prüfen – und das auch nur
+ * für Felder, die überhaupt eine solche Regel haben.
+ *
+ * Ein Plan wird erstellt, nachdem alle anfrageweiten Kontextwerte (z. B. objectCount) gesetzt sind,
+ * und darf von mehreren Threads gleichzeitig genutzt werden.
+ */
+public final class RulePlan {
+
+    /** Zählerschlüssel, der erst pro Objekt feststeht */
+    private static final Set<String> PER_OBJECT_KEYS = Set.of("accessCount");
+
+    private final RuleIndex index;
+
+    /** Kopie des Anfragekontexts zum Zeitpunkt der Planung */
+    private final Map<String, Object> context;
+
+    /** Uhrzeit der Planung, gilt für alle Objekte der Anfrage */
+    private final LocalTime now;
+
+    /** Regeln je Entitätsklasse (klein geschrieben), bei Bedarf aufgebaut */
+    private final Map<String, ClassRules> byEntityClass = new ConcurrentHashMap<>();
+
+    RulePlan(RuleIndex index, Map<String, Object> context, LocalTime now) {
+        this.index = index;
+        this.context = context == null ? Map.of() : new HashMap<>(context);
+        this.now = now;
+    }
+
+    /**
+     * Liefert die für diese Anfrage geltenden Regeln einer Entitätsklasse, gruppiert nach Feld.
+     *
+     * @param entityClass Entitätsklasse des Objekts (z. B. "vehicle"), "" wenn unbekannt
+     */
+    public ClassRules forEntityClass(String entityClass) {
+        String normalized = entityClass == null ? "" : entityClass.toLowerCase(Locale.ROOT);
+        return byEntityClass.computeIfAbsent(normalized, this::plan);
+    }
+
+    /**
+     * Zählt die anfrageweiten Prüfungen aller bereits geplanten Entitätsklassen erneut in den
+     * Regelstatistiken, wenn der Plan aus dem {@link RulePlanCache} für eine weitere Anfrage genutzt wird.
+     */
+    void recordReuse() {
+        byEntityClass.values().forEach(ClassRules::recordReuse);
+    }
+
+    private ClassRules plan(String entityClass) {
+        List<CompiledRule> candidates = index.candidates(context, entityClass, PER_OBJECT_KEYS);
+        boolean[] matched = new boolean[candidates.size()];
+        Map<String, List<CompiledRule>> grouped = new HashMap<>();
+        for (int i = 0; i < matched.length; i++) {
+            CompiledRule rule = candidates.get(i);
+            matched[i] = rule.matchesRequest(context, now);
+            if (matched[i]) {
+                grouped.computeIfAbsent(rule.field(), k -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        Map<String, FieldGroup> byField = new HashMap<>();
+        grouped.forEach((field, rules) -> byField.put(field, FieldGroup.of(rules)));
+        return new ClassRules(byField, candidates, matched);
+    }
+
+    /**
+     * Anfrageweit zutreffende Regeln einer Entitätsklasse.
+     */
+    public static final class ClassRules {
+
+        private final Map<String, FieldGroup> byField;
+
+        /** Anfrageweit geprüfte Regeln und deren Ergebnis, für {@link #recordReuse()} */
+        private final List<CompiledRule> evaluated;
+        private final boolean[] matched;
+
+        private ClassRules(Map<String, FieldGroup> byField, List<CompiledRule> evaluated, boolean[] matched) {
+            this.byField = byField;
+            this.evaluated = evaluated;
+            this.matched = matched;
+        }
+
+        /**
+         * Liefert die Regeln für ein Feld eines Objekts. Regeln zum qualifizierten Feldnamen
+         * (z. B. "vehicle.licensePlate") haben Vorrang vor solchen ohne Klassenangabe.
+         *
+         * @param qualifiedField Feldname mit Entitätsklasse
+         * @param field          Feldname ohne Entitätsklasse
+         * @param objectContext  Kontext des Objekts (mit accessCount)
+         */
+        public FieldRules rulesFor(String qualifiedField, String field, Map<String, Object> objectContext) {
+            FieldRules rules = select(byField.get(qualifiedField), objectContext);
+            return rules.isEmpty() ? select(byField.get(field), objectContext) : rules;
+        }
+
+        public boolean isEmpty() {
+            return byField.isEmpty();
+        }
+
+        private void recordReuse() {
+            for (int i = 0; i < matched.length; i++) {
+                evaluated.get(i).statistics().recordCachedEvaluation(matched[i]);
+            }
+        }
+
+        private static FieldRules select(FieldGroup group, Map<String, Object> objectContext) {
+            if (group == null) return FieldRules.NONE;
+            if (!group.perObject()) return group.resolved();
+
+            List<CompiledRule> matched = new ArrayList<>(group.rules().size());
+            for (CompiledRule rule : group.rules()) {
+                if (rule.matchesAccessCount(objectContext)) matched.add(rule);
+            }
+            return FieldRules.of(matched);
+        }
+    }
+
+    /**
+     * Zutreffende Regeln eines Felds in Dateireihenfolge.
+     *
+     * @param rules    Regeln des Felds
+     * @param override true, wenn eine "none"-Regel alle anderen aufhebt
+     */
+    public record FieldRules(List<CompiledRule> rules, boolean override) {
+
+        static final FieldRules NONE = new FieldRules(List.of(), false);
+
+        static FieldRules of(List<CompiledRule> rules) {
+            if (rules.isEmpty()) return NONE;
+            boolean override = rules.stream().anyMatch(r -> "none".equals(r.action()));
+            return new FieldRules(List.copyOf(rules), override);
+        }
+
+        public boolean isEmpty() {
+            return rules.isEmpty();
+        }
+    }
+
+    /**
+     * Anfrageweit vorausgewählte Regeln eines Felds.
+     *
+     * @param rules     Kandidaten nach Prüfung der anfrageweiten Bedingungen
+     * @param perObject true, wenn mindestens eine Regel noch von accessCount abhängt
+     * @param resolved  Fertiges Ergebnis, falls keine Regel von accessCount abhängt
+     */
+    private record FieldGroup(List<CompiledRule> rules, boolean perObject, FieldRules resolved) {
+
+        static FieldGroup of(List<CompiledRule> rules) {
+            boolean perObject = rules.stream().anyMatch(r -> r.condition().hasAccessCount());
+            return new FieldGroup(List.copyOf(rules), perObject, perObject ? null : FieldRules.of(rules));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.cache.SampledLruMap;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter Cache der Regelpläne eines Regelstands.
+ *
+ * Schlüssel ist ein Fingerabdruck des Anfragekontexts, der nur die von Regeln tatsächlich
+ * abgefragten Schlüssel enthält (Kontextschlüssel und ggf. objectCount), zusammen mit dem
+ * Zeitabschnitt zwischen zwei Grenzen der time-Bedingungen ({@link RuleIndex#timeSegment(LocalTime)}).
+ * accessCount gehört nicht dazu, da er erst pro Objekt geprüft wird. Zwei Anfragen mit gleichem Schlüssel erhalten damit
+ * garantiert denselben Plan.
+ *
+ * Jede Instanz gehört fest zu einem {@link RuleIndex}; mit dem Veröffentlichen neuer Regeln
+ * wird der Cache daher atomar mit ersetzt.
+ */
+public final class RulePlanCache {
+
+    private final RuleIndex index;
+    private final int maxEntries;
+
+    /** Von Kontextbedingungen abgefragte Schlüssel in fester Reihenfolge */
+    private final String[] contextKeys;
+
+    /** true, wenn mindestens eine Regel objectCount prüft */
+    private final boolean usesObjectCount;
+
+    /** Pläne, näherungsweise LRU-verdrängt */
+    private final SampledLruMap<PlanKey, RulePlan> plans;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    RulePlanCache(RuleIndex index, List<CompiledRule> rules, int maxEntries) {
+        this.index = index;
+        this.maxEntries = maxEntries;
+
+        SortedSet<String> keys = new TreeSet<>();
+        boolean objectCount = false;
+        for (CompiledRule rule : rules) {
+            keys.addAll(rule.condition().getContextKeys());
+            objectCount |= rule.condition().hasObjectCount();
+        }
+        this.contextKeys = keys.toArray(String[]::new);
+        this.usesObjectCount = objectCount;
+
+        this.plans = SampledLruMap.withMaxEntries(maxEntries);
+    }
+
+    /**
+     * Liefert den Plan für Kontext und Zeitabschnitt aus dem Cache oder erstellt ihn.
+     *
+     * @param timeSegment Zeitabschnitt laut {@link RuleIndex#timeSegment(LocalTime)}
+     * @param now         Beliebige Uhrzeit innerhalb dieses Abschnitts
+     */
+    RulePlan get(Map<String, Object> context, int timeSegment, LocalTime now) {
+        if (maxEntries <= 0) return new RulePlan(index, context, now);
+
+        PlanKey key = new PlanKey(timeSegment, fingerprint(context));
+        RulePlan plan = plans.get(key);
+        if (plan != null) {
+            hits.increment();
+            plan.recordReuse();
+            return plan;
+        }
+
+        misses.increment();
+        plan = new RulePlan(index, context, now);
+        RulePlan existing = plans.putIfAbsent(key, plan);
+        if (existing == null) return plan;
+        existing.recordReuse();
+        return existing;
+    }
+
+    boolean usesObjectCount() {
+        return usesObjectCount;
+    }
+
+    /**
+     * Momentaufnahme der Cache-Zähler.
+     */
+    public Stats stats() {
+        return new Stats(index.getVersion(), maxEntries > 0, plans.size(), hits.sum(), misses.sum(), plans.evictions());
+    }
+
+    /**
+     * Werte der abgefragten Schlüssel (Vergleich erfolgt wie in den Bedingungen über toString()).
+     */
+    private List<String> fingerprint(Map<String, Object> context) {
+        int size = contextKeys.length + (usesObjectCount ? 1 : 0);
+        if (size == 0) return List.of();
+
+        String[] values = new String[size];
+        if (context != null) {
+            for (int i = 0; i < contextKeys.length; i++) {
+                values[i] = asString(context.get(contextKeys[i]));
+            }
+            if (usesObjectCount) values[contextKeys.length] = asString(context.get("objectCount"));
+        }
+        return Arrays.asList(values);
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private record PlanKey(int timeSegment, List<String> fingerprint) {}
+
+    /**
+     * Zähler des Plan-Caches für den aktuellen Regelstand.
+     *
+     * @param ruleSetVersion Version des Regelstands, zu dem der Cache gehört
+     */
+    public record Stats(long ruleSetVersion, boolean enabled, int size, long hits, long misses, long evictions) {}
+}
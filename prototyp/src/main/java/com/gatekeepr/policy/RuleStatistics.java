@@ -0,0 +1,90 @@
+package com.gatekeepr.policy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prozessweite Zähler einer Regel: wie oft ihre Bedingung geprüft wurde, wie oft sie zutraf und wie oft
+ * ihre Aktion auf ein Feld angewendet wurde. Die Kosten von Prüfung und Anwendung werden nur
+ * stichprobenartig (etwa jede 64. Ausführung) gemessen.
+ *
+ * Anfrageweite Prüfungen zählen je Anfrage, auch wenn der Regelplan aus dem {@link RulePlanCache}
+ * kommt; solche übernommenen Ergebnisse werden zusätzlich als {@code cachedEvaluations} gezählt
+ * und gehen nicht in die Kosten ein.
+ *
+ * Die Zähler hängen an der {@link CompiledRule} und werden beim Neuladen für unveränderte Regeln übernommen.
+ */
+public final class RuleStatistics {
+
+    private static final int SAMPLE_MASK = 63;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder cachedEvaluations = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder applications = new LongAdder();
+
+    private final LongAdder evaluationSamples = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder applicationSamples = new LongAdder();
+    private final LongAdder applicationNanos = new LongAdder();
+
+    /**
+     * Entscheidet, ob die nächste Ausführung vermessen wird.
+     */
+    public static boolean sample() {
+        return (ThreadLocalRandom.current().nextInt() & SAMPLE_MASK) == 0;
+    }
+
+    void recordEvaluation(boolean matched) {
+        evaluations.increment();
+        if (matched) matches.increment();
+    }
+
+    void recordCachedEvaluation(boolean matched) {
+        cachedEvaluations.increment();
+        recordEvaluation(matched);
+    }
+
+    void recordEvaluationCost(long nanos) {
+        evaluationSamples.increment();
+        evaluationNanos.add(nanos);
+    }
+
+    public void recordApplication() {
+        applications.increment();
+    }
+
+    public void recordApplicationCost(long nanos) {
+        applicationSamples.increment();
+        applicationNanos.add(nanos);
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /** Davon aus einem gecachten Regelplan übernommen (ohne erneute Prüfung) */
+    public long getCachedEvaluations() {
+        return cachedEvaluations.sum();
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    public long getApplications() {
+        return applications.sum();
+    }
+
+    /** Mittlere Dauer einer Bedingungsprüfung (ns) aus den Stichproben, 0 ohne Stichprobe */
+    public long getAvgEvaluationNanos() {
+        long samples = evaluationSamples.sum();
+        return samples == 0 ? 0 : evaluationNanos.sum() / samples;
+    }
+
+    /** Mittlere Dauer einer Anwendung der Aktion (ns) aus den Stichproben, 0 ohne Stichprobe */
+    public long getAvgApplicationNanos() {
+        long samples = applicationSamples.sum();
+        return samples == 0 ? 0 : applicationNanos.sum() / samples;
+    }
+}
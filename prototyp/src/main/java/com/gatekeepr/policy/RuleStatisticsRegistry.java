@@ -0,0 +1,93 @@
+package com.gatekeepr.policy;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prozessweite Sicht auf die {@link RuleStatistics} aller Regeln des aktiven Regelstands.
+ *
+ * Die Zähler selbst werden lock-frei direkt an den Regeln geführt; hier werden sie nur bei Abfrage
+ * zu einem Bericht zusammengestellt. So lassen sich häufig greifende, teure und nie greifende
+ * Regeln erkennen, ohne pro Anfrage etwas zu protokollieren.
+ */
+@Component
+@RequiredArgsConstructor
+public class RuleStatisticsRegistry {
+
+    /** Sortierung der Regeln im Bericht */
+    public enum Order { ORDINAL, APPLICATIONS, COST }
+
+    private final RuleLoader ruleLoader;
+
+    /**
+     * Erstellt einen Bericht über alle Regeln des aktiven Regelstands.
+     *
+     * @param order Sortierung der Regelliste (nie greifende Regeln stehen immer in Dateireihenfolge)
+     */
+    public Report report(Order order) {
+        RuleIndex index = ruleLoader.getIndex();
+
+        List<RuleStats> rules = new ArrayList<>(index.size());
+        List<RuleStats> neverApplied = new ArrayList<>();
+        for (CompiledRule rule : index.getCompiledRules()) {
+            RuleStats stats = RuleStats.of(rule);
+            rules.add(stats);
+            if (stats.applications() == 0) neverApplied.add(stats);
+        }
+
+        switch (order) {
+            case APPLICATIONS -> rules.sort(Comparator.comparingLong(RuleStats::applications).reversed());
+            case COST -> rules.sort(Comparator.comparingLong(RuleStats::totalCostNanos).reversed());
+            case ORDINAL -> { }
+        }
+        return new Report(index.getVersion(), rules, neverApplied);
+    }
+
+    /**
+     * @param ruleSetVersion Nummer des ausgewerteten Regelstands
+     * @param rules          Alle Regeln in der gewünschten Sortierung
+     * @param neverApplied   Regeln, deren Aktion seit dem Start noch nie angewendet wurde
+     */
+    public record Report(long ruleSetVersion, List<RuleStats> rules, List<RuleStats> neverApplied) {}
+
+    /**
+     * Zählerstände einer Regel.
+     *
+     * @param ordinal             Position in der Regeldatei (ab 0)
+     * @param evaluations         Anzahl der Bedingungsprüfungen (anfrageweit je Anfrage und pro Objekt für accessCount)
+     * @param cachedEvaluations   Davon aus einem gecachten Regelplan übernommen, ohne erneute Prüfung
+     * @param matches             Davon zutreffend
+     * @param applications        Anzahl der Anwendungen der Aktion auf ein Feld
+     * @param avgEvaluationNanos  Mittlere Dauer einer Bedingungsprüfung (Stichprobe)
+     * @param avgApplicationNanos Mittlere Dauer einer Anwendung (Stichprobe)
+     */
+    public record RuleStats(
+            int ordinal,
+            String field,
+            String action,
+            Map<String, Object> condition,
+            long evaluations,
+            long cachedEvaluations,
+            long matches,
+            long applications,
+            long avgEvaluationNanos,
+            long avgApplicationNanos
+    ) {
+        static RuleStats of(CompiledRule rule) {
+            RuleStatistics s = rule.statistics();
+            return new RuleStats(rule.ordinal(), rule.field(), rule.action(), rule.definition().getCondition(),
+                    s.getEvaluations(), s.getCachedEvaluations(), s.getMatches(), s.getApplications(),
+                    s.getAvgEvaluationNanos(), s.getAvgApplicationNanos());
+        }
+
+        /** Geschätzte Gesamtkosten seit dem Start (ns); übernommene Prüfungen kosten nichts */
+        public long totalCostNanos() {
+            return (evaluations - cachedEvaluations) * avgEvaluationNanos + applications * avgApplicationNanos;
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.gatekeepr.response;
 import com.gatekeepr.dto.AccessRequestDto;
 import com.gatekeepr.dto.AccessibleObject;
 import com.gatekeepr.dto.ObjectProperties;
-import com.gatekeepr.policy.RuleUsage;
+import com.gatekeepr.policy.RulePlan;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -30,8 +30,8 @@ public class AccessResponseBuilder {
      * @param identityId   Identität, für die Rechte gelten
      * @param rights       Zugriffsrechte auf Attributebene
      * @param rawData      Ursprüngliche Rohdaten des Objekts
-     * @param request      Ursprüngliche Anfrage (für Kontextprüfung)
-     * @param ruleSummary  Zähler zur Analyse angewendeter Regeln
+     * @param plan         Regelplan der Anfrage
+     * @param request      Anfrage des Objekts (für Kontextprüfung)
      * @return Neues {@link AccessibleObject} mit Filterergebnis
      */
     public AccessibleObject build(
@@ -41,8 +41,8 @@ public class AccessResponseBuilder {
             String identityId,
             ObjectProperties rights,
             Map<String, Object> rawData,
-            AccessRequestDto request,
-            Map<String, RuleUsage> ruleSummary
+            RulePlan plan,
+            AccessRequestDto request
     ) {
         // --- Logging der PM-Rückgabe ---
         if (log.isDebugEnabled()) {
@@ -54,12 +54,13 @@ public class AccessResponseBuilder {
             log.debug("DigitsAccess: {}", rights.getDigitsAccess());
         }
 
+        // Nur angefragte Felder filtern und transformieren (fields der Anfrage)
         Map<String, Object> filtered = responseEngine.filterAndTransform(
                 rawData,
-                rights.getReadProperties(),
+                ResponseEngine.permittedFields(rights.getReadProperties(), request.getFields()),
                 rights.getDigitsAccess() != null ? rights.getDigitsAccess() : List.of(),
-                request,
-                ruleSummary
+                plan,
+                request
         );
 
         return new AccessibleObject(
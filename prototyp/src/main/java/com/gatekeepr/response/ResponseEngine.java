@@ -3,13 +3,17 @@ package com.gatekeepr.response;
 import com.gatekeepr.dto.AccessRequestDto;
 import com.gatekeepr.dto.ObjectProperties;
 import com.gatekeepr.dto.RuleDefinition;
+import com.gatekeepr.policy.CompiledRule;
 import com.gatekeepr.policy.PolicyEngine;
-import com.gatekeepr.policy.RuleUsage;
-import lombok.RequiredArgsConstructor;
+import com.gatekeepr.policy.RulePlan;
+import com.gatekeepr.policy.RuleStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Führt kontextabhängige Filter- und Transformationsregeln auf Daten durch.
@@ -19,41 +23,103 @@ import java.util.*;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ResponseEngine {
 
+    /** Felder, die unabhängig von den Rechten gelesen werden (objectEntityClass nur für die Regelauswahl) */
+    private static final List<String> REQUIRED_FIELDS = List.of("objectId", "objectEntityClass");
+
     private final PolicyEngine policyEngine;
 
+    /** Laufzeit von Filterung und Transformation je Objekt */
+    private final Timer transformTimer;
+
+    public ResponseEngine(PolicyEngine policyEngine, MeterRegistry meterRegistry) {
+        this.policyEngine = policyEngine;
+        this.transformTimer = Timer.builder("gatekeepr.response.transform")
+                .description("Filterung und Transformation eines Objekts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Liefert die Felder, die {@link #filterAndTransform} aus den Rohdaten eines Objekts liest: die erlaubten
+     * Felder sowie objectId und objectEntityClass. Dient als Projektion für den Abruf aus dem Quellsystem.
+     *
+     * @param allowedProperties Durch die Policy Machine erlaubte Felder
+     * @return Sortierte Feldmenge
+     */
+    public static Set<String> requiredFields(Collection<String> allowedProperties) {
+        Set<String> fields = new TreeSet<>(REQUIRED_FIELDS);
+        if (allowedProperties != null) fields.addAll(allowedProperties);
+        return fields;
+    }
+
+    /**
+     * Schränkt die erlaubten Felder auf die vom Aufrufer angefragten ein ({@code fields} der Anfrage).
+     *
+     * @param allowedProperties Durch die Policy Machine erlaubte Felder
+     * @param requestedFields   Angefragte Felder oder null für alle erlaubten
+     * @return Erlaubte und angefragte Felder
+     */
+    public static Collection<String> permittedFields(Collection<String> allowedProperties, Collection<String> requestedFields) {
+        if (requestedFields == null || allowedProperties == null) return allowedProperties;
+        return allowedProperties.stream().filter(requestedFields::contains).toList();
+    }
+
+    /**
+     * Führt Filter- und Umwandlungslogik für ein einzelnes Objekt aus und erstellt dafür einen eigenen Regelplan.
+     *
+     * @see #filterAndTransform(Map, Collection, Collection, RulePlan, AccessRequestDto)
+     */
+    public Map<String, Object> filterAndTransform(
+            Map<String, Object> rawData,
+            Collection<String> allowedProperties,
+            Collection<ObjectProperties.DigitAccess> digitsAccess,
+            AccessRequestDto request
+    ) {
+        return filterAndTransform(rawData, allowedProperties, digitsAccess, policyEngine.plan(request), request);
+    }
+
     /**
      * Führt Filter- und Umwandlungslogik auf Basis erlaubter Felder und zutreffender Regeln aus.
      *
      * @param rawData          Ursprüngliche Objektdaten
      * @param allowedProperties Durch die Policy Machine erlaubte Felder
-     * @param request          Kontext der aktuellen Anfrage
-     * @param ruleSummary      Protokollierung der verwendeten Regeln
+     * @param plan             Regelplan der Anfrage (anfrageweit bereits ausgewertet)
+     * @param request          Kontext des Objekts (für accessCount)
      * @return Gefilterte und ggf. transformierte Daten
      */
     public Map<String, Object> filterAndTransform(
             Map<String, Object> rawData,
             Collection<String> allowedProperties,
             Collection<ObjectProperties.DigitAccess> digitsAccess,
-            AccessRequestDto request,
-            Map<String, RuleUsage> ruleSummary
+            RulePlan plan,
+            AccessRequestDto request
+    ) {
+        long start = System.nanoTime();
+        try {
+            return transform(rawData, allowedProperties, digitsAccess, plan, request);
+        } finally {
+            transformTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Map<String, Object> transform(
+            Map<String, Object> rawData,
+            Collection<String> allowedProperties,
+            Collection<ObjectProperties.DigitAccess> digitsAccess,
+            RulePlan plan,
+            AccessRequestDto request
     ) {
         Map<String, Object> result = new LinkedHashMap<>();
-        List<RuleDefinition> matchedRules = policyEngine.getMatchingRules(request);
         Map<String, List<ObjectProperties.ReadableDigitsRange>> mergedRanges = mergeDigitRanges(digitsAccess);
 
         String objectClass = Optional.ofNullable(rawData.get("objectEntityClass"))
                 .map(Object::toString)
                 .map(String::toLowerCase)
                 .orElse("");
-
-        // Gruppiere Regeln pro Feld
-        Map<String, List<RuleDefinition>> rulesPerField = new HashMap<>();
-        for (RuleDefinition rule : matchedRules) {
-            rulesPerField.computeIfAbsent(rule.getField(), k -> new ArrayList<>()).add(rule);
-        }
+        RulePlan.ClassRules classRules = plan.forEntityClass(objectClass);
+        Map<String, Object> objectContext = request.getContext();
 
         for (Map.Entry<String, Object> entry : rawData.entrySet()) {
             String key = entry.getKey();
@@ -68,31 +134,30 @@ public class ResponseEngine {
             // DigitAccess-Anwendung
             if (mergedRanges.containsKey(key) && value instanceof String s && !s.isEmpty()) {
                 value = applyDigitSlicing(s, mergedRanges.get(key));
-                trackRule(ruleSummary, qualifiedKey, "digitSlice", Map.of("source", "PM"));
-
             }
 
             // Suche passende Regeln (erst qualified, dann unqualified)
-            List<RuleDefinition> fieldRules = Optional.ofNullable(rulesPerField.get(qualifiedKey))
-                    .or(() -> Optional.ofNullable(rulesPerField.get(key)))
-                    .orElse(List.of());
+            RulePlan.FieldRules fieldRules = classRules.rulesFor(qualifiedKey, key, objectContext);
 
             // Sonderfall: Regel mit "none" überschreibt alles
-            boolean hasNoneRule = fieldRules.stream().anyMatch(r -> "none".equals(r.getAction()));
-            if (hasNoneRule) {
-                trackRule(ruleSummary, qualifiedKey, "none", Map.of("override", true));
+            if (fieldRules.override()) {
+                for (CompiledRule compiled : fieldRules.rules()) {
+                    if ("none".equals(compiled.action())) compiled.statistics().recordApplication();
+                }
                 result.put(key, value);
                 continue;
             }
 
             // Transformation anwenden
             boolean transformed = false;
-            for (RuleDefinition rule : fieldRules) {
+            for (CompiledRule compiled : fieldRules.rules()) {
+                RuleDefinition rule = compiled.definition();
                 String action = rule.getAction();
                 Map<String, Object> params = rule.getParameters();
+                RuleStatistics statistics = compiled.statistics();
+                statistics.recordApplication();
 
-                trackRule(ruleSummary, qualifiedKey, action, rule.getCondition());
-
+                long sampleStart = RuleStatistics.sample() ? System.nanoTime() : 0;
                 switch (action) {
                     case "remove" -> {
                         transformed = true;
@@ -102,6 +167,7 @@ public class ResponseEngine {
                     case "pseudonymize" -> value = applyPseudonymization(value, params);
                     case "generalize" -> value = applyGeneralization(value, params);
                 }
+                if (sampleStart != 0) statistics.recordApplicationCost(System.nanoTime() - sampleStart);
             }
 
             if (!transformed) {
@@ -142,8 +208,8 @@ public class ResponseEngine {
         return rounded + "+";
     }
 
-    // Hilfsmethoden für DigitAccess - Merge
-    private Map<String, List<ObjectProperties.ReadableDigitsRange>> mergeDigitRanges(Collection<ObjectProperties.DigitAccess> digitsAccessList) {
+    // Hilfsmethoden für DigitAccess - Merge (paketweit sichtbar für die Benchmarks)
+    Map<String, List<ObjectProperties.ReadableDigitsRange>> mergeDigitRanges(Collection<ObjectProperties.DigitAccess> digitsAccessList) {
         Map<String, List<ObjectProperties.ReadableDigitsRange>> mergedMap = new HashMap<>();
         
         if (digitsAccessList == null) return Collections.emptyMap();        
@@ -166,22 +232,27 @@ public class ResponseEngine {
         ranges.sort(Comparator.comparingInt(ObjectProperties.ReadableDigitsRange::getReadableDigitsFrom));
         List<ObjectProperties.ReadableDigitsRange> merged = new ArrayList<>();
         for (ObjectProperties.ReadableDigitsRange current : ranges) {
+            // Kopien verwenden: die Ursprungsbereiche können aus dem Rechte-Cache stammen
             if (merged.isEmpty()) {
-                merged.add(current);
+                merged.add(copyOf(current));
             } else {
                 ObjectProperties.ReadableDigitsRange last = merged.get(merged.size() - 1);
                 if (current.getReadableDigitsFrom() <= last.getReadableDigitsTo() + 1) {
                     last.setReadableDigitsTo(Math.max(last.getReadableDigitsTo(), current.getReadableDigitsTo()));
                 } else {
-                    merged.add(current);
+                    merged.add(copyOf(current));
                 }
             }
         }
         return merged;
     }
 
+    private ObjectProperties.ReadableDigitsRange copyOf(ObjectProperties.ReadableDigitsRange range) {
+        return new ObjectProperties.ReadableDigitsRange(range.getReadableDigitsFrom(), range.getReadableDigitsTo());
+    }
+
     // Hilfsmethoden für DigitAccess - Slicing
-    private String applyDigitSlicing(Object value, List<ObjectProperties.ReadableDigitsRange> ranges) {
+    String applyDigitSlicing(Object value, List<ObjectProperties.ReadableDigitsRange> ranges) {
 
         if (value == null) return null;        
 
@@ -204,11 +275,4 @@ public class ResponseEngine {
         return new String(chars);
     }
 
-
-
-    // --- Tracking ---
-    private void trackRule(Map<String, RuleUsage> summary, String fieldKey, String action, Map<String, Object> condition) {
-        String countKey = fieldKey + "::" + action;
-        summary.computeIfAbsent(countKey, k -> new RuleUsage(fieldKey, action, condition)).increment();
-    }
 }
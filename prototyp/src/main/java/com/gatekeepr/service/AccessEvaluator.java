@@ -3,10 +3,15 @@ package com.gatekeepr.service;
 import com.gatekeepr.client.TransitAccessClient;
 import com.gatekeepr.client.TransitAccessClient.AccessRights;
 import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.service.SearchPagePrefetcher.PageKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Dient der Abfrage von Zugriffsrechten über die externe Policy Machine (TRANSIT).
@@ -19,6 +24,8 @@ import java.util.List;
 public class AccessEvaluator {
 
     private final TransitAccessClient transit;
+    private final AccessRightsCache rightsCache;
+    private final SearchPagePrefetcher pagePrefetcher;
 
     /**
      * Prüft, welche Rechte eine Identität auf ein bestimmtes Objekt besitzt.
@@ -30,7 +37,28 @@ public class AccessEvaluator {
      * @return Zugriffsrechte auf Attributebene (READ, WRITE, etc.)
      */
     public AccessRights evaluateDirectAccess(String applicationId, String objectId, String identityId, String requestedById) {
-        return transit.getAccessRights(applicationId, objectId, identityId, requestedById);
+        if (!rightsCache.isEnabled()) {
+            return transit.getAccessRights(applicationId, objectId, identityId, requestedById);
+        }
+        return rightsCache.get(applicationId, objectId, identityId, requestedById,
+                () -> transit.loadAccessRights(applicationId, objectId, identityId, requestedById));
+    }
+
+    /**
+     * Prüft die Rechte einer Identität auf mehrere Objekte mit möglichst wenigen PM-Aufrufen.
+     *
+     * @param applicationId  ID der Application
+     * @param objectIds      IDs der Objekte
+     * @param identityId     Die anfragende Identität
+     * @param requestedById  Die ursprüngliche Quelle der Anfrage
+     * @return Zugriffsrechte je Objekt-ID in Eingabereihenfolge
+     */
+    public Map<String, AccessRights> evaluateDirectAccess(String applicationId, List<String> objectIds, String identityId, String requestedById) {
+        if (!rightsCache.isEnabled()) {
+            return transit.getAccessRights(applicationId, objectIds, identityId, requestedById);
+        }
+        return rightsCache.getAll(applicationId, objectIds, identityId, requestedById,
+                missing -> transit.loadAccessRights(applicationId, missing, identityId, requestedById));
     }
 
     /**
@@ -54,4 +82,81 @@ public class AccessEvaluator {
     ) {
         return transit.searchAccessibleObjects(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize);
     }
+
+    /**
+     * Wie {@link #evaluateSearchAccess}, übergibt die Treffer aber einzeln an {@code sink}, sobald sie
+     * aus der Antwort der PM gelesen sind (siehe {@link TransitAccessClient#streamAccessibleObjects}).
+     *
+     * @return Anzahl der Treffer
+     */
+    public int streamSearchAccess(
+        String applicationId,
+        String identityId,
+        String requestedById,
+        String entityClass,
+        Boolean createdByMyOwn,
+        Integer pageSize,
+        Consumer<ObjectAccess> sink
+    ) {
+        return transit.streamAccessibleObjects(applicationId, identityId, requestedById, entityClass, createdByMyOwn,
+                pageSize, null, sink);
+    }
+
+    /**
+     * Ermittelt eine Seite der zugänglichen Objekte einer Entitätsklasse.
+     *
+     * @param page Die angefragte Seite (Suche, Seitengröße und Position)
+     * @return Objekte der Seite und Position der Folgeseite (null, wenn keine weiteren Treffer folgen)
+     * @see #streamSearchPage(PageKey, Consumer)
+     */
+    public SearchPage evaluateSearchPage(PageKey page) {
+        List<ObjectAccess> objects = new ArrayList<>();
+        Integer nextOffset = streamSearchPage(page, objects::add);
+        return new SearchPage(objects, nextOffset);
+    }
+
+    /**
+     * Übergibt die Treffer einer Seite einzeln an {@code sink}.
+     *
+     * Liegt die Seite vorab geladen vor, wird sie daraus geliefert, sonst wird die Antwort der PM
+     * schrittweise gelesen. Sobald feststeht, dass die Seite voll ist, wird die Folgeseite im
+     * Hintergrund angefragt, sodass sie beim nächsten Aufruf (mit {@code nextCursor}) meist schon vorliegt.
+     *
+     * @param page Die angefragte Seite (Suche, Seitengröße und Position)
+     * @return Position der Folgeseite oder null, wenn keine weiteren Treffer folgen
+     */
+    public Integer streamSearchPage(PageKey page, Consumer<ObjectAccess> sink) {
+        CompletableFuture<List<ObjectAccess>> prefetched = pagePrefetcher.take(page);
+        List<ObjectAccess> objects = prefetched != null ? prefetched.join() : List.of();
+
+        int delivered;
+        if (!objects.isEmpty()) {
+            delivered = objects.size();
+            if (delivered >= page.pageSize()) prefetch(page.next(delivered));
+            objects.forEach(sink);
+        } else {
+            // Nicht vorab geladen (oder Vorabladen fehlgeschlagen): Antwort der PM schrittweise lesen
+            int[] count = {0};
+            delivered = transit.streamAccessibleObjects(page.applicationId(), page.identityId(), page.requestedById(),
+                    page.entityClass(), page.createdByMyOwn(), page.pageSize(), page.offset(), access -> {
+                        if (++count[0] == page.pageSize()) prefetch(page.next(count[0]));
+                        sink.accept(access);
+                    });
+        }
+
+        return delivered >= page.pageSize() ? page.offset() + delivered : null;
+    }
+
+    private void prefetch(PageKey next) {
+        pagePrefetcher.prefetch(next, () -> transit.searchAccessibleObjectsAsync(next.applicationId(), next.identityId(),
+                next.requestedById(), next.entityClass(), next.createdByMyOwn(), next.pageSize(), next.offset()));
+    }
+
+    /**
+     * Eine Seite der Suchtreffer.
+     *
+     * @param objects    Zugängliche Objekte der Seite
+     * @param nextOffset Position der Folgeseite oder null, wenn dies die letzte Seite ist
+     */
+    public record SearchPage(List<ObjectAccess> objects, Integer nextOffset) {}
 }
@@ -0,0 +1,291 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.cache.SampledLruMap;
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.client.TransitUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Begrenzter Cache für Zugriffsrechte der Policy Machine.
+ *
+ * Schlüssel ist (applicationId, objectId, identityId, requestedById). Einträge sind für
+ * {@code ttl} frisch, leere Rechte (404) nur für das kürzere {@code negative-ttl}.
+ * Danach werden sie noch für {@code refresh-window} ausgeliefert und dabei im Hintergrund
+ * erneuert (stale-while-revalidate). Fällt die PM aus, werden abgelaufene Einträge bis
+ * {@code stale-if-error} weiter ausgeliefert. Bei Überschreiten von {@code max-entries}
+ * wird näherungsweise der am längsten nicht genutzte Eintrag verdrängt ({@link SampledLruMap}).
+ *
+ * Entzogene Rechte bleiben damit bis {@code ttl + refresh-window} sichtbar, bei Ausfall der PM bis
+ * {@code ttl + stale-if-error}; der Cache ist deshalb standardmäßig deaktiviert.
+ */
+@Slf4j
+@Component
+public class AccessRightsCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long refreshWindowNanos;
+    private final long staleIfErrorNanos;
+
+    /** Verdrängt bei Überschreiten der Maximalgröße */
+    private final SampledLruMap<CacheKey, Entry> entries;
+
+    /** Schlüssel, deren Hintergrundaktualisierung gerade läuft */
+    private final Set<CacheKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread t = new Thread(runnable, "gatekeepr-rights-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder staleServedOnError = new LongAdder();
+
+    public AccessRightsCache(
+            @Value("${gatekeepr.transit.cache.enabled:false}") boolean enabled,
+            @Value("${gatekeepr.transit.cache.max-entries:100000}") int maxEntries,
+            @Value("${gatekeepr.transit.cache.ttl:10s}") Duration ttl,
+            @Value("${gatekeepr.transit.cache.negative-ttl:2s}") Duration negativeTtl,
+            @Value("${gatekeepr.transit.cache.refresh-window:30s}") Duration refreshWindow,
+            @Value("${gatekeepr.transit.cache.stale-if-error:5m}") Duration staleIfError
+    ) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.refreshWindowNanos = refreshWindow.toNanos();
+        this.staleIfErrorNanos = staleIfError.toNanos();
+        this.entries = SampledLruMap.withMaxEntries(maxEntries);
+
+        log.info("AccessRights-Cache {} (maxEntries={}, ttl={}, negativeTtl={}, refreshWindow={}, staleIfError={})",
+                enabled ? "aktiv" : "deaktiviert", maxEntries, ttl, negativeTtl, refreshWindow, staleIfError);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Liefert die Rechte auf ein Objekt aus dem Cache oder lädt sie über {@code loader}.
+     *
+     * @param loader Lädt die Rechte von der PM; wirft {@link TransitUnavailableException} bei Ausfall
+     */
+    public AccessRights get(String applicationId, String objectId, String identityId, String requestedById,
+                            Supplier<AccessRights> loader) {
+        CacheKey key = new CacheKey(applicationId, objectId, identityId, requestedById);
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+
+        if (entry != null) {
+            long age = now - entry.loadedAt();
+            long ttl = ttlFor(entry);
+            if (age < ttl) {
+                hits.increment();
+                return entry.rights();
+            }
+            if (age < ttl + refreshWindowNanos) {
+                staleHits.increment();
+                refreshInBackground(key, loader);
+                return entry.rights();
+            }
+        }
+
+        misses.increment();
+        try {
+            return put(key, loader.get(), System.nanoTime());
+        } catch (TransitUnavailableException e) {
+            return fallback(key, entry, now, e);
+        }
+    }
+
+    /**
+     * Liefert die Rechte auf mehrere Objekte. Fehlende oder abgelaufene Einträge werden
+     * gesammelt mit einem einzigen Aufruf von {@code batchLoader} nachgeladen.
+     *
+     * @param batchLoader Lädt die Rechte für eine Liste von Objekt-IDs; wirft {@link TransitUnavailableException} bei Ausfall
+     * @return Rechte je Objekt-ID in Eingabereihenfolge
+     */
+    public Map<String, AccessRights> getAll(String applicationId, List<String> objectIds, String identityId, String requestedById,
+                                            Function<List<String>, Map<String, AccessRights>> batchLoader) {
+        Map<String, AccessRights> result = new LinkedHashMap<>();
+        Map<String, Entry> expired = new LinkedHashMap<>();
+        List<String> toLoad = new ArrayList<>();
+        List<String> toRefresh = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (String objectId : objectIds) {
+            Entry entry = entries.get(new CacheKey(applicationId, objectId, identityId, requestedById));
+            result.put(objectId, null);
+
+            if (entry != null) {
+                long age = now - entry.loadedAt();
+                long ttl = ttlFor(entry);
+                if (age < ttl) {
+                    hits.increment();
+                    result.put(objectId, entry.rights());
+                    continue;
+                }
+                if (age < ttl + refreshWindowNanos) {
+                    staleHits.increment();
+                    result.put(objectId, entry.rights());
+                    toRefresh.add(objectId);
+                    continue;
+                }
+                expired.put(objectId, entry);
+            }
+            misses.increment();
+            toLoad.add(objectId);
+        }
+
+        if (!toLoad.isEmpty()) {
+            try {
+                Map<String, AccessRights> loaded = batchLoader.apply(toLoad);
+                long loadedAt = System.nanoTime();
+                for (String objectId : toLoad) {
+                    AccessRights rights = loaded.getOrDefault(objectId, AccessRights.empty());
+                    result.put(objectId, put(new CacheKey(applicationId, objectId, identityId, requestedById), rights, loadedAt));
+                }
+            } catch (TransitUnavailableException e) {
+                for (String objectId : toLoad) {
+                    CacheKey key = new CacheKey(applicationId, objectId, identityId, requestedById);
+                    result.put(objectId, fallback(key, expired.get(objectId), now, e));
+                }
+            }
+        }
+
+        if (!toRefresh.isEmpty()) {
+            refreshAllInBackground(applicationId, toRefresh, identityId, requestedById, batchLoader);
+        }
+
+        return result;
+    }
+
+    /**
+     * Momentaufnahme der Cache-Zähler.
+     */
+    public Stats stats() {
+        return new Stats(
+                enabled,
+                entries.size(),
+                hits.sum(),
+                staleHits.sum(),
+                misses.sum(),
+                entries.evictions(),
+                refreshes.sum(),
+                loadFailures.sum(),
+                staleServedOnError.sum()
+        );
+    }
+
+    private AccessRights put(CacheKey key, AccessRights rights, long loadedAt) {
+        entries.put(key, new Entry(rights, rights.isEmpty(), loadedAt));
+        return rights;
+    }
+
+    /**
+     * Behandelt einen PM-Ausfall: liefert einen noch tolerierten abgelaufenen Eintrag oder leere Rechte.
+     */
+    private AccessRights fallback(CacheKey key, Entry entry, long now, TransitUnavailableException e) {
+        loadFailures.increment();
+        if (entry != null && now - entry.loadedAt() < ttlFor(entry) + staleIfErrorNanos) {
+            staleServedOnError.increment();
+            log.warn("TRANSIT nicht erreichbar, liefere abgelaufene Rechte aus dem Cache für objectId='{}'", key.objectId());
+            return entry.rights();
+        }
+        log.error("Fehler beim Aufruf des TRANSIT-Systems", e);
+        return AccessRights.empty();
+    }
+
+    private void refreshInBackground(CacheKey key, Supplier<AccessRights> loader) {
+        if (!refreshing.add(key)) return;
+
+        refreshExecutor.execute(() -> {
+            try {
+                put(key, loader.get(), System.nanoTime());
+                refreshes.increment();
+            } catch (TransitUnavailableException e) {
+                loadFailures.increment();
+                log.warn("Hintergrundaktualisierung für objectId='{}' fehlgeschlagen: {}", key.objectId(), e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private void refreshAllInBackground(String applicationId, List<String> objectIds, String identityId, String requestedById,
+                                        Function<List<String>, Map<String, AccessRights>> batchLoader) {
+        List<String> claimed = new ArrayList<>();
+        for (String objectId : objectIds) {
+            if (refreshing.add(new CacheKey(applicationId, objectId, identityId, requestedById))) {
+                claimed.add(objectId);
+            }
+        }
+        if (claimed.isEmpty()) return;
+
+        refreshExecutor.execute(() -> {
+            try {
+                Map<String, AccessRights> loaded = batchLoader.apply(claimed);
+                long loadedAt = System.nanoTime();
+                for (String objectId : claimed) {
+                    put(new CacheKey(applicationId, objectId, identityId, requestedById),
+                            loaded.getOrDefault(objectId, AccessRights.empty()), loadedAt);
+                }
+                refreshes.add(claimed.size());
+            } catch (TransitUnavailableException e) {
+                loadFailures.increment();
+                log.warn("Hintergrundaktualisierung für {} Objekte fehlgeschlagen: {}", claimed.size(), e.getMessage());
+            } finally {
+                claimed.forEach(objectId -> refreshing.remove(new CacheKey(applicationId, objectId, identityId, requestedById)));
+            }
+        });
+    }
+
+    private long ttlFor(Entry entry) {
+        return entry.negative() ? negativeTtlNanos : ttlNanos;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private record CacheKey(String applicationId, String objectId, String identityId, String requestedById) {}
+
+    private record Entry(AccessRights rights, boolean negative, long loadedAt) {}
+
+    /**
+     * Zähler des Caches (kumuliert seit Start).
+     */
+    public record Stats(
+            boolean enabled,
+            int size,
+            long hits,
+            long staleHits,
+            long misses,
+            long evictions,
+            long refreshes,
+            long loadFailures,
+            long staleServedOnError
+    ) {}
+}
@@ -1,23 +1,47 @@
 package com.gatekeepr.service;
 
 import com.gatekeepr.client.SourceDataClient;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Verantwortlich für den Abruf der Rohdaten eines Objekts aus dem Quellsystem.
  * 
  * Diese Daten werden nach erfolgreicher Rechteprüfung durch GatekeepR
- * gefiltert und ggf. transformiert zurückgegeben.
+ * gefiltert und ggf. transformiert zurückgegeben. Abrufe laufen über den {@link SourceDataCache};
+ * die Laufzeit-Timer erfassen nur tatsächliche Abrufe beim Quellsystem.
  */
 @Service
-@RequiredArgsConstructor
 public class DataFetcher {
 
     private final SourceDataClient source;
 
+    private final SourceDataCache cache;
+
+    /** Laufzeit der Quellsystem-Abrufe */
+    private final Timer fetchTimer;
+
+    /** Laufzeit der Quellsystem-Abrufe für mehrere Objekte */
+    private final Timer batchFetchTimer;
+
+    public DataFetcher(SourceDataClient source, SourceDataCache cache, MeterRegistry meterRegistry) {
+        this.source = source;
+        this.cache = cache;
+        this.fetchTimer = Timer.builder("gatekeepr.source.fetch")
+                .description("Abruf der Rohdaten aus dem Quellsystem")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchFetchTimer = Timer.builder("gatekeepr.source.fetch.batch")
+                .description("Abruf der Rohdaten mehrerer Objekte aus dem Quellsystem")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     /**
      * Lädt die vollständigen Rohdaten eines Objekts anhand seiner ID und Entitätsklasse.
      *
@@ -26,6 +50,39 @@ public class DataFetcher {
      * @return Map mit den Rohdatenattributen (z. B. { "licensePlate": "XYZ 123" })
      */
     public Map<String, Object> fetchRawData(String objectId, String entityClass) {
-        return source.loadObjectData(objectId, entityClass);
+        return fetchRawData(objectId, entityClass, null);
+    }
+
+    /**
+     * Lädt nur die angegebenen Felder eines Objekts (Projektion wird an das Quellsystem weitergegeben).
+     *
+     * @param fields Benötigte Felder, z. B. aus {@link com.gatekeepr.response.ResponseEngine#requiredFields};
+     *               null für das vollständige Objekt
+     */
+    public Map<String, Object> fetchRawData(String objectId, String entityClass, Collection<String> fields) {
+        return cache.get(entityClass, objectId, fields,
+                (toLoad, etag) -> fetchTimer.record(() -> source.loadObject(objectId, entityClass, toLoad, etag)));
+    }
+
+    /**
+     * Lädt die Rohdaten mehrerer Objekte mit möglichst wenigen Abrufen.
+     *
+     * @param objectIds    IDs der Objekte
+     * @param entityClass  Klassentyp der Objekte
+     * @return Rohdaten je Objekt-ID; vom Quellsystem nicht gelieferte Objekte fehlen
+     */
+    public Map<String, Map<String, Object>> fetchRawData(List<String> objectIds, String entityClass) {
+        return fetchRawData(objectIds, entityClass, null);
+    }
+
+    /**
+     * Lädt nur die angegebenen Felder mehrerer Objekte.
+     *
+     * @param fields Benötigte Felder (für alle Objekte gleich) oder null für vollständige Objekte
+     */
+    public Map<String, Map<String, Object>> fetchRawData(List<String> objectIds, String entityClass, Collection<String> fields) {
+        if (objectIds.isEmpty()) return Map.of();
+        return cache.getAll(entityClass, objectIds, fields,
+                (toLoad, toLoadFields, etags) -> batchFetchTimer.record(() -> source.loadObjects(toLoad, entityClass, toLoadFields, etags)));
     }
 }
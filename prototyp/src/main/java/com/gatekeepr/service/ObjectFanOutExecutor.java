@@ -0,0 +1,158 @@
+package com.gatekeepr.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Führt die Verarbeitung mehrerer Objekte einer Anfrage nebenläufig aus.
+ *
+ * Pro Anfrage sind höchstens {@code gatekeepr.fanout.parallelism} Objekte gleichzeitig
+ * in Bearbeitung; die Ergebnisse werden stets in der Reihenfolge der Eingabe geliefert.
+ * Bei einer Parallelität von 1 (oder nur einem Objekt) läuft alles im aufrufenden Thread.
+ */
+@Slf4j
+@Component
+public class ObjectFanOutExecutor {
+
+    /** Maximale Anzahl gleichzeitig bearbeiteter Objekte pro Anfrage */
+    private final int parallelism;
+
+    /** Gemeinsamer Thread-Pool für alle Anfragen */
+    private final ExecutorService executor;
+
+    public ObjectFanOutExecutor(
+            @Value("${gatekeepr.fanout.parallelism:8}") int parallelism,
+            @Value("${gatekeepr.fanout.max-threads:64}") int maxThreads
+    ) {
+        this.parallelism = Math.max(1, parallelism);
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                Math.max(1, maxThreads), Math.max(1, maxThreads),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                namedDaemonThreads("gatekeepr-fanout-")
+        );
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        log.info("Object fan-out initialisiert (parallelism={}, maxThreads={})", this.parallelism, maxThreads);
+    }
+
+    /**
+     * Wendet {@code task} auf alle Elemente an und liefert die Ergebnisse in Eingabereihenfolge.
+     *
+     * @param items Zu verarbeitende Elemente (z. B. Objekt-IDs)
+     * @param task  Verarbeitung pro Element
+     * @return Ergebnisliste in derselben Reihenfolge wie {@code items}
+     */
+    public <T, R> List<R> mapOrdered(List<T> items, Function<T, R> task) {
+        List<R> results = new ArrayList<>(items.size());
+        forEachOrdered(items, task, results::add);
+        return results;
+    }
+
+    /**
+     * Wendet {@code task} auf alle Elemente an und übergibt die Ergebnisse in Eingabereihenfolge an {@code sink}.
+     *
+     * Es befinden sich nie mehr als {@code parallelism} Ergebnisse gleichzeitig in Bearbeitung
+     * oder im Puffer, sodass der Speicherbedarf unabhängig von der Anzahl der Elemente bleibt.
+     *
+     * @param items Zu verarbeitende Elemente
+     * @param task  Verarbeitung pro Element
+     * @param sink  Empfänger der Ergebnisse (wird nur im aufrufenden Thread aufgerufen)
+     */
+    public <T, R> void forEachOrdered(List<T> items, Function<T, R> task, Consumer<R> sink) {
+        if (parallelism == 1 || items.size() <= 1) {
+            items.forEach(item -> sink.accept(task.apply(item)));
+            return;
+        }
+        forEachOrdered(items::forEach, task, sink);
+    }
+
+    /**
+     * Wie {@link #forEachOrdered(List, Function, Consumer)}, die Elemente werden jedoch erst während der
+     * Verarbeitung von {@code source} erzeugt (z. B. beim Einlesen einer Antwort).
+     *
+     * {@code source} läuft im aufrufenden Thread und übergibt jedes Element an den gereichten Consumer.
+     * Sind bereits {@code parallelism} Elemente in Bearbeitung, blockiert dieser, bis das älteste
+     * Ergebnis an {@code sink} übergeben wurde – die Quelle wird also nur so schnell gelesen, wie
+     * die Ergebnisse abgenommen werden.
+     *
+     * @param source Erzeugt die Elemente und übergibt sie an den gereichten Consumer
+     * @param task   Verarbeitung pro Element
+     * @param sink   Empfänger der Ergebnisse (wird nur im aufrufenden Thread aufgerufen)
+     */
+    public <T, R> void forEachOrdered(Consumer<Consumer<T>> source, Function<T, R> task, Consumer<R> sink) {
+        if (parallelism == 1) {
+            source.accept(item -> sink.accept(task.apply(item)));
+            return;
+        }
+
+        Deque<CompletableFuture<R>> window = new ArrayDeque<>(parallelism);
+        try {
+            source.accept(item -> {
+                if (window.size() == parallelism) {
+                    sink.accept(join(window.removeFirst()));
+                }
+                window.addLast(CompletableFuture.supplyAsync(() -> task.apply(item), executor));
+            });
+            while (!window.isEmpty()) {
+                sink.accept(join(window.removeFirst()));
+            }
+        } finally {
+            window.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * Startet eine einzelne Aufgabe auf dem gemeinsamen Pool (z. B. einen vorgezogenen Datenabruf).
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Wartet auf ein Teilergebnis und reicht Fehler der Objektverarbeitung unverpackt weiter.
+     */
+    private <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread t = new Thread(runnable, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,16 +2,25 @@ package com.gatekeepr.service;
 
 import com.gatekeepr.client.TransitAccessClient.AccessRights;
 import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.counter.AccessCounterStore;
 import com.gatekeepr.dto.*;
-import com.gatekeepr.policy.RuleUsage;
+import com.gatekeepr.metrics.PipelineMetrics;
+import com.gatekeepr.policy.PolicyEngine;
+import com.gatekeepr.policy.RulePlan;
 import com.gatekeepr.response.AccessResponseBuilder;
+import com.gatekeepr.response.ResponseEngine;
+import com.gatekeepr.service.SearchPagePrefetcher.PageKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Zentrale Verarbeitungseinheit für Zugriffsanfragen.
@@ -26,75 +35,111 @@ public class ObjectRequestHandler {
     private final AccessEvaluator accessEvaluator;
     private final DataFetcher dataFetcher;
     private final AccessResponseBuilder responseBuilder;
+    private final ObjectFanOutExecutor fanOut;
+    private final PolicyEngine policyEngine;
+    private final PipelineMetrics metrics;
+    private final SpeculativeFetchPolicy speculativeFetch;
 
     /** Zugriffszähler für (Identität + Objekt) – wird für accessCount-Regeln verwendet */
-    private final Map<String, Integer> accessCounter = new ConcurrentHashMap<>();
-
-    /** Letzter Zugriff pro (Identität + Objekt) – zur Zurücksetzung der Zähler nach Intervall */
-    private final Map<String, Long> lastAccessTime = new ConcurrentHashMap<>();
-
-    /** Zeitraum nach dem ein Zugriffscounter zurückgesetzt wird (in ms) */
-    private static final long RESET_INTERVAL_MS = 1 * 60 * 1000; // 1 Minute(n)
+    private final AccessCounterStore accessCounter;
 
     /**
-     * Haupteinstiegspunkt für alle Zugriffsanfragen mit Regeltracking.
+     * Haupteinstiegspunkt für alle Zugriffsanfragen.
+     *
+     * Angewendete Regeln werden nicht pro Anfrage protokolliert, sondern prozessweit in den
+     * Regelstatistiken gezählt (siehe {@link com.gatekeepr.policy.RuleStatisticsRegistry}).
      *
-     * @param req         Die ursprüngliche Anfrage
-     * @param ruleSummary Optionales Regelprotokoll für spätere Analyse
+     * @param req Die ursprüngliche Anfrage
      * @return Komplette Zugriffsergebnisantwort
      */
-    public AccessResponseDto handleRequest(AccessRequestDto req, Map<String, RuleUsage> ruleSummary) {
+    public AccessResponseDto handleRequest(AccessRequestDto req) {
+        List<AccessibleObject> accessibleObjects = new ArrayList<>();
+        StreamSummary summary = streamRequest(req, accessibleObjects::add);
+        return new AccessResponseDto(accessibleObjects, "success", null, Instant.now().toString(), summary.nextCursor());
+    }
+
+    /**
+     * Verarbeitet eine Zugriffsanfrage und übergibt jedes zugängliche Objekt an {@code sink}, sobald es
+     * fertig ist – in Eingabereihenfolge und mit höchstens {@code gatekeepr.fanout.parallelism} Objekten
+     * gleichzeitig in Bearbeitung. So muss das Ergebnis nicht vollständig im Speicher gehalten werden.
+     *
+     * @param req  Die ursprüngliche Anfrage
+     * @param sink Empfänger der Objekte (wird nur im aufrufenden Thread aufgerufen)
+     * @return Anzahl der übergebenen Objekte und ggf. Fortsetzungsmarke der Suche
+     */
+    public StreamSummary streamRequest(AccessRequestDto req, Consumer<AccessibleObject> sink) {
         String applicationId = req.getApplicationId();
         String identityId = req.getIdentityId();
         String requestedById = Optional.ofNullable(req.getRequestedById()).filter(s -> !s.isBlank()).orElse(identityId);
 
-        List<AccessibleObject> accessibleObjects = new ArrayList<>();
+        int[] count = {0};
+        String nextCursor = null;
+        Consumer<AccessibleObject> counting = obj -> {
+            if (obj == null) return;
+            count[0]++;
+            sink.accept(obj);
+        };
 
         // Entscheidungspfad je nach Anfrageart
         if (req.getObjectIds() != null && !req.getObjectIds().isEmpty()) { //Mehrfachanfrage von Objekten
-            for (String objectId : req.getObjectIds()) {
-                AccessibleObject obj = handleDirectAccess(applicationId, objectId, req.getObjectEntityClass(), identityId, requestedById, req, ruleSummary);
-                if (obj != null) accessibleObjects.add(obj);
-            }
+            List<String> objectIds = req.getObjectIds();
+            String entityClass = req.getObjectEntityClass();
+
+            // Spekulativ: Rohdaten aller Objekte parallel zur Rechteprüfung laden
+            CompletableFuture<Map<String, Map<String, Object>>> speculative = speculativeFetch.allows(entityClass)
+                    ? fanOut.submit(() -> dataFetcher.fetchRawData(objectIds, entityClass, speculativeProjection(req)))
+                    : null;
+
+            Map<String, AccessRights> rightsPerObject =
+                    accessEvaluator.evaluateDirectAccess(applicationId, objectIds, identityId, requestedById);
+            Map<String, Map<String, Object>> rawData =
+                    fetchAccessibleRawData(objectIds, entityClass, req.getFields(), rightsPerObject, speculative);
+            RulePlan plan = policyEngine.plan(req);
+
+            // Vom Quellsystem nicht gelieferte Objekte fehlen in rawData und werden ausgelassen
+            fanOut.forEachOrdered(objectIds, objectId -> {
+                AccessRequestDto objectReq = req.withOwnContext();
+                updateAccessCount(identityId, requestedById, objectId, objectReq);
+                return buildDirectAccess(applicationId, objectId, entityClass, identityId, rightsPerObject.get(objectId),
+                        () -> rawData.get(objectId), plan, objectReq);
+            }, counting);
+            metrics.recordObjects("multi", count[0]);
         } else if (req.getObjectId() != null && !req.getObjectId().isBlank()) { //Einzelnanfrage von Objetk
-            AccessibleObject obj = handleDirectAccess(applicationId, req.getObjectId(), req.getObjectEntityClass(), identityId, requestedById, req, ruleSummary);
-            if (obj != null) accessibleObjects.add(obj);
+            counting.accept(handleDirectAccess(applicationId, req.getObjectId(), req.getObjectEntityClass(), identityId, requestedById, req));
+            metrics.recordObjects("single", count[0]);
         } else if (req.getObjectEntityClass() != null && !req.getObjectEntityClass().isBlank()) { //Suche nach allen verfügbaren Objekten
-            accessibleObjects.addAll(handleSearchAccess(applicationId, identityId, requestedById, req, ruleSummary));
+            nextCursor = handleSearchAccess(applicationId, identityId, requestedById, req, counting);
+            metrics.recordObjects("search", count[0]);
         }
 
-        logAccessCounter(); // optional für Audit, Debug
-
-        return new AccessResponseDto(accessibleObjects, "success", null, Instant.now().toString());
+        return new StreamSummary(count[0], nextCursor);
     }
 
     /**
-     * Filteranfragen landen hier und werden weitergereicht, am Ende hier ausgegeben mit Info über angewendete Regeln
+     * Ergebnis einer gestreamten Verarbeitung.
+     *
+     * @param count      Anzahl der übergebenen Objekte
+     * @param nextCursor Fortsetzungsmarke der Suche (null, wenn keine weiteren Seiten folgen)
+     */
+    public record StreamSummary(int count, String nextCursor) {}
+
+    /**
+     * Filteranfragen landen hier und werden weitergereicht; zurück gehen nur die gefilterten Daten.
      */
     public FilteredAccessResponseDto handleFilteredResponse(AccessRequestDto req) {
-        Map<String, RuleUsage> ruleSummary = new HashMap<>();
-        AccessResponseDto full = handleRequest(req, ruleSummary);
+        AccessResponseDto full = handleRequest(req);
 
         List<Map<String, Object>> filtered = full.getObjects().stream()
                 .map(AccessibleObject::getFilteredData).toList();
 
         Object data = (filtered.size() == 1) ? filtered.get(0) : filtered;
 
-        if (!ruleSummary.isEmpty()) {
-            log.info("-------------------------------------------------------");
-            log.info("Angewendete Regeln ({}):", ruleSummary.size());
-            ruleSummary.values().forEach(usage ->
-                log.info("field='{}', action='{}', condition={}, count={}",
-                        usage.getField(), usage.getAction(), usage.getCondition(), usage.getCount())
-            );
-            log.info("-------------------------------------------------------");
-        }
-
         return new FilteredAccessResponseDto(
                 data,
                 full.getStatus(),
                 full.getMessage(),
-                full.getTimestamp()
+                full.getTimestamp(),
+                full.getNextCursor()
         );
     }
 
@@ -102,17 +147,96 @@ public class ObjectRequestHandler {
      * Verarbeitet den direkten Zugriff auf ein Objekt.
      */
     private AccessibleObject handleDirectAccess(String applicationId, String objectId, String entityClass, String identityId, String requestedById,
-                                                AccessRequestDto req, Map<String, RuleUsage> ruleSummary) {
+                                                AccessRequestDto req) {
 
         updateAccessCount(identityId, requestedById, objectId, req);
 
+        // Spekulativ: Rohdaten parallel zur Rechteprüfung laden
+        CompletableFuture<Map<String, Object>> speculative = speculativeFetch.allows(entityClass)
+                ? fanOut.submit(() -> dataFetcher.fetchRawData(objectId, entityClass, speculativeProjection(req)))
+                : null;
+
         AccessRights rights = accessEvaluator.evaluateDirectAccess(applicationId, objectId, identityId, requestedById);
+
+        if (speculative == null) {
+            return buildDirectAccess(applicationId, objectId, entityClass, identityId, rights,
+                    () -> dataFetcher.fetchRawData(objectId, entityClass, projection(rights.getRead(), req)),
+                    policyEngine.plan(req), req);
+        }
+
+        boolean accessible = rights != null && !rights.isEmpty();
+        speculativeFetch.record(accessible ? 1 : 0, accessible ? 0 : 1);
+        // Beendet nur das Warten: ein bereits laufender Abruf wird nicht unterbrochen, sein Ergebnis verworfen
+        if (!accessible) speculative.cancel(false);
+
+        return buildDirectAccess(applicationId, objectId, entityClass, identityId, rights, () -> {
+            try {
+                return speculative.join();
+            } catch (CompletionException | CancellationException e) {
+                log.warn("Spekulativer Abruf für objectId='{}' fehlgeschlagen, lade erneut: {}", objectId, e.getMessage());
+                return dataFetcher.fetchRawData(objectId, entityClass, projection(rights.getRead(), req));
+            }
+        }, policyEngine.plan(req), req);
+    }
+
+    /**
+     * Liefert die Rohdaten aller Objekte mit Rechten, gesammelt mit möglichst wenigen Abrufen.
+     *
+     * Die Projektion ist die Vereinigung der lesbaren (und angefragten) Felder aller zugänglichen Objekte;
+     * spekulative Abrufe kennen die Rechte noch nicht und beschränken sich nur auf die angefragten Felder.
+     * Liegt ein spekulativer Abruf vor, werden dessen Daten übernommen und die der Objekte ohne Rechte
+     * verworfen. Schlägt er fehl, werden die zugänglichen Objekte regulär nachgeladen.
+     */
+    private Map<String, Map<String, Object>> fetchAccessibleRawData(List<String> objectIds, String entityClass,
+                                                                    List<String> requestedFields,
+                                                                    Map<String, AccessRights> rightsPerObject,
+                                                                    CompletableFuture<Map<String, Map<String, Object>>> speculative) {
+        Set<String> accessible = new LinkedHashSet<>();
+        Set<String> readable = new HashSet<>();
+        for (String objectId : objectIds) {
+            AccessRights rights = rightsPerObject.get(objectId);
+            if (rights != null && !rights.isEmpty()) {
+                accessible.add(objectId);
+                readable.addAll(ResponseEngine.permittedFields(rights.getRead(), requestedFields));
+            }
+        }
+
+        if (speculative != null) {
+            try {
+                Map<String, Map<String, Object>> loaded = new HashMap<>(speculative.join());
+                int before = loaded.size();
+                loaded.keySet().retainAll(accessible);
+                speculativeFetch.record(loaded.size(), before - loaded.size());
+                return loaded;
+            } catch (CompletionException e) {
+                log.warn("Spekulativer Abruf von {} Objekten fehlgeschlagen, lade zugängliche Objekte erneut: {}",
+                        objectIds.size(), e.getMessage());
+            }
+        }
+
+        // Ein Abruf für alle Objekte: Projektion ist die Vereinigung der lesbaren Felder
+        return dataFetcher.fetchRawData(new ArrayList<>(accessible), entityClass, ResponseEngine.requiredFields(readable));
+    }
+
+    /**
+     * Filtert die Rohdaten eines direkt angefragten Objekts anhand bereits ermittelter Rechte.
+     *
+     * @param rawData Liefert die Rohdaten; wird nur aufgerufen, wenn Rechte vorliegen
+     * @return null ohne Rechte oder ohne Daten im Quellsystem
+     */
+    private AccessibleObject buildDirectAccess(String applicationId, String objectId, String entityClass, String identityId,
+                                               AccessRights rights, Supplier<Map<String, Object>> rawData,
+                                               RulePlan plan, AccessRequestDto req) {
         if (rights == null || rights.isEmpty()) {
             log.info("No access rights for object '{}', identity '{}'", objectId, identityId);
             return null;
         }
 
-        Map<String, Object> rawData = dataFetcher.fetchRawData(objectId, entityClass);
+        Map<String, Object> raw = rawData.get();
+        if (raw == null) {
+            log.info("Object '{}' not found in source system, skipped", objectId);
+            return null;
+        }
 
         return responseBuilder.build(
                 applicationId,
@@ -120,51 +244,101 @@ public class ObjectRequestHandler {
                 entityClass,
                 identityId,
                 toProperties(rights),
-                rawData,
-                req,
-                ruleSummary
+                raw,
+                plan,
+                req
         );
     }
 
     /**
      * Verarbeitet Zugriff per Suchanfrage (z. B. auf alle Fahrzeuge einer Klasse).
+     *
+     * Mit {@code pageSize} oder {@code cursor} wird seitenweise gesucht: es wird genau eine Seite der
+     * Policy Machine verarbeitet, die Folgeseite wird währenddessen vorab geladen. Ohne beides liefert
+     * die PM alle Treffer in einer Antwort.
+     *
+     * Die Antwort der PM wird schrittweise gelesen; jeder Treffer geht sofort in die Objektverarbeitung.
+     * Nur wenn eine Regel objectCount prüft, werden die Treffer zuerst vollständig eingelesen, da der
+     * Regelplan die Trefferzahl benötigt.
+     *
+     * @return Fortsetzungsmarke für die nächste Seite oder null
      */
-    private List<AccessibleObject> handleSearchAccess(String applicationId, String identityId, String requestedById,
-                                                      AccessRequestDto req, Map<String, RuleUsage> ruleSummary) {
-
-        List<ObjectAccess> accessList = accessEvaluator.evaluateSearchAccess(
-                applicationId,
-                identityId,
-                requestedById,
-                req.getObjectEntityClass(),
-                req.getCreatedByMyOwn(),
-                req.getPageSize()
-        );
+    private String handleSearchAccess(String applicationId, String identityId, String requestedById,
+                                      AccessRequestDto req, Consumer<AccessibleObject> sink) {
+
+        SearchCursor cursor = SearchCursor.of(req);
+        Integer pageSize = req.getPageSize() != null ? req.getPageSize() : cursor != null ? cursor.pageSize() : null;
+
+        Integer[] nextOffset = {null};
+        Consumer<Consumer<ObjectAccess>> search;
+        if (pageSize != null && pageSize > 0) {
+            PageKey pageKey = new PageKey(applicationId, identityId, requestedById, req.getObjectEntityClass(),
+                    req.getCreatedByMyOwn(), pageSize, cursor != null ? cursor.offset() : 0);
+            search = accessSink -> nextOffset[0] = accessEvaluator.streamSearchPage(pageKey, accessSink);
+        } else {
+            search = accessSink -> accessEvaluator.streamSearchAccess(
+                    applicationId,
+                    identityId,
+                    requestedById,
+                    req.getObjectEntityClass(),
+                    req.getCreatedByMyOwn(),
+                    req.getPageSize(),
+                    accessSink
+            );
+        }
 
-        // Anzahl der zurückgegebenen Objekte in den Kontext schreiben (für Regeln)
         if (req.getContext() == null) {
             req.setContext(new HashMap<>());
         }
-        req.getContext().put("objectCount", accessList.size());
 
-        List<AccessibleObject> results = new ArrayList<>();
-        for (ObjectAccess o : accessList) {
-            updateAccessCount(identityId, requestedById, o.getObjectId(), req);
-            Map<String, Object> raw = dataFetcher.fetchRawData(o.getObjectId(), req.getObjectEntityClass());
+        Consumer<Consumer<ObjectAccess>> source = search;
+        if (policyEngine.usesObjectCount()) {
+            // Anzahl der zurückgegebenen Objekte in den Kontext schreiben (für Regeln)
+            List<ObjectAccess> accessList = new ArrayList<>();
+            search.accept(accessList::add);
+            req.getContext().put("objectCount", accessList.size());
+            source = accessList::forEach;
+        }
+
+        // Anfrageweite Bedingungen einmal auswerten, pro Objekt bleibt nur accessCount
+        RulePlan plan = policyEngine.plan(req);
 
-            results.add(responseBuilder.build(
+        fanOut.forEachOrdered(source, o -> {
+            AccessRequestDto objectReq = req.withOwnContext();
+
+            updateAccessCount(identityId, requestedById, o.getObjectId(), objectReq);
+            Map<String, Object> raw = dataFetcher.fetchRawData(o.getObjectId(), req.getObjectEntityClass(),
+                    projection(o.getObjectProperties().getReadProperties(), req));
+
+            return responseBuilder.build(
                     applicationId,
                     o.getObjectId(),
                     req.getObjectEntityClass(),
                     identityId,
                     o.getObjectProperties(),
                     raw,
-                    req,
-                    ruleSummary
-            ));
-        }
+                    plan,
+                    objectReq
+            );
+        }, sink);
+
+        return nextOffset[0] != null ? SearchCursor.next(req, nextOffset[0], pageSize).encode() : null;
+    }
 
-        return results;
+    /**
+     * Projektion für den Abruf aus dem Quellsystem: lesbare und (falls angegeben) angefragte Felder
+     * sowie die für die Filterung nötigen Pflichtfelder.
+     */
+    private static Set<String> projection(Collection<String> readable, AccessRequestDto req) {
+        return ResponseEngine.requiredFields(ResponseEngine.permittedFields(readable, req.getFields()));
+    }
+
+    /**
+     * Projektion für spekulative Abrufe, bei denen die Rechte noch nicht feststehen: nur die angefragten Felder,
+     * ohne {@code fields} das vollständige Objekt.
+     */
+    private static Set<String> speculativeProjection(AccessRequestDto req) {
+        return req.getFields() != null ? ResponseEngine.requiredFields(req.getFields()) : null;
     }
 
     /**
@@ -183,14 +357,7 @@ public class ObjectRequestHandler {
     }
 
     /**
-     * Convenience-Variante ohne Regeltracking.
-     */
-    public AccessResponseDto handleRequest(AccessRequestDto req) {
-        return handleRequest(req, new HashMap<>());
-    }
-
-    /**
-     * Hält Zugriffszählung pro Identität und Objekt aktuell und schreibt sie in den Kontext.
+     * Zählt den Zugriff pro Identität und Objekt im gleitenden Fenster und schreibt den Stand in den Kontext.
      */
     private void updateAccessCount(String identityId, String requestedById, String objectId, AccessRequestDto req) {
         if (identityId == null || identityId.isBlank()) {
@@ -198,32 +365,11 @@ public class ObjectRequestHandler {
         }
 
         String key = identityId + ":" + requestedById + "::" + objectId;
-        long now = System.currentTimeMillis();
-
-        Long lastAccess = lastAccessTime.get(key);
-        if (lastAccess != null && (now - lastAccess) > RESET_INTERVAL_MS) {
-            accessCounter.put(key, 1); // zurücksetzen
-        } else {
-            accessCounter.merge(key, 1, Integer::sum);
-        }
-
-        lastAccessTime.put(key, now);
-        int count = accessCounter.getOrDefault(key, 1);
+        int count = accessCounter.incrementAndGet(key);
 
         if (req.getContext() == null) {
             req.setContext(new HashMap<>());
         }
         req.getContext().put("accessCount", count);
     }
-
-    /**
-     * Gibt den aktuellen Zustand des Zugriffszählers aus.
-     */
-    private void logAccessCounter() {
-        log.info("---- Aktueller Zugriffszaehler (accessCounter) ----");
-        accessCounter.forEach((key, value) ->
-                log.info("Key='{}' → Count={}", key, value)
-        );
-        log.info("-----------------------------------------------");
-    }
 }
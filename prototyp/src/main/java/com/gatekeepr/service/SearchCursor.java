@@ -0,0 +1,71 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.dto.AccessRequestDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Fortsetzungsmarke ({@code cursor} / {@code nextCursor}) für seitenweise Suchanfragen.
+ *
+ * Enthält die Position in der Trefferliste der Policy Machine, die Seitengröße und einen Fingerabdruck
+ * der Suche (applicationId, Identitäten, Entitätsklasse, createdByMyOwn), damit eine Marke nicht für eine
+ * andere Suche verwendet werden kann. Nach außen ist sie ein undurchsichtiger Base64url-String.
+ *
+ * @param offset      Anzahl der bereits gelieferten Treffer
+ * @param pageSize    Seitengröße, mit der die Marke erzeugt wurde
+ * @param fingerprint Fingerabdruck der Suche
+ */
+public record SearchCursor(int offset, int pageSize, int fingerprint) {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Erzeugt die Marke für die nächste Seite einer Suche.
+     */
+    public static SearchCursor next(AccessRequestDto req, int offset, int pageSize) {
+        return new SearchCursor(offset, pageSize, fingerprint(req));
+    }
+
+    /**
+     * Liest die Marke einer Anfrage und prüft, ob sie zur Suche passt.
+     *
+     * @return Marke oder null, wenn die Anfrage keine enthält
+     * @throws IllegalArgumentException bei ungültiger oder fremder Marke
+     */
+    public static SearchCursor of(AccessRequestDto req) {
+        String token = req.getCursor();
+        if (token == null || token.isBlank()) return null;
+
+        SearchCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) throw new IllegalArgumentException();
+            cursor = new SearchCursor(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseUnsignedInt(parts[3], 16));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("cursor ist ungültig.");
+        }
+
+        if (cursor.offset() < 0 || cursor.pageSize() <= 0) {
+            throw new IllegalArgumentException("cursor ist ungültig.");
+        }
+        if (cursor.fingerprint() != fingerprint(req)) {
+            throw new IllegalArgumentException("cursor gehört zu einer anderen Suche.");
+        }
+        return cursor;
+    }
+
+    /**
+     * @return Marke als Base64url-String (ohne Padding)
+     */
+    public String encode() {
+        String raw = VERSION + ":" + offset + ":" + pageSize + ":" + Integer.toHexString(fingerprint);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int fingerprint(AccessRequestDto req) {
+        return Objects.hash(req.getApplicationId(), req.getIdentityId(), req.getRequestedById(),
+                req.getObjectEntityClass(), req.getCreatedByMyOwn());
+    }
+}
@@ -0,0 +1,100 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.cache.SampledLruMap;
+import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lädt bei seitenweisen Suchen die nächste Seite der Policy Machine vorab.
+ *
+ * Während die Objekte der aktuellen Seite geladen und gefiltert werden, läuft die Suche nach der
+ * Folgeseite bereits im Hintergrund. Kommt der Aufrufer mit dem {@code nextCursor} zurück, wird die
+ * vorgeladene Seite einmalig entnommen. Höchstens {@code max-entries} Seiten werden vorgehalten
+ * (näherungsweise der am längsten nicht genutzte Eintrag wird verdrängt, siehe {@link SampledLruMap}), nicht abgeholte Seiten verfallen nach {@code ttl}.
+ */
+@Slf4j
+@Component
+public class SearchPagePrefetcher {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+
+    /** Vorgeladene Seiten */
+    private final SampledLruMap<PageKey, Prefetch> pages;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+
+    public SearchPagePrefetcher(
+            @Value("${gatekeepr.search.prefetch.enabled:true}") boolean enabled,
+            @Value("${gatekeepr.search.prefetch.max-entries:256}") int maxEntries,
+            @Value("${gatekeepr.search.prefetch.ttl:30s}") Duration ttl
+    ) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.pages = SampledLruMap.withMaxEntries(maxEntries);
+
+        log.info("Vorabladen von Suchseiten {} (maxEntries={}, ttl={})",
+                enabled ? "aktiv" : "deaktiviert", maxEntries, ttl);
+    }
+
+    /**
+     * Entnimmt eine vorgeladene Seite.
+     *
+     * @return Future der Seite oder null, wenn keine (frische) Seite vorliegt
+     */
+    public CompletableFuture<List<ObjectAccess>> take(PageKey key) {
+        if (!enabled) return null;
+
+        Prefetch prefetch = pages.remove(key);
+        if (prefetch == null || System.nanoTime() - prefetch.startedAt() > ttlNanos) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return prefetch.page();
+    }
+
+    /**
+     * Startet das Laden einer Seite im Hintergrund, sofern sie nicht bereits vorliegt.
+     *
+     * @param loader Startet die Suche; das Future darf nicht fehlschlagen
+     */
+    public void prefetch(PageKey key, Supplier<CompletableFuture<List<ObjectAccess>>> loader) {
+        if (!enabled || pages.containsKey(key)) return;
+
+        prefetches.increment();
+        pages.put(key, new Prefetch(loader.get(), System.nanoTime()));
+    }
+
+    /**
+     * Momentaufnahme der Zähler.
+     */
+    public Stats stats() {
+        return new Stats(enabled, pages.size(), hits.sum(), misses.sum(), prefetches.sum(), pages.evictions());
+    }
+
+    /**
+     * Eine Seite einer Suche; {@code offset} ist die Anzahl der davor liegenden Treffer.
+     */
+    public record PageKey(String applicationId, String identityId, String requestedById, String entityClass,
+                          Boolean createdByMyOwn, int pageSize, int offset) {
+
+        public PageKey next(int delivered) {
+            return new PageKey(applicationId, identityId, requestedById, entityClass, createdByMyOwn, pageSize, offset + delivered);
+        }
+    }
+
+    private record Prefetch(CompletableFuture<List<ObjectAccess>> page, long startedAt) {}
+
+    public record Stats(boolean enabled, int size, long hits, long misses, long prefetches, long evictions) {}
+}
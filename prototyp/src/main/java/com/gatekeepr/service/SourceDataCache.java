@@ -0,0 +1,298 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.cache.SampledLruMap;
+import com.gatekeepr.client.SourceDataClient.SourceObject;
+import com.gatekeepr.client.SourceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter Cache für Rohdaten des Quellsystems.
+ *
+ * Schlüssel ist (entityClass, objectId); die Einträge sind unabhängig von der anfragenden Identität,
+ * gefiltert wird weiterhin pro Anfrage durch die {@link com.gatekeepr.response.ResponseEngine}.
+ * Einträge sind für {@code ttl} frisch, abweichend davon für {@code class-ttl.<entityClass>}
+ * (0 = Klasse nicht cachen). Abgelaufene Einträge mit Versionskennung (ETag) werden bedingt
+ * nachgeladen und bei unverändertem Objekt weiterverwendet.
+ *
+ * Ein Eintrag merkt sich die Felder, mit denen er geladen wurde (null = vollständiges Objekt), und
+ * beantwortet nur Anfragen, deren Projektion darin enthalten ist. Sonst wird mit der Vereinigung
+ * beider Feldlisten nachgeladen, sodass der Eintrag mit der Zeit alle benötigten Felder enthält.
+ *
+ * Die Obergrenze {@code max-size} gilt für die geschätzte Größe aller Einträge im Heap; bei
+ * Überschreiten werden näherungsweise die am längsten nicht genutzten Einträge verdrängt
+ * ({@link SampledLruMap}). Standardmäßig deaktiviert, da die Rohdaten sonst bis zu {@code ttl}
+ * veraltet sein können.
+ */
+@Slf4j
+@Component
+public class SourceDataCache {
+
+    private static final String CLASS_TTL_PREFIX = "gatekeepr.source.cache.class-ttl.";
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final Duration defaultTtl;
+    private final Environment environment;
+
+    /** TTL je Entitätsklasse (Nanosekunden), aufgelöst beim ersten Zugriff */
+    private final Map<String, Long> ttlByClass = new ConcurrentHashMap<>();
+
+    /** Einträge, gewichtet mit ihrer geschätzten Größe in Bytes */
+    private final SampledLruMap<CacheKey, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public SourceDataCache(
+            @Value("${gatekeepr.source.cache.enabled:false}") boolean enabled,
+            @Value("${gatekeepr.source.cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gatekeepr.source.cache.ttl:30s}") Duration ttl,
+            Environment environment
+    ) {
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+        this.defaultTtl = ttl;
+        this.environment = environment;
+        this.entries = SampledLruMap.withMaxWeight(maxBytes, Entry::bytes);
+
+        log.info("Quelldaten-Cache {} (maxSize={}, ttl={})", enabled ? "aktiv" : "deaktiviert", maxSize, ttl);
+    }
+
+    /**
+     * Lädt einen Stand eines Objekts, bei bekannter Versionskennung bedingt.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @param fields Zu ladende Felder oder null für das vollständige Objekt
+         * @param etag   Versionskennung des Cache-Eintrags oder null für einen unbedingten Abruf
+         */
+        SourceObject load(Collection<String> fields, String etag);
+    }
+
+    /**
+     * Lädt mehrere Objekte, Objekte mit bekannter Versionskennung bedingt.
+     */
+    @FunctionalInterface
+    public interface BatchLoader {
+
+        /**
+         * @param etags Versionskennung je Objekt-ID für bedingte Abrufe
+         * @return Objekte je Objekt-ID; nicht gelieferte Objekte fehlen
+         */
+        Map<String, SourceObject> load(List<String> objectIds, Collection<String> fields, Map<String, String> etags);
+    }
+
+    /**
+     * Liefert die Rohdaten eines Objekts aus dem Cache oder lädt sie über {@code loader}.
+     *
+     * @param fields Benötigte Felder oder null für das vollständige Objekt
+     * @return Unveränderliche Rohdaten des Objekts
+     * @throws SourceUnavailableException wenn das Quellsystem nicht erreichbar ist
+     */
+    public Map<String, Object> get(String entityClass, String objectId, Collection<String> fields, Loader loader) {
+        long ttl = ttlFor(entityClass);
+        if (ttl <= 0) {
+            return loader.load(fields, null).data();
+        }
+
+        CacheKey key = new CacheKey(entityClass, objectId);
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        String etag = null;
+
+        if (entry != null && entry.covers(fields)) {
+            if (now - entry.loadedAt() < ttl) {
+                hits.increment();
+                return entry.data();
+            }
+            etag = entry.etag();
+        }
+
+        if (etag != null) revalidations.increment(); else misses.increment();
+        Collection<String> fetchFields = entry != null ? union(entry.fields(), fields) : fields;
+        return store(key, entry, loader.load(fetchFields, etag), fetchFields);
+    }
+
+    /**
+     * Liefert die Rohdaten mehrerer Objekte. Fehlende, abgelaufene oder zu schmale Einträge werden
+     * gesammelt mit einem einzigen Aufruf von {@code batchLoader} nachgeladen.
+     *
+     * @param fields Benötigte Felder (für alle Objekte gleich) oder null für vollständige Objekte
+     * @return Unveränderliche Rohdaten je Objekt-ID in Eingabereihenfolge; nicht gelieferte Objekte fehlen
+     * @throws SourceUnavailableException wenn das Quellsystem nicht erreichbar ist
+     */
+    public Map<String, Map<String, Object>> getAll(String entityClass, List<String> objectIds, Collection<String> fields,
+                                                   BatchLoader batchLoader) {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        long ttl = ttlFor(entityClass);
+        if (ttl <= 0) {
+            batchLoader.load(objectIds, fields, Map.of()).forEach((objectId, object) -> result.put(objectId, object.data()));
+            return result;
+        }
+
+        Map<String, Entry> previous = new HashMap<>();
+        Map<String, String> etags = new HashMap<>();
+        List<String> toLoad = new ArrayList<>();
+        Collection<String> fetchFields = fields != null ? new TreeSet<>(fields) : null;
+        long now = System.nanoTime();
+
+        for (String objectId : new LinkedHashSet<>(objectIds)) {
+            Entry entry = entries.get(new CacheKey(entityClass, objectId));
+            result.put(objectId, null);
+
+            if (entry != null) {
+                if (entry.covers(fields)) {
+                    if (now - entry.loadedAt() < ttl) {
+                        hits.increment();
+                        result.put(objectId, entry.data());
+                        continue;
+                    }
+                    if (entry.etag() != null) etags.put(objectId, entry.etag());
+                }
+                previous.put(objectId, entry);
+                fetchFields = union(entry.fields(), fetchFields);
+            }
+            if (etags.containsKey(objectId)) revalidations.increment(); else misses.increment();
+            toLoad.add(objectId);
+        }
+
+        if (!toLoad.isEmpty()) {
+            Map<String, SourceObject> loaded = batchLoader.load(toLoad, fetchFields, etags);
+            for (String objectId : toLoad) {
+                SourceObject object = loaded.get(objectId);
+                Entry entry = previous.get(objectId);
+                if (object == null || (object.notModified() && entry == null)) {
+                    result.remove(objectId);
+                    continue;
+                }
+                result.put(objectId, store(new CacheKey(entityClass, objectId), entry, object, fetchFields));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Momentaufnahme der Cache-Zähler.
+     */
+    public Stats stats() {
+        return new Stats(
+                enabled,
+                entries.size(),
+                entries.weight(),
+                maxBytes,
+                hits.sum(),
+                misses.sum(),
+                revalidations.sum(),
+                notModified.sum(),
+                entries.evictions()
+        );
+    }
+
+    /**
+     * Übernimmt das Ergebnis eines Abrufs: unveränderte Objekte verlängern den bisherigen Eintrag.
+     */
+    private Map<String, Object> store(CacheKey key, Entry previous, SourceObject loaded, Collection<String> fields) {
+        long loadedAt = System.nanoTime();
+        if (loaded.notModified() && previous != null) {
+            notModified.increment();
+            put(key, new Entry(previous.data(), previous.fields(), previous.etag(), loadedAt, previous.bytes()));
+            return previous.data();
+        }
+
+        Map<String, Object> data = Collections.unmodifiableMap(loaded.data());
+        put(key, new Entry(data, fields != null ? Set.copyOf(fields) : null, loaded.etag(), loadedAt, estimateBytes(data)));
+        return data;
+    }
+
+    private void put(CacheKey key, Entry entry) {
+        if (entry.bytes() > maxBytes) return;
+        entries.put(key, entry);
+    }
+
+    private long ttlFor(String entityClass) {
+        if (!enabled) return 0;
+        String name = entityClass != null ? entityClass.toLowerCase(Locale.ROOT) : "";
+        return ttlByClass.computeIfAbsent(name, c -> {
+            String value = environment.getProperty(CLASS_TTL_PREFIX + c);
+            return (value != null ? DurationStyle.detectAndParse(value) : defaultTtl).toNanos();
+        });
+    }
+
+    /**
+     * Vereinigung zweier Feldlisten; null steht für das vollständige Objekt.
+     */
+    private static Collection<String> union(Collection<String> a, Collection<String> b) {
+        if (a == null || b == null) return null;
+        Set<String> union = new TreeSet<>(a);
+        union.addAll(b);
+        return union;
+    }
+
+    /**
+     * Grobe Schätzung des Heap-Bedarfs von JSON-artigen Daten (Maps, Listen, Strings, Zahlen).
+     */
+    static int estimateBytes(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            int size = 64;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                size += 32 + estimateBytes(e.getKey()) + estimateBytes(e.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> list) {
+            int size = 32;
+            for (Object element : list) size += 8 + estimateBytes(element);
+            return size;
+        }
+        if (value instanceof CharSequence text) return 40 + 2 * text.length();
+        return value == null ? 0 : 16;
+    }
+
+    private record CacheKey(String entityClass, String objectId) {}
+
+    private record Entry(Map<String, Object> data, Set<String> fields, String etag, long loadedAt, int bytes) {
+
+        boolean covers(Collection<String> requested) {
+            return fields == null || (requested != null && fields.containsAll(requested));
+        }
+    }
+
+    /**
+     * Zähler des Caches (kumuliert seit Start).
+     */
+    public record Stats(
+            boolean enabled,
+            int size,
+            long bytes,
+            long maxBytes,
+            long hits,
+            long misses,
+            long revalidations,
+            long notModified,
+            long evictions
+    ) {}
+}
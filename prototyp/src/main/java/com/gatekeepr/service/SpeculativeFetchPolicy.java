@@ -0,0 +1,75 @@
+package com.gatekeepr.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Legt fest, ob Rohdaten bereits vor Abschluss der Rechteprüfung abgerufen werden dürfen.
+ *
+ * Spekulative Abrufe laufen parallel zur Anfrage an die Policy Machine, sodass sich die Laufzeiten
+ * von PM und Quellsystem nicht mehr addieren. Daten von Objekten ohne Rechte werden verworfen und
+ * verlassen GatekeepR nicht – das Quellsystem sieht aber Abrufe für diese Objekte. Deshalb ist der
+ * Modus standardmäßig aus und lässt sich auf einzelne Entitätsklassen beschränken
+ * ({@code entity-classes}, leer = alle).
+ */
+@Slf4j
+@Component
+public class SpeculativeFetchPolicy {
+
+    private final boolean enabled;
+
+    /** Erlaubte Entitätsklassen (kleingeschrieben); leer = alle */
+    private final Set<String> entityClasses;
+
+    private final Counter used;
+    private final Counter discarded;
+
+    public SpeculativeFetchPolicy(
+            @Value("${gatekeepr.pipeline.speculative-fetch.enabled:false}") boolean enabled,
+            @Value("${gatekeepr.pipeline.speculative-fetch.entity-classes:}") String entityClasses,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.entityClasses = Arrays.stream(entityClasses.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(s -> s.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.used = speculativeCounter(meterRegistry, "used");
+        this.discarded = speculativeCounter(meterRegistry, "discarded");
+
+        log.info("Spekulativer Datenabruf {} (entityClasses={})", enabled ? "aktiv" : "deaktiviert",
+                this.entityClasses.isEmpty() ? "alle" : this.entityClasses);
+    }
+
+    /**
+     * @return true, wenn Objekte dieser Entitätsklasse vor der Rechteprüfung abgerufen werden dürfen
+     */
+    public boolean allows(String entityClass) {
+        return enabled && (entityClasses.isEmpty()
+                || entityClass != null && entityClasses.contains(entityClass.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Erfasst, wie viele spekulativ geladene Objekte verwendet bzw. mangels Rechten verworfen wurden.
+     */
+    public void record(int usedObjects, int discardedObjects) {
+        used.increment(usedObjects);
+        discarded.increment(discardedObjects);
+    }
+
+    private static Counter speculativeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gatekeepr.source.speculative")
+                .description("Vor der Rechteprüfung abgerufene Objekte")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.gatekeepr.standin;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulierte Antwortzeit und Fehlerquote eines Stand-in-Endpunkts.
+ *
+ * Die Latenz wird als Verteilung angegeben (alle Werte in ms):
+ * <ul>
+ *   <li>{@code fixed:5} – immer 5 ms</li>
+ *   <li>{@code uniform:2-20} – gleichverteilt zwischen 2 und 20 ms</li>
+ *   <li>{@code exponential:5} – exponentialverteilt mit Mittelwert 5 ms</li>
+ *   <li>{@code lognormal:5,80} – lognormalverteilt mit Median 5 ms und 99. Perzentil 80 ms (langer Ausläufer)</li>
+ * </ul>
+ * Die Fehlerquote (0 bis 1) gibt an, welcher Anteil der Aufrufe nach der Wartezeit fehlschlägt.
+ */
+public final class FaultInjection {
+
+    /** z-Wert des 99. Perzentils der Standardnormalverteilung */
+    private static final double Z_99 = 2.326;
+
+    private enum Kind { FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL }
+
+    private final String spec;
+    private final Kind kind;
+    private final double a;
+    private final double b;
+    private final double errorRate;
+
+    private FaultInjection(String spec, Kind kind, double a, double b, double errorRate) {
+        this.spec = spec;
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param latency   Latenzverteilung (siehe Klassenbeschreibung), leer = keine Latenz
+     * @param errorRate Anteil fehlschlagender Aufrufe (0 bis 1)
+     * @throws IllegalArgumentException bei ungültiger Angabe
+     */
+    public static FaultInjection parse(String latency, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Fehlerquote muss zwischen 0 und 1 liegen, war: " + errorRate);
+        }
+        String spec = latency == null || latency.isBlank() ? "fixed:0" : latency.trim();
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Ungültige Latenzverteilung '" + spec + "' (erwartet z. B. fixed:5)");
+        }
+
+        String args = spec.substring(colon + 1);
+        try {
+            return switch (spec.substring(0, colon).toLowerCase(Locale.ROOT)) {
+                case "fixed" -> new FaultInjection(spec, Kind.FIXED, Double.parseDouble(args), 0, errorRate);
+                case "uniform" -> {
+                    String[] range = args.split("-");
+                    yield new FaultInjection(spec, Kind.UNIFORM, Double.parseDouble(range[0]), Double.parseDouble(range[1]), errorRate);
+                }
+                case "exponential" -> new FaultInjection(spec, Kind.EXPONENTIAL, Double.parseDouble(args), 0, errorRate);
+                case "lognormal" -> {
+                    String[] params = args.split(",");
+                    double median = Double.parseDouble(params[0]);
+                    double p99 = Double.parseDouble(params[1]);
+                    if (median <= 0 || p99 < median) {
+                        throw new IllegalArgumentException("lognormal erwartet 0 < Median <= p99: " + spec);
+                    }
+                    // Parameter der zugrunde liegenden Normalverteilung
+                    yield new FaultInjection(spec, Kind.LOGNORMAL, Math.log(median), Math.log(p99 / median) / Z_99, errorRate);
+                }
+                default -> throw new IllegalArgumentException("Unbekannte Latenzverteilung '" + spec + "'");
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Ungültige Latenzverteilung '" + spec + "'", e);
+        }
+    }
+
+    /**
+     * Wartet die simulierte Latenz ab und entscheidet, ob der Aufruf fehlschlagen soll.
+     *
+     * @return true, wenn der Aufruf als Fehler beantwortet werden soll
+     */
+    public boolean apply() {
+        long nanos = nextLatencyNanos();
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    long nextLatencyNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double millis = switch (kind) {
+            case FIXED -> a;
+            case UNIFORM -> a + random.nextDouble() * (b - a);
+            case EXPONENTIAL -> -a * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> Math.exp(a + b * random.nextGaussian());
+        };
+        return (long) (Math.max(0, millis) * 1_000_000);
+    }
+
+    @Override
+    public String toString() {
+        return spec + ", errorRate=" + errorRate;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gatekeepr.standin;
+
+import com.gatekeepr.client.TransitAccessClient.BatchAccessRequest;
+import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.dto.ObjectProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Eingebettete Stand-in Policy Machine für Offline-Tests.
+ *
+ * Bildet die von {@link com.gatekeepr.client.TransitAccessClient} genutzten Endpunkte nach
+ * (Einzelabfrage, Batch-Abfrage, Suche mit {@code pagesize}/{@code offset}) und liefert Rechte aus einem {@link SyntheticAccessDataset}.
+ * Antwortzeiten und Fehlerquote lassen sich über {@link FaultInjection} vorgeben; simulierte Fehler
+ * werden mit 503 beantwortet. Einzelabfragen für Objekt-IDs mit dem Präfix {@value #FAILING_PREFIX}
+ * schlagen immer mit 503 fehl. Wird nur mit dem Profil {@code pm-standin} gestartet.
+ */
+@Slf4j
+@RestController
+@Profile("pm-standin")
+@RequestMapping("/v1/application/{applicationId}/access")
+public class PolicyMachineStandInController {
+
+    /** Präfix für Objekt-IDs, deren Einzelabfrage das Stand-in immer mit 503 beantwortet */
+    public static final String FAILING_PREFIX = "failing-";
+
+    private final SyntheticAccessDataset dataset;
+
+    /** Simulierte Antwortzeit und Fehlerquote pro Aufruf */
+    private final FaultInjection faults;
+
+    /** Ob der Batch-Endpunkt angeboten wird (false = 404 wie bei einer PM ohne Batch-Unterstützung) */
+    private final boolean bulkEnabled;
+
+    private final LongAdder singleCalls = new LongAdder();
+    private final LongAdder batchCalls = new LongAdder();
+    private final LongAdder searchCalls = new LongAdder();
+
+    public PolicyMachineStandInController(
+            SyntheticAccessDataset dataset,
+            @Value("${gatekeepr.standin.pm.latency:fixed:${gatekeepr.standin.pm.latency-ms:0}}") String latency,
+            @Value("${gatekeepr.standin.pm.error-rate:0}") double errorRate,
+            @Value("${gatekeepr.standin.pm.bulk-enabled:true}") boolean bulkEnabled
+    ) {
+        this.dataset = dataset;
+        this.faults = FaultInjection.parse(latency, errorRate);
+        this.bulkEnabled = bulkEnabled;
+        log.info("Stand-in Policy Machine aktiv (latency={}, bulkEnabled={}, objects={})",
+                faults, bulkEnabled, dataset.getObjectCount());
+    }
+
+    @GetMapping("/{objectId}")
+    public ResponseEntity<AccessEntry> getAccess(@PathVariable String applicationId,
+                                                 @PathVariable String objectId,
+                                                 @RequestParam String identityId,
+                                                 @RequestParam(required = false) String requestedById) {
+        singleCalls.increment();
+        if (faults.apply() || objectId.startsWith(FAILING_PREFIX)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        ObjectProperties rights = dataset.rightsFor(objectId, identityId);
+        if (rights == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new AccessEntry(objectId, dataset.getEntityClass(), identityId, rights));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, List<AccessEntry>>> getAccessBatch(@PathVariable String applicationId,
+                                                                         @RequestBody BatchAccessRequest request) {
+        if (!bulkEnabled) {
+            return ResponseEntity.notFound().build();
+        }
+        batchCalls.increment();
+        if (faults.apply()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        List<AccessEntry> entries = new ArrayList<>();
+        for (String objectId : request.getObjectIds()) {
+            ObjectProperties rights = dataset.rightsFor(objectId, request.getIdentityId());
+            if (rights != null) {
+                entries.add(new AccessEntry(objectId, dataset.getEntityClass(), request.getIdentityId(), rights));
+            }
+        }
+        return ResponseEntity.ok(Map.of("objects", entries));
+    }
+
+    @GetMapping("/search/")
+    public ResponseEntity<Map<String, List<ObjectAccess>>> search(@PathVariable String applicationId,
+                                                  @RequestParam(required = false) String identityId,
+                                                  @RequestParam String requestedById,
+                                                  @RequestParam(required = false) String objectEntityClass,
+                                                  @RequestParam(required = false) Integer pagesize,
+                                                  @RequestParam(required = false) Integer offset) {
+        searchCalls.increment();
+        if (faults.apply()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        String effectiveIdentity = identityId != null ? identityId : requestedById;
+        return ResponseEntity.ok(Map.of("objects", dataset.search(applicationId, effectiveIdentity, offset, pagesize)));
+    }
+
+    public long getSingleCalls() {
+        return singleCalls.sum();
+    }
+
+    public long getBatchCalls() {
+        return batchCalls.sum();
+    }
+
+    public long getSearchCalls() {
+        return searchCalls.sum();
+    }
+
+    /**
+     * Zugriffsrechte eines Objekts im Antwortformat der Policy Machine.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccessEntry {
+        private String objectId;
+        private String objectEntityClass;
+        private String identityId;
+        private ObjectProperties objectProperties;
+    }
+}
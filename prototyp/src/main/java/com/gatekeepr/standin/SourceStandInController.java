@@ -0,0 +1,115 @@
+package com.gatekeepr.standin;
+
+import com.gatekeepr.client.SourceDataClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Eingebettetes Stand-in-Quellsystem für Offline- und Lasttests.
+ *
+ * Liefert dieselben deterministischen Objektdaten wie der Modus {@code simulated} des
+ * {@link SourceDataClient}, aber über HTTP und mit einstellbarer Latenz und Fehlerquote
+ * ({@link FaultInjection}). Neben dem Einzelabruf gibt es einen Batch-Endpunkt
+ * ({@code POST <entityClass>/batch}), bei dem Latenz und Fehler einmal pro Block anfallen. Beide
+ * unterstützen Feldprojektionen ({@code fields}) und liefern als {@code ETag} eine Versionskennung des
+ * vollständigen Objekts; bedingte Abrufe mit unveränderter Kennung werden mit {@code 304} bzw. in
+ * {@code notModified} beantwortet. Objekt-IDs mit dem Präfix {@value #MISSING_PREFIX} gelten als nicht
+ * vorhanden (404 bzw. fehlen in der Batch-Antwort). Wird nur mit dem Profil {@code source-standin} gestartet.
+ */
+@Slf4j
+@RestController
+@Profile("source-standin")
+@RequestMapping(SourceStandInController.PATH)
+public class SourceStandInController {
+
+    public static final String PATH = "/standin/source";
+
+    /** Präfix für Objekt-IDs, die das Stand-in als nicht vorhanden behandelt */
+    public static final String MISSING_PREFIX = "missing-";
+
+    /** Simulierte Antwortzeit und Fehlerquote pro Aufruf */
+    private final FaultInjection faults;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder batchCalls = new LongAdder();
+
+    public SourceStandInController(
+            @Value("${gatekeepr.standin.source.latency:fixed:0}") String latency,
+            @Value("${gatekeepr.standin.source.error-rate:0}") double errorRate
+    ) {
+        this.faults = FaultInjection.parse(latency, errorRate);
+        log.info("Stand-in Quellsystem aktiv (latency={})", faults);
+    }
+
+    @GetMapping("/{entityClass}/{objectId}")
+    public ResponseEntity<Map<String, Object>> getObject(@PathVariable String entityClass, @PathVariable String objectId,
+                                                         @RequestParam(required = false) Set<String> fields,
+                                                         @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        calls.increment();
+        if (faults.apply()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (objectId.startsWith(MISSING_PREFIX)) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> data = SourceDataClient.simulate(objectId, entityClass);
+        String etag = etag(data);
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SourceDataClient.project(data, fields));
+    }
+
+    @PostMapping("/{entityClass}/batch")
+    public ResponseEntity<Map<String, Object>> getObjects(@PathVariable String entityClass, @RequestBody BatchRequest request) {
+        batchCalls.increment();
+        if (faults.apply()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Map<String, String> knownEtags = request.etags() != null ? request.etags() : Map.of();
+        List<Map<String, Object>> objects = new ArrayList<>();
+        Map<String, String> etags = new LinkedHashMap<>();
+        List<String> notModified = new ArrayList<>();
+
+        for (String objectId : request.objectIds() != null ? request.objectIds() : List.<String>of()) {
+            if (objectId.startsWith(MISSING_PREFIX)) continue;
+            Map<String, Object> data = SourceDataClient.simulate(objectId, entityClass);
+            String etag = etag(data);
+            if (etag.equals(knownEtags.get(objectId))) {
+                notModified.add(objectId);
+                continue;
+            }
+            objects.add(SourceDataClient.project(data, request.fields()));
+            etags.put(objectId, etag);
+        }
+        return ResponseEntity.ok(Map.of("objects", objects, "etags", etags, "notModified", notModified));
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getBatchCalls() {
+        return batchCalls.sum();
+    }
+
+    /**
+     * Versionskennung des vollständigen Objekts; unabhängig von der angeforderten Projektion.
+     */
+    private static String etag(Map<String, Object> data) {
+        return "\"" + Integer.toHexString(data.hashCode()) + "\"";
+    }
+
+    public record BatchRequest(List<String> objectIds, List<String> fields, Map<String, String> etags) {}
+}
@@ -0,0 +1,44 @@
+package com.gatekeepr.standin;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Eigener Tomcat-Connector für die eingebetteten Stand-ins.
+ *
+ * Ist {@code gatekeepr.standin.port} gesetzt, nimmt ein zusätzlicher Connector mit eigenem Thread-Pool
+ * ({@code gatekeepr.standin.max-threads}) die Aufrufe an Stand-in PM und Stand-in Quellsystem entgegen.
+ * Deren simulierte Latenzen belegen dann keine Threads des GatekeepR-Connectors, und dessen
+ * Thread-Pool lässt sich im Lasttest unverändert messen. Ohne den Port teilen sich beide den Connector
+ * von {@code server.port} (ausreichend für Funktionstests).
+ */
+@Slf4j
+@Configuration
+@Profile({"pm-standin", "source-standin"})
+@ConditionalOnProperty("gatekeepr.standin.port")
+public class StandInConnectorConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> standInConnector(
+            @Value("${gatekeepr.standin.port}") int port,
+            @Value("${gatekeepr.standin.max-threads:200}") int maxThreads
+    ) {
+        return factory -> {
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(port);
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                protocol.setMaxThreads(maxThreads);
+            }
+            factory.addAdditionalTomcatConnectors(connector);
+            log.info("Stand-in-Connector auf Port {} (maxThreads={})", port, maxThreads);
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.gatekeepr.standin;
+
+import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.dto.ObjectProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministischer, synthetischer Datenbestand für die Stand-in Policy Machine.
+ *
+ * Die Rechte einer Identität auf ein Objekt ergeben sich allein aus einem Hash über
+ * Objekt- und Identitäts-ID, sodass wiederholte Läufe identische Ergebnisse liefern.
+ * Der Datenbestand wird nicht gespeichert, daher sind auch Millionen von Objekten möglich.
+ *
+ * Die Verteilung der Rechteprofile wird über Gewichte vorgegeben, z. B.
+ * {@code none:1,basic:2,digits:1,full:6} (10 % ohne Zugriff, 20 % nur Grunddaten, 10 % mit
+ * DigitAccess auf das Kennzeichen, 60 % Vollzugriff).
+ */
+@Component
+@Profile("pm-standin")
+public class SyntheticAccessDataset {
+
+    private static final List<String> ALL_FIELDS = List.of(
+            "objectId", "licensePlate", "brand", "model", "location", "fuelType", "mileage", "status");
+
+    private static final List<String> BASIC_FIELDS = List.of("objectId", "brand", "model");
+
+    private static final List<String> PROFILES = List.of("none", "basic", "digits", "full");
+
+    /** Entitätsklasse aller synthetischen Objekte */
+    private final String entityClass;
+
+    /** Anzahl der Objekte, die bei Suchanfragen durchlaufen werden */
+    private final int objectCount;
+
+    /** Höchstzahl an Suchtreffern, wenn die Anfrage keine Seitengröße angibt */
+    private final int searchLimit;
+
+    /** Profil (Index in {@link #PROFILES}) je Hash-Bucket */
+    private final int[] profileByBucket;
+
+    public SyntheticAccessDataset(
+            @Value("${gatekeepr.standin.pm.entity-class:vehicle}") String entityClass,
+            @Value("${gatekeepr.standin.pm.object-count:1000}") int objectCount,
+            @Value("${gatekeepr.standin.pm.search-limit:10000}") int searchLimit,
+            @Value("${gatekeepr.standin.pm.rights-distribution:none:1,basic:2,digits:1,full:6}") String rightsDistribution
+    ) {
+        this.entityClass = entityClass;
+        this.objectCount = objectCount;
+        this.searchLimit = searchLimit;
+        this.profileByBucket = parseDistribution(rightsDistribution);
+    }
+
+    /**
+     * Liefert die Rechte einer Identität auf ein Objekt.
+     *
+     * @return Objektrechte oder null, wenn die Identität keinen Zugriff hat
+     */
+    public ObjectProperties rightsFor(String objectId, String identityId) {
+        int bucket = Math.floorMod((objectId + "|" + identityId).hashCode(), profileByBucket.length);
+
+        return switch (profileByBucket[bucket]) {
+            case 0 -> null;
+            case 1 -> new ObjectProperties(BASIC_FIELDS, List.of(), List.of(), List.of(), List.of());
+            case 2 -> new ObjectProperties(ALL_FIELDS, List.of(), List.of(), List.of(), List.of(
+                    new ObjectProperties.DigitAccess("licensePlate",
+                            List.of(new ObjectProperties.ReadableDigitsRange(1, 2)), "readable")));
+            default -> new ObjectProperties(ALL_FIELDS, List.of("status"), BASIC_FIELDS, List.of(), List.of());
+        };
+    }
+
+    /**
+     * Liefert die Objekte, auf die eine Identität Zugriff hat, seitenweise in fester Reihenfolge.
+     *
+     * @param offset Anzahl der zu überspringenden Treffer (optional)
+     * @param limit  Maximale Anzahl an Treffern (optional, sonst {@code search-limit})
+     */
+    public List<ObjectAccess> search(String applicationId, String identityId, Integer offset, Integer limit) {
+        int max = limit != null ? limit : searchLimit;
+        int skip = offset != null ? Math.max(0, offset) : 0;
+        List<ObjectAccess> result = new ArrayList<>();
+
+        for (int i = 0; i < objectCount && result.size() < max; i++) {
+            String objectId = objectId(i);
+            ObjectProperties rights = rightsFor(objectId, identityId);
+            if (rights == null) continue;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+
+            ObjectAccess access = new ObjectAccess();
+            access.setApplicationId(applicationId);
+            access.setObjectId(objectId);
+            access.setObjectEntityClass(entityClass);
+            access.setIdentityId(identityId);
+            access.setObjectProperties(rights);
+            result.add(access);
+        }
+
+        return result;
+    }
+
+    public String getEntityClass() {
+        return entityClass;
+    }
+
+    public int getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Übersetzt die Gewichte der Rechteprofile in eine Tabelle Bucket → Profil.
+     */
+    static int[] parseDistribution(String distribution) {
+        List<Integer> buckets = new ArrayList<>();
+        for (String part : distribution.split(",")) {
+            String[] entry = part.trim().split(":");
+            int profile = entry.length == 2 ? PROFILES.indexOf(entry[0].trim()) : -1;
+            if (profile < 0) {
+                throw new IllegalArgumentException("Ungültige Rechteverteilung '" + part + "' (Profile: " + PROFILES + ")");
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            for (int i = 0; i < weight; i++) {
+                buckets.add(profile);
+            }
+        }
+        if (buckets.isEmpty()) {
+            throw new IllegalArgumentException("Rechteverteilung ohne Gewichte: '" + distribution + "'");
+        }
+        return buckets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Objekt-ID des i-ten synthetischen Objekts */
+    public static String objectId(int index) {
+        return "standin-" + index;
+    }
+}
@@ -3,7 +3,7 @@ package com.gatekeepr;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "gatekeepr.transit.api-key=test")
 class GatekeepRApplicationTests {
 
 	@Test
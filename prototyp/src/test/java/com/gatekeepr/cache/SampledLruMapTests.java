@@ -0,0 +1,60 @@
+package com.gatekeepr.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SampledLruMapTests {
+
+    @Test
+    void keepsWeightWithinLimit() {
+        SampledLruMap<String, String> map = SampledLruMap.withMaxWeight(100, String::length);
+
+        for (int i = 0; i < 1000; i++) {
+            map.put("k" + i, "x".repeat(1 + i % 10));
+        }
+        map.put("k999", "y");
+        map.remove("k998");
+
+        long actual = IntStream.range(0, 1000).mapToObj(i -> map.get("k" + i)).filter(v -> v != null).mapToLong(String::length).sum();
+        assertThat(map.weight()).isEqualTo(actual).isLessThanOrEqualTo(100);
+        assertThat(map.evictions()).isGreaterThan(0);
+    }
+
+    @Test
+    void prefersLeastRecentlyUsedEntries() {
+        SampledLruMap<Integer, Integer> map = SampledLruMap.withMaxEntries(1000);
+        IntStream.range(0, 1000).forEach(i -> map.put(i, i));
+        List<Integer> hot = IntStream.range(0, 1000).filter(i -> i % 10 == 0).boxed().toList();
+        hot.forEach(map::get);
+
+        IntStream.range(1000, 1500).forEach(i -> map.put(i, i));
+
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.evictions()).isEqualTo(500);
+        // Näherungsweise: ein häufig genutzter Eintrag fällt nur, wenn die Stichprobe keinen kalten enthält
+        assertThat(hot.stream().filter(map::containsKey).count()).isGreaterThanOrEqualTo(85);
+    }
+
+    @Test
+    void samplesDifferentRegionsOfTheTable() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        IntStream.range(0, 10_000).forEach(i -> map.put(i, i));
+
+        Set<Integer> first = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            List<Map.Entry<Integer, Integer>> sample = SampledLruMap.sample(map, SampledLruMap.SAMPLE_SIZE);
+            assertThat(sample).isNotEmpty().hasSizeLessThanOrEqualTo(SampledLruMap.SAMPLE_SIZE);
+            first.add(sample.get(0).getKey());
+        }
+        assertThat(first).hasSizeGreaterThan(20);
+        assertThat(SampledLruMap.sample(new ConcurrentHashMap<>(), SampledLruMap.SAMPLE_SIZE)).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.gatekeepr.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", true, meterRegistry);
+        CompletableFuture<String> backend = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = flight.execute("k", () -> { calls.incrementAndGet(); return backend; });
+        CompletableFuture<String> second = flight.execute("k", () -> { calls.incrementAndGet(); return backend; });
+        CompletableFuture<String> other = flight.execute("other", () -> { calls.incrementAndGet(); return CompletableFuture.completedFuture("o"); });
+
+        // Abbruch eines Aufrufers betrifft die übrigen nicht
+        first.cancel(true);
+        backend.complete("v");
+
+        assertThat(second.join()).isEqualTo("v");
+        assertThat(other.join()).isEqualTo("o");
+        assertThat(calls).hasValue(2);
+        assertThat(count("coalesced")).isEqualTo(1);
+        assertThat(count("executed")).isEqualTo(2);
+
+        // Nach Abschluss wird wieder neu aufgerufen
+        flight.execute("k", () -> { calls.incrementAndGet(); return CompletableFuture.completedFuture("v2"); });
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void failuresReachAllCallersAndReleaseTheKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", true, meterRegistry);
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("k", () -> backend);
+        CompletableFuture<String> second = flight.execute("k", () -> backend);
+        backend.completeExceptionally(new SourceUnavailableException("down", null));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(SourceUnavailableException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(SourceUnavailableException.class);
+        assertThatThrownBy(flight.execute("k", () -> { throw new SourceUnavailableException("down", null); })::join)
+                .hasCauseInstanceOf(SourceUnavailableException.class);
+        assertThat(flight.execute("k", () -> CompletableFuture.completedFuture("v")).join()).isEqualTo("v");
+    }
+
+    @Test
+    void disabledFlightCallsEveryTime() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", false, meterRegistry);
+        CompletableFuture<String> backend = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        flight.execute("k", () -> { calls.incrementAndGet(); return backend; });
+        flight.execute("k", () -> { calls.incrementAndGet(); return backend; });
+
+        assertThat(calls).hasValue(2);
+        assertThat(count("coalesced")).isZero();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("gatekeepr.singleflight.calls").tag("name", "test").tag("outcome", outcome).counter().count();
+    }
+}
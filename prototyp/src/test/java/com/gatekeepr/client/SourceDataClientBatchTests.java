@@ -0,0 +1,109 @@
+package com.gatekeepr.client;
+
+import com.gatekeepr.standin.SourceStandInController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vergleicht Batch- und Einzelabrufe gegen das eingebettete Stand-in-Quellsystem und prüft Feldprojektion
+ * und bedingte Abrufe.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "gatekeepr.transit.api-key=test")
+@ActiveProfiles("source-standin")
+class SourceDataClientBatchTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SourceStandInController standIn;
+
+    private final List<String> objectIds = IntStream.range(0, 60)
+            .mapToObj(i -> "object-" + i)
+            .toList();
+
+    @Test
+    void batchLoadMatchesSingleLoads() {
+        SourceDataClient client = client(true);
+
+        long batchCallsBefore = standIn.getBatchCalls();
+        Map<String, Map<String, Object>> batch = client.loadObjectData(objectIds, "vehicle");
+        assertThat(standIn.getBatchCalls() - batchCallsBefore).isEqualTo(3);
+
+        assertThat(batch.keySet()).containsExactlyElementsOf(objectIds);
+        for (String objectId : objectIds) {
+            assertThat(batch.get(objectId)).isEqualTo(client.loadObjectData(objectId, "vehicle"));
+        }
+    }
+
+    @Test
+    void usesSingleLoadsWithoutBulkEndpoint() {
+        SourceDataClient client = client(false);
+
+        long callsBefore = standIn.getCalls();
+        long batchCallsBefore = standIn.getBatchCalls();
+        Map<String, Map<String, Object>> loaded = client.loadObjectData(objectIds, "vehicle");
+
+        assertThat(standIn.getBatchCalls()).isEqualTo(batchCallsBefore);
+        assertThat(standIn.getCalls() - callsBefore).isEqualTo(objectIds.size());
+        assertThat(loaded.keySet()).containsExactlyElementsOf(objectIds);
+    }
+
+    @Test
+    void omitsMissingObjectsInBatchAndSingleLoads() {
+        List<String> withMissing = List.of("object-1", SourceStandInController.MISSING_PREFIX + "1", "object-2");
+
+        for (boolean bulkEnabled : new boolean[]{true, false}) {
+            assertThat(client(bulkEnabled).loadObjectData(withMissing, "vehicle").keySet())
+                    .containsExactly("object-1", "object-2");
+        }
+        assertThatThrownBy(() -> client(false).loadObjectData(SourceStandInController.MISSING_PREFIX + "1", "vehicle"))
+                .isInstanceOf(SourceUnavailableException.class);
+    }
+
+    @Test
+    void projectionIsPushedDownForSingleAndBatchLoads() {
+        Set<String> fields = Set.of("objectId", "objectEntityClass", "brand");
+
+        assertThat(client(true).loadObjectData("object-1", "vehicle", fields)).containsOnlyKeys(fields);
+        assertThat(client(true).loadObjectData(objectIds, "vehicle", fields).values())
+                .allSatisfy(data -> assertThat(data).containsOnlyKeys(fields));
+        assertThat(client(false).loadObjectData(objectIds, "vehicle", fields).values())
+                .allSatisfy(data -> assertThat(data).containsOnlyKeys(fields));
+    }
+
+    @Test
+    void conditionalLoadsReportUnchangedObjects() {
+        SourceDataClient.SourceObject first = client(true).loadObject("object-1", "vehicle", null, null);
+        assertThat(first.etag()).isNotNull();
+        assertThat(client(true).loadObject("object-1", "vehicle", null, first.etag()).notModified()).isTrue();
+        assertThat(client(true).loadObject("object-1", "vehicle", null, "\"other\"").data()).isEqualTo(first.data());
+
+        for (boolean bulkEnabled : new boolean[]{true, false}) {
+            Map<String, SourceDataClient.SourceObject> loaded = client(bulkEnabled).loadObjects(objectIds, "vehicle", null,
+                    Map.of("object-1", first.etag(), "object-2", first.etag()));
+            assertThat(loaded.keySet()).containsExactlyElementsOf(objectIds);
+            assertThat(loaded.get("object-1").notModified()).isTrue();
+            assertThat(loaded.get("object-2").notModified()).isFalse();
+            assertThat(loaded.get("object-3").etag()).isNotNull();
+        }
+    }
+
+    private SourceDataClient client(boolean bulkEnabled) {
+        return new SourceDataClient("http", "http://localhost:" + port + SourceStandInController.PATH,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 25, bulkEnabled, true, true, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,136 @@
+package com.gatekeepr.client;
+
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.standin.PolicyMachineStandInController;
+import com.gatekeepr.standin.SyntheticAccessDataset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vergleicht Batch- und Einzelabfragen sowie gepufferte und gestreamte Suche gegen die eingebettete
+ * Stand-in Policy Machine.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gatekeepr.standin.pm.latency-ms=2")
+@ActiveProfiles("pm-standin")
+class TransitAccessClientBatchTests {
+
+    private static final String APPLICATION_ID = "app";
+    private static final String IDENTITY_ID = "identity-1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PolicyMachineStandInController standIn;
+
+    private final List<String> objectIds = IntStream.range(0, 100)
+            .mapToObj(SyntheticAccessDataset::objectId)
+            .toList();
+
+    @Test
+    void batchLookupMatchesSingleLookups() {
+        TransitAccessClient client = client(25, true);
+
+        long batchCallsBefore = standIn.getBatchCalls();
+        Map<String, AccessRights> batch = client.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+        assertThat(standIn.getBatchCalls() - batchCallsBefore).isEqualTo(4);
+
+        assertThat(batch.keySet()).containsExactlyElementsOf(objectIds);
+        for (String objectId : objectIds) {
+            AccessRights single = client.getAccessRights(APPLICATION_ID, objectId, IDENTITY_ID, IDENTITY_ID);
+            assertThat(batch.get(objectId).getObjectProperties()).isEqualTo(single.getObjectProperties());
+        }
+    }
+
+    @Test
+    void singleLookupModeMatchesBatchLookups() {
+        TransitAccessClient batchClient = client(25, true);
+        TransitAccessClient singleClient = client(25, false);
+
+        long singleCallsBefore = standIn.getSingleCalls();
+        Map<String, AccessRights> viaSingle = singleClient.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+        assertThat(standIn.getSingleCalls() - singleCallsBefore).isEqualTo(objectIds.size());
+
+        Map<String, AccessRights> viaBatch = batchClient.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+        for (String objectId : objectIds) {
+            assertThat(viaSingle.get(objectId).isEmpty()).isEqualTo(viaBatch.get(objectId).isEmpty());
+        }
+    }
+
+    @Test
+    void doesNotFallBackToSingleLookupsWhenPolicyMachineIsDown() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + closedPort + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 25, true, true, meterRegistry);
+
+        Map<String, AccessRights> rights = client.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+
+        assertThat(rights.keySet()).containsExactlyElementsOf(objectIds);
+        assertThat(rights.values()).allMatch(AccessRights::isEmpty);
+        // Der erste fehlgeschlagene Block bricht ab, ohne Einzelabfragen nachzuschieben
+        assertThat(meterRegistry.find("gatekeepr.transit.requests").tag("operation", "batch").timers())
+                .singleElement().satisfies(timer -> assertThat(timer.count()).isEqualTo(1));
+        assertThat(meterRegistry.find("gatekeepr.transit.requests").tag("operation", "single").timers()).isEmpty();
+    }
+
+    @Test
+    void streamedSearchMatchesBufferedSearch() {
+        TransitAccessClient client = client(25, true);
+
+        List<ObjectAccess> buffered = client.searchAccessibleObjects(APPLICATION_ID, IDENTITY_ID, IDENTITY_ID, "vehicle", true, 200, 50);
+        List<ObjectAccess> streamed = new ArrayList<>();
+        int count = client.streamAccessibleObjects(APPLICATION_ID, IDENTITY_ID, IDENTITY_ID, "vehicle", true, 200, 50, streamed::add);
+
+        assertThat(count).isEqualTo(200);
+        assertThat(streamed).isEqualTo(buffered);
+    }
+
+    @Test
+    void streamedSearchReleasesPermitBeforeReadingBody() {
+        // Nur ein PM-Aufruf gleichzeitig: hielte die Suche ihr Permit während sink, liefe dieser ins Timeout
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + port + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(1), 1, 4, 25, true, false, new SimpleMeterRegistry());
+        List<AccessRights> nested = new ArrayList<>();
+
+        int count = client.streamAccessibleObjects(APPLICATION_ID, IDENTITY_ID, IDENTITY_ID, "vehicle", true, 3, 0,
+                access -> nested.add(client.getAccessRights(APPLICATION_ID, access.getObjectId(), IDENTITY_ID, IDENTITY_ID)));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(nested).hasSize(3).noneMatch(AccessRights::isEmpty);
+    }
+
+    @Test
+    void requiresApiKey() {
+        assertThatThrownBy(() -> new TransitAccessClient("http://localhost:" + port + "/v1", " ",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 25, true, true, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("gatekeepr.transit.api-key");
+    }
+
+    private TransitAccessClient client(int batchSize, boolean bulkEnabled) {
+        return new TransitAccessClient("http://localhost:" + port + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, batchSize, bulkEnabled, true,
+                new SimpleMeterRegistry());
+    }
+}
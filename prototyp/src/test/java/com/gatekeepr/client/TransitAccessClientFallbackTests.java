@@ -0,0 +1,91 @@
+package com.gatekeepr.client;
+
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.standin.PolicyMachineStandInController;
+import com.gatekeepr.standin.SyntheticAccessDataset;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rückfall auf Einzelabfragen gegen eine Stand-in Policy Machine ohne Batch-Endpunkt (404).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gatekeepr.standin.pm.bulk-enabled=false")
+@ActiveProfiles("pm-standin")
+class TransitAccessClientFallbackTests {
+
+    private static final String APPLICATION_ID = "app";
+    private static final String IDENTITY_ID = "identity-1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PolicyMachineStandInController standIn;
+
+    private final List<String> objectIds = IntStream.range(0, 100)
+            .mapToObj(SyntheticAccessDataset::objectId)
+            .toList();
+
+    @Test
+    void fallsBackToSingleLookupsWhenBatchEndpointIsMissing() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + port + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 25, true, true, meterRegistry);
+
+        long singleCallsBefore = standIn.getSingleCalls();
+        Map<String, AccessRights> rights = client.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+
+        assertThat(standIn.getSingleCalls() - singleCallsBefore).isEqualTo(objectIds.size());
+        assertThat(standIn.getBatchCalls()).isZero();
+        assertThat(rights.keySet()).containsExactlyElementsOf(objectIds);
+        for (String objectId : objectIds) {
+            AccessRights single = client.getAccessRights(APPLICATION_ID, objectId, IDENTITY_ID, IDENTITY_ID);
+            assertThat(rights.get(objectId).getObjectProperties()).isEqualTo(single.getObjectProperties());
+        }
+
+        // Nach dem ersten 404 wird der Batch-Endpunkt nicht mehr versucht
+        long batchAttempts = batchAttempts(meterRegistry);
+        assertThat(batchAttempts).isPositive();
+        client.getAccessRights(APPLICATION_ID, objectIds, IDENTITY_ID, IDENTITY_ID);
+        assertThat(batchAttempts(meterRegistry)).isEqualTo(batchAttempts);
+    }
+
+    @Test
+    void failedSingleLookupOnlyEmptiesItsObject() {
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + port + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 25, true, true, new SimpleMeterRegistry());
+        String failing = PolicyMachineStandInController.FAILING_PREFIX + "1";
+        List<String> ids = new ArrayList<>(objectIds.subList(0, 10));
+        ids.add(5, failing);
+
+        Map<String, AccessRights> rights = client.loadAccessRights(APPLICATION_ID, ids, IDENTITY_ID, IDENTITY_ID);
+
+        assertThat(rights.keySet()).containsExactlyElementsOf(ids);
+        assertThat(rights.get(failing).isEmpty()).isTrue();
+        for (String objectId : objectIds.subList(0, 10)) {
+            AccessRights single = client.getAccessRights(APPLICATION_ID, objectId, IDENTITY_ID, IDENTITY_ID);
+            assertThat(rights.get(objectId).getObjectProperties()).isEqualTo(single.getObjectProperties());
+        }
+        assertThat(rights.values()).filteredOn(r -> !r.isEmpty()).isNotEmpty();
+    }
+
+    private static long batchAttempts(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.find("gatekeepr.transit.requests").tag("operation", "batch").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
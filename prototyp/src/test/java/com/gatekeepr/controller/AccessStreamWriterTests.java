@@ -0,0 +1,71 @@
+package com.gatekeepr.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.service.ObjectRequestHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AccessStreamWriterTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void writesObjectsFollowedByTrailer() throws Exception {
+        AccessStreamWriter writer = new AccessStreamWriter(handlerEmitting(2, false), mapper);
+
+        JsonNode json = mapper.readTree(write(writer.stream(new AccessRequestDto(), false, false)));
+        assertThat(json.path("objects")).hasSize(2);
+        assertThat(json.path("objects").get(1).path("filteredData").path("brand").asText()).isEqualTo("brand-1");
+        assertThat(json.path("status").asText()).isEqualTo("success");
+        assertThat(json.path("count").asInt()).isEqualTo(2);
+        assertThat(json.path("nextCursor").asText()).isEqualTo("next");
+
+        String[] lines = write(writer.stream(new AccessRequestDto(), true, true)).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(mapper.readTree(lines[0]).path("brand").asText()).isEqualTo("brand-0");
+        assertThat(mapper.readTree(lines[2]).path("count").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void reportsFailureInTrailerAfterWrittenObjects() throws Exception {
+        AccessStreamWriter writer = new AccessStreamWriter(handlerEmitting(1, true), mapper);
+
+        JsonNode json = mapper.readTree(write(writer.stream(new AccessRequestDto(), true, false)));
+        assertThat(json.path("data")).hasSize(1);
+        assertThat(json.path("status").asText()).isEqualTo("error");
+        assertThat(json.path("message").asText()).isEqualTo("Quellsystem nicht erreichbar");
+        assertThat(json.path("count").asInt()).isEqualTo(1);
+    }
+
+    private static ObjectRequestHandler handlerEmitting(int objects, boolean failAfterwards) {
+        ObjectRequestHandler handler = mock(ObjectRequestHandler.class);
+        doAnswer(invocation -> {
+            Consumer<AccessibleObject> sink = invocation.getArgument(1);
+            for (int i = 0; i < objects; i++) {
+                sink.accept(new AccessibleObject("app", "obj-" + i, "vehicle", "identity", null, Map.of("brand", "brand-" + i)));
+            }
+            if (failAfterwards) throw new IllegalStateException("Quellsystem nicht erreichbar");
+            return new ObjectRequestHandler.StreamSummary(objects, "next");
+        }).when(handler).streamRequest(any(), any());
+        return handler;
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
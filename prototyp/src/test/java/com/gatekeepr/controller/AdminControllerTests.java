@@ -0,0 +1,61 @@
+package com.gatekeepr.controller;
+
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.policy.RuleLoader;
+import com.gatekeepr.policy.RuleStatisticsRegistry;
+import com.gatekeepr.service.AccessRightsCache;
+import com.gatekeepr.service.SearchPagePrefetcher;
+import com.gatekeepr.service.SourceDataCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AdminController.class)
+class AdminControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RuleStatisticsRegistry ruleStatistics;
+
+    @MockitoBean
+    private AccessRightsCache accessRightsCache;
+
+    @MockitoBean
+    private RuleLoader ruleLoader;
+
+    @MockitoBean
+    private AccessCounterStore accessCounterStore;
+
+    @MockitoBean
+    private SearchPagePrefetcher searchPagePrefetcher;
+
+    @MockitoBean
+    private SourceDataCache sourceDataCache;
+
+    @Test
+    void ruleStatsAcceptsKnownOrdersCaseInsensitively() throws Exception {
+        when(ruleStatistics.report(RuleStatisticsRegistry.Order.COST))
+                .thenReturn(new RuleStatisticsRegistry.Report(3, List.of(), List.of()));
+
+        mockMvc.perform(get("/gatekeepr/admin/rule-stats").param("order", "Cost"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ruleSetVersion").value(3));
+    }
+
+    @Test
+    void ruleStatsRejectsUnknownOrder() throws Exception {
+        mockMvc.perform(get("/gatekeepr/admin/rule-stats").param("order", "popularity"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,118 @@
+package com.gatekeepr.controller;
+
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.service.ObjectRequestHandler;
+import com.gatekeepr.service.ObjectRequestHandler.StreamSummary;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Gestreamte Endpunkte über den Spring-MVC-Stack, einschließlich des begrenzten Stream-Executors.
+ */
+@WebMvcTest(controllers = GatekeepRController.class, properties = {
+        "gatekeepr.stream.max-concurrent=1",
+        "gatekeepr.stream.queue-capacity=0"
+})
+@Import(AccessStreamWriter.class)
+class GatekeepRControllerStreamTests {
+
+    private static final String SEARCH = """
+            {"applicationId": "app", "identityId": "identity", "objectEntityClass": "vehicle"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ObjectRequestHandler objectRequestHandler;
+
+    @Test
+    void streamsNdjsonOnStreamExecutor() throws Exception {
+        String[] thread = new String[1];
+        doAnswer(invocation -> {
+            thread[0] = Thread.currentThread().getName();
+            Consumer<AccessibleObject> sink = invocation.getArgument(1);
+            sink.accept(new AccessibleObject("app", "obj-1", "vehicle", "identity", null, Map.of("brand", "VW")));
+            return new StreamSummary(1, null);
+        }).when(objectRequestHandler).streamRequest(any(), any());
+
+        MvcResult started = mockMvc.perform(stream().accept(AccessStreamWriter.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5000);
+        String[] lines = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(started.getResponse().getContentType()).startsWith("application/x-ndjson");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"brand\":\"VW\"");
+        assertThat(lines[1]).contains("\"status\":\"success\"", "\"count\":1");
+        assertThat(thread[0]).startsWith("gatekeepr-stream-");
+    }
+
+    @Test
+    void rejectsStreamsBeyondCapacity() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new StreamSummary(0, null);
+        }).when(objectRequestHandler).streamRequest(any(), any());
+
+        MvcResult first = mockMvc.perform(stream()).andExpect(request().asyncStarted()).andReturn();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            MvcResult second = mockMvc.perform(stream()).andExpect(request().asyncStarted()).andReturn();
+            mockMvc.perform(redispatch(second))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            release.countDown();
+        }
+        first.getAsyncResult(5000);
+        mockMvc.perform(asyncDispatch(first)).andExpect(status().isOk());
+    }
+
+    /**
+     * Wie {@code asyncDispatch}, aber ohne auf das Ergebnis von MockMvc zu warten: Bei abgelehntem Task
+     * laufen die Callable-Interceptoren nicht, das Ergebnis liegt nur im WebAsyncManager.
+     */
+    private static RequestBuilder redispatch(MvcResult result) {
+        return servletContext -> {
+            MockHttpServletRequest request = result.getRequest();
+            request.setDispatcherType(DispatcherType.ASYNC);
+            request.setAsyncStarted(false);
+            return request;
+        };
+    }
+
+    private static MockHttpServletRequestBuilder stream() {
+        return post("/gatekeepr/filtered/stream").contentType(MediaType.APPLICATION_JSON).content(SEARCH);
+    }
+}
@@ -0,0 +1,191 @@
+package com.gatekeepr.counter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessCounterStoreTests {
+
+    @Test
+    void countsOnlyAccessesWithinTheWindow() {
+        TestClock clock = new TestClock();
+        AccessCounterStore store = new AccessCounterStore(clock, Duration.ofSeconds(60), 6, 100);
+
+        store.incrementAndGet("a");
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(store.incrementAndGet("a")).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(40));
+        assertThat(store.get("a")).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(60));
+        assertThat(store.incrementAndGet("a")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        AccessCounterStore store = new AccessCounterStore(new TestClock(), Duration.ofMinutes(1), 12, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 10_000; i++) store.incrementAndGet("hot");
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(store.get("hot")).isEqualTo(80_000);
+    }
+
+    @Test
+    void idleKeysExpireAndCapIsEnforced() {
+        TestClock clock = new TestClock();
+        AccessCounterStore store = new AccessCounterStore(clock, Duration.ofSeconds(10), 2, 3);
+
+        store.incrementAndGet("a");
+        store.incrementAndGet("b");
+        store.incrementAndGet("c");
+        store.incrementAndGet("d");
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.stats().evicted()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(11));
+        store.expireIdle();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void evictsKeysWithOldestAccessFirst() {
+        TestClock clock = new TestClock();
+        AccessCounterStore store = new AccessCounterStore(clock, Duration.ofMinutes(1), 12, 200);
+        IntStream.range(0, 200).forEach(i -> store.incrementAndGet("key-" + i));
+
+        clock.advance(Duration.ofSeconds(5));
+        IntStream.range(0, 100).forEach(i -> store.incrementAndGet("key-" + i));
+        IntStream.range(200, 250).forEach(i -> store.incrementAndGet("key-" + i));
+
+        assertThat(store.size()).isEqualTo(200);
+        assertThat(store.stats().evicted()).isEqualTo(50);
+        // Näherungsweise: ein zuletzt genutzter Schlüssel fällt nur, wenn die Stichprobe keinen älteren enthält
+        assertThat(IntStream.range(0, 100).filter(i -> store.get("key-" + i) == 2).count()).isGreaterThanOrEqualTo(95);
+    }
+
+    @Test
+    void rejectsSlicesTooShortForPacking() {
+        assertThatThrownBy(() -> new AccessCounterStore(new TestClock(), Duration.ofMillis(500), 12, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AccessCounterStore(new TestClock(), Duration.ofMinutes(1), 0, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new AccessCounterStore(new TestClock(), Duration.ofMillis(1200), 12, 100).sliceMillis())
+                .isEqualTo(AccessCounterStore.MIN_BUCKET_MILLIS);
+    }
+
+    @Test
+    void limitedSnapshotStopsAtLimit() {
+        AccessCounterStore store = new AccessCounterStore(new TestClock(), Duration.ofMinutes(1), 12, 100);
+        for (int i = 0; i < 10; i++) store.incrementAndGet("key-" + i);
+
+        assertThat(store.snapshot(3)).hasSize(3).allSatisfy((key, count) -> assertThat(count).isEqualTo(1));
+        assertThat(store.snapshot(0)).isEmpty();
+        assertThat(store.snapshot()).hasSize(10);
+    }
+
+    @Test
+    void replicatedCountersConvergeAcrossNodes() {
+        TestClock clock = new TestClock();
+        AccessCounterStore nodeA = replicating(clock);
+        AccessCounterStore nodeB = replicating(clock);
+
+        for (int i = 0; i < 3; i++) nodeA.incrementAndGet("k");
+        clock.advance(Duration.ofSeconds(5));
+        for (int i = 0; i < 2; i++) nodeB.incrementAndGet("k");
+
+        CounterDelta fromA = nodeA.collectDelta("a");
+        CounterDelta fromB = nodeB.collectDelta("b");
+        nodeB.merge(fromA);
+        nodeB.merge(fromA);
+        nodeA.merge(fromB);
+
+        assertThat(nodeA.get("k")).isEqualTo(5);
+        assertThat(nodeB.get("k")).isEqualTo(5);
+        assertThat(nodeA.collectDelta("a").isEmpty()).isTrue();
+
+        assertThat(nodeB.incrementAndGet("k")).isEqualTo(6);
+        nodeA.merge(nodeB.collectDelta("b"));
+        assertThat(nodeA.get("k")).isEqualTo(6);
+    }
+
+    @Test
+    void snapshotRestoresCountsAndToleratesTruncation(@TempDir Path dir) throws Exception {
+        TestClock clock = new TestClock();
+        AccessCounterStore store = new AccessCounterStore(clock, Duration.ofMinutes(1), 12, 100);
+        for (int i = 0; i < 4; i++) store.incrementAndGet("a");
+        store.incrementAndGet("b");
+        Path file = dir.resolve("counters.bin");
+        assertThat(CounterSnapshot.write(store, file)).isEqualTo(2);
+
+        AccessCounterStore restored = new AccessCounterStore(clock, Duration.ofMinutes(1), 12, 100);
+        assertThat(CounterSnapshot.read(restored, file)).isEqualTo(2);
+        assertThat(restored.get("a")).isEqualTo(4);
+        assertThat(restored.incrementAndGet("b")).isEqualTo(2);
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        AccessCounterStore partial = new AccessCounterStore(clock, Duration.ofMinutes(1), 12, 100);
+        assertThat(CounterSnapshot.read(partial, file)).isEqualTo(1);
+    }
+
+    private static AccessCounterStore replicating(Clock clock) {
+        AccessCounterStore store = new AccessCounterStore(clock, Duration.ofMinutes(1), 12, 100);
+        store.enableReplication();
+        return store;
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant instant = Instant.parse("2025-06-02T10:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledConditionTests {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Test
+    void timeWindowBoundsAreExclusive() {
+        CompiledCondition condition = CompiledCondition.compile(Map.of("time", Map.of("after", "08:00", "before", "12:00")));
+
+        assertThat(condition.matches(Map.of(), LocalTime.of(8, 0))).isFalse();
+        assertThat(condition.matches(Map.of(), LocalTime.of(8, 1))).isTrue();
+        assertThat(condition.matches(Map.of(), NOON)).isFalse();
+    }
+
+    @Test
+    void countersAcceptNumbersAndNumericStrings() {
+        CompiledCondition condition = CompiledCondition.compile(Map.of("accessCount", Map.of("greaterThan", 3, "lessThan", 10)));
+
+        assertThat(condition.matches(Map.of("accessCount", 4), NOON)).isTrue();
+        assertThat(condition.matches(Map.of("accessCount", "5"), NOON)).isTrue();
+        assertThat(condition.matches(Map.of("accessCount", 3), NOON)).isFalse();
+        assertThat(condition.matches(Map.of("accessCount", "viele"), NOON)).isFalse();
+        assertThat(condition.matches(Map.of(), NOON)).isFalse();
+    }
+
+    @Test
+    void contextValuesAreComparedAsStrings() {
+        CompiledCondition condition = CompiledCondition.compile(Map.of("context", Map.of("role", "internal", "level", "2")));
+
+        assertThat(condition.matches(Map.of("role", "internal", "level", 2), NOON)).isTrue();
+        assertThat(condition.matches(Map.of("role", "internal"), NOON)).isFalse();
+        assertThat(condition.matches(null, NOON)).isFalse();
+    }
+
+    @Test
+    void emptyOrDisabledConditionsNeverMatch() {
+        assertThat(CompiledCondition.compile(Map.of()).matches(Map.of(), NOON)).isFalse();
+        assertThat(CompiledCondition.compile(null).isNever()).isTrue();
+        assertThat(CompiledCondition.compile(Map.of("always", false)).isNever()).isTrue();
+        assertThat(CompiledCondition.compile(Map.of("always", true)).matches(null, NOON)).isTrue();
+    }
+
+    @Test
+    void invalidConditionsAreRejectedAtLoadTime() {
+        assertThatThrownBy(() -> CompiledCondition.compile(Map.of("time", Map.of("after", "8 Uhr"))))
+                .isInstanceOf(InvalidRuleException.class)
+                .hasMessageContaining("time.after");
+        assertThatThrownBy(() -> CompiledCondition.compile(Map.of("accessCount", Map.of("greaterThan", "drei"))))
+                .isInstanceOf(InvalidRuleException.class);
+        assertThatThrownBy(() -> CompiledCondition.compile(Map.of("weekday", "monday")))
+                .isInstanceOf(InvalidRuleException.class);
+    }
+
+    @Test
+    void invalidRuleKeepsPreviousRulesActive() {
+        RuleLoader loader = new RuleLoader();
+        loader.publish(List.of(rule("vehicle.brand", "mask", Map.of("always", true))));
+
+        assertThatThrownBy(() -> loader.publish(List.of(rule("vehicle.brand", "blur", Map.of("always", true)))))
+                .isInstanceOf(InvalidRuleException.class)
+                .hasMessageContaining("Regel #1");
+        assertThat(loader.getRules()).extracting(RuleDefinition::getAction).containsExactly("mask");
+    }
+
+    private static RuleDefinition rule(String field, String action, Map<String, Object> condition) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setField(field);
+        rule.setAction(action);
+        rule.setCondition(condition);
+        return rule;
+    }
+}
@@ -0,0 +1,83 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleActivationSchedulerTests {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void switchesTimeRulesOnlyWhenActivated() {
+        MutableClock clock = new MutableClock(LocalTime.of(7, 59));
+        RuleLoader loader = new RuleLoader();
+        loader.publish(List.of(rule("vehicle.licensePlate", Map.of("time", Map.of("after", "08:00", "before", "11:00")))));
+        RuleActivationScheduler scheduler = new RuleActivationScheduler(loader, clock);
+
+        assertThat(timeRuleActive(scheduler)).isFalse();
+
+        clock.set(LocalTime.of(8, 30));
+        assertThat(timeRuleActive(scheduler)).isFalse();
+
+        scheduler.activate();
+        assertThat(timeRuleActive(scheduler)).isTrue();
+    }
+
+    @Test
+    void picksUpReloadedRules() {
+        RuleLoader loader = new RuleLoader();
+        loader.publish(List.of());
+        RuleActivationScheduler scheduler = new RuleActivationScheduler(loader, new MutableClock(LocalTime.NOON));
+        RuleIndex before = scheduler.current().index();
+
+        loader.publish(List.of(rule("vehicle.licensePlate", Map.of("always", true))));
+
+        assertThat(scheduler.current().index()).isNotSameAs(before).isSameAs(loader.getIndex());
+    }
+
+    private static boolean timeRuleActive(RuleActivationScheduler scheduler) {
+        return !scheduler.current().plan(Map.of()).forEntityClass("vehicle").isEmpty();
+    }
+
+    private static RuleDefinition rule(String field, Map<String, Object> condition) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setField(field);
+        rule.setAction("mask");
+        rule.setCondition(condition);
+        return rule;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalTime time) {
+            set(time);
+        }
+
+        void set(LocalTime time) {
+            instant = LocalDate.of(2025, 6, 2).atTime(time).atZone(ZONE).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Kandidaten des {@link RuleIndex} mit einer linearen Prüfung aller Regeln.
+ */
+class RuleIndexTests {
+
+    private static final String[] FIELDS = {"vehicle.licensePlate", "Vehicle.brand", "driver.name", "licensePlate", "status"};
+    private static final String[] ENTITY_CLASSES = {null, "vehicle", "VEHICLE", "driver", "unknown"};
+    private static final String[] APPLICATIONS = {"fleet", "billing", "audit"};
+    private static final List<LocalTime> TIMES = List.of(LocalTime.of(0, 0), LocalTime.of(7, 59), LocalTime.of(8, 0),
+            LocalTime.of(12, 0), LocalTime.of(18, 0), LocalTime.of(23, 59));
+
+    @Test
+    void candidatesMatchLinearScan() {
+        Random random = new Random(42);
+        List<RuleDefinition> rules = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rules.add(rule(FIELDS[random.nextInt(FIELDS.length)], randomCondition(random)));
+        }
+        RuleIndex index = new RuleIndex(rules);
+
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> context = randomContext(random);
+            String entityClass = ENTITY_CLASSES[random.nextInt(ENTITY_CLASSES.length)];
+
+            List<CompiledRule> candidates = index.candidates(context, entityClass);
+
+            assertThat(candidates).extracting(CompiledRule::ordinal).isSorted().doesNotHaveDuplicates();
+            for (CompiledRule rule : index.getCompiledRules()) {
+                boolean candidate = candidates.contains(rule);
+                if (!appliesToEntityClass(rule, entityClass) || rule.condition().isNever()) {
+                    assertThat(candidate).as("Regel #%d für %s", rule.ordinal(), entityClass).isFalse();
+                } else if (couldMatch(rule, context)) {
+                    assertThat(candidate).as("Regel #%d für %s, Kontext %s", rule.ordinal(), entityClass, context).isTrue();
+                } else if (rule.condition().hasContext() && !rule.condition().hasAccessCount()) {
+                    // Reine Kontextregeln mit nur einem Schlüssel sind exakt indexiert
+                    assertThat(candidate).as("Regel #%d, Kontext %s", rule.ordinal(), context).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void deferredKeysIncludeCounterRulesWithoutContextValue() {
+        RuleIndex index = new RuleIndex(List.of(
+                rule("vehicle.licensePlate", Map.of("accessCount", Map.of("greaterThan", 3))),
+                rule("licensePlate", Map.of("objectCount", Map.of("greaterThan", 5))),
+                rule("driver.name", Map.of("accessCount", Map.of("greaterThan", 3)))));
+
+        assertThat(index.candidates(Map.of(), "vehicle")).isEmpty();
+        assertThat(index.candidates(Map.of(), "vehicle", Set.of("accessCount")))
+                .extracting(CompiledRule::field).containsExactly("vehicle.licensePlate");
+        assertThat(index.candidates(null, null, Set.of("accessCount", "objectCount")))
+                .extracting(CompiledRule::ordinal).containsExactly(0, 1, 2);
+    }
+
+    /**
+     * Lineare Referenz: Regel trifft zu einer der Uhrzeiten zu, Zählerbedingungen genügt das Vorhandensein
+     * des Schlüssels (deren Werte prüft erst der Regelplan).
+     */
+    private static boolean couldMatch(CompiledRule rule, Map<String, Object> context) {
+        CompiledCondition condition = rule.condition();
+        if (condition.hasAccessCount() && !context.containsKey("accessCount")) return false;
+        if (condition.hasObjectCount() && !context.containsKey("objectCount")) return false;
+        Map<String, Object> anyCount = new HashMap<>(context);
+        anyCount.remove("accessCount");
+        anyCount.remove("objectCount");
+        return TIMES.stream().anyMatch(time -> condition.matchesRequest(anyCount, time));
+    }
+
+    private static boolean appliesToEntityClass(CompiledRule rule, String entityClass) {
+        String ruleClass = RuleIndex.entityClassOf(rule.field());
+        return entityClass == null || ruleClass.isEmpty() || ruleClass.equalsIgnoreCase(entityClass);
+    }
+
+    private static Map<String, Object> randomCondition(Random random) {
+        return switch (random.nextInt(7)) {
+            case 0 -> Map.of("context", Map.of("applicationId", APPLICATIONS[random.nextInt(APPLICATIONS.length)]));
+            case 1 -> Map.of("context", Map.of("role", random.nextBoolean() ? "internal" : "external"));
+            case 2 -> Map.of("time", Map.of("after", "08:00", "before", "18:00"));
+            case 3 -> Map.of("accessCount", Map.of("greaterThan", random.nextInt(5)));
+            case 4 -> Map.of("objectCount", Map.of("greaterThan", random.nextInt(5)));
+            case 5 -> Map.of("always", random.nextInt(4) > 0);
+            default -> Map.of("context", Map.of("applicationId", APPLICATIONS[random.nextInt(APPLICATIONS.length)]),
+                    "accessCount", Map.of("greaterThan", 1));
+        };
+    }
+
+    private static Map<String, Object> randomContext(Random random) {
+        Map<String, Object> context = new HashMap<>();
+        if (random.nextBoolean()) context.put("applicationId", APPLICATIONS[random.nextInt(APPLICATIONS.length)]);
+        if (random.nextBoolean()) context.put("role", random.nextBoolean() ? "internal" : "external");
+        if (random.nextBoolean()) context.put("accessCount", random.nextInt(10));
+        if (random.nextBoolean()) context.put("objectCount", random.nextInt(10));
+        if (random.nextInt(4) == 0) context.put("requestId", "r" + random.nextInt(100));
+        return context;
+    }
+
+    private static RuleDefinition rule(String field, Map<String, Object> condition) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setField(field);
+        rule.setAction("mask");
+        rule.setCondition(condition);
+        return rule;
+    }
+}
@@ -0,0 +1,57 @@
+package com.gatekeepr.policy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleLoaderTests {
+
+    private static final String RULES = """
+            [{"field": "vehicle.licensePlate", "action": "mask", "condition": {"always": true}}]
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsCurrentRulesWhenReloadedFileIsCorrupt() throws IOException {
+        Path file = dir.resolve("rules.json");
+        Files.writeString(file, RULES);
+        RuleLoader loader = loader(file);
+        loader.loadRules();
+        RuleIndex loaded = loader.getIndex();
+        assertThat(loaded.size()).isEqualTo(1);
+
+        // halb geschriebene Datei, unbekannte Eigenschaft, fehlende Datei
+        for (String corrupt : new String[]{RULES.substring(0, 30), "[{\"field\": \"a.b\", \"unknown\": 1}]", null}) {
+            if (corrupt != null) Files.writeString(file, corrupt); else Files.delete(file);
+            loader.reload();
+            assertThat(loader.getIndex()).isSameAs(loaded);
+        }
+    }
+
+    @Test
+    void assignsVersionOnlyToPublishedIndexes() throws IOException {
+        Path file = dir.resolve("rules.json");
+        Files.writeString(file, "[{\"field\": \"vehicle.licensePlate\", \"action\": \"mask\", \"condition\": {\"foo\": 1}}]");
+        RuleLoader loader = loader(file);
+        loader.loadRules();
+        assertThat(loader.getIndex()).isSameAs(RuleIndex.EMPTY);
+
+        Files.writeString(file, RULES);
+        loader.reload();
+        assertThat(loader.getIndex().getVersion()).isEqualTo(1);
+    }
+
+    private static RuleLoader loader(Path file) {
+        RuleLoader loader = new RuleLoader();
+        ReflectionTestUtils.setField(loader, "rulesPathProp", file.toString());
+        return loader;
+    }
+}
@@ -0,0 +1,99 @@
+package com.gatekeepr.policy;
+
+import com.gatekeepr.dto.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RulePlanTests {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Test
+    void accessCountIsCheckedPerObject() {
+        RulePlan plan = plan(Map.of("role", "external"),
+                rule("vehicle.licensePlate", "mask", Map.of("accessCount", Map.of("greaterThan", 3))),
+                rule("vehicle.licensePlate", "none", Map.of("context", Map.of("role", "internal"))));
+        RulePlan.ClassRules rules = plan.forEntityClass("Vehicle");
+
+        assertThat(rules.rulesFor("vehicle.licensePlate", "licensePlate", Map.of("accessCount", 2)).isEmpty()).isTrue();
+        assertThat(rules.rulesFor("vehicle.licensePlate", "licensePlate", Map.of("accessCount", 4)).rules())
+                .extracting(CompiledRule::action)
+                .containsExactly("mask");
+    }
+
+    @Test
+    void unqualifiedRulesApplyWhenNoQualifiedRuleMatches() {
+        RulePlan plan = plan(Map.of("objectCount", 10),
+                rule("vehicle.brand", "mask", Map.of("accessCount", Map.of("greaterThan", 3))),
+                rule("brand", "none", Map.of("objectCount", Map.of("greaterThan", 5))));
+        RulePlan.ClassRules rules = plan.forEntityClass("vehicle");
+
+        RulePlan.FieldRules fieldRules = rules.rulesFor("vehicle.brand", "brand", Map.of("accessCount", 1));
+        assertThat(fieldRules.override()).isTrue();
+        assertThat(fieldRules.rules()).extracting(CompiledRule::field).containsExactly("brand");
+    }
+
+    @Test
+    void plansAreSharedForEqualRelevantContextAndTimeSegment() {
+        RuleIndex index = new RuleIndex(List.of(
+                rule("vehicle.licensePlate", "none", Map.of("context", Map.of("role", "internal"))),
+                rule("vehicle.status", "remove", Map.of("time", Map.of("after", "08:00")))), 1, 16);
+
+        RulePlan first = index.plan(Map.of("role", "internal", "requestId", "a"), NOON);
+        assertThat(index.plan(Map.of("role", "internal", "requestId", "b", "accessCount", 7), LocalTime.of(13, 0))).isSameAs(first);
+        assertThat(index.plan(Map.of("role", "external"), NOON)).isNotSameAs(first);
+        assertThat(index.plan(Map.of("role", "internal"), LocalTime.of(8, 0))).isNotSameAs(first);
+        assertThat(index.planCacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void statisticsAreCountedAndKeptForUnchangedRulesOnReload() {
+        RuleDefinition mask = rule("vehicle.licensePlate", "mask", Map.of("accessCount", Map.of("greaterThan", 3)));
+        RuleIndex index = new RuleIndex(List.of(mask), 1, 0);
+        RulePlan.ClassRules rules = index.plan(Map.of(), NOON).forEntityClass("vehicle");
+        rules.rulesFor("vehicle.licensePlate", "licensePlate", Map.of("accessCount", 2));
+        rules.rulesFor("vehicle.licensePlate", "licensePlate", Map.of("accessCount", 4));
+
+        RuleStatistics stats = index.getCompiledRules().get(0).statistics();
+        assertThat(stats.getEvaluations()).isEqualTo(3);
+        assertThat(stats.getMatches()).isEqualTo(2);
+
+        RuleDefinition removed = rule("vehicle.status", "remove", Map.of("always", true));
+        RuleIndex reloaded = new RuleIndex(List.of(removed, mask), 2, 0, index);
+        assertThat(reloaded.getCompiledRules().get(1).statistics()).isSameAs(stats);
+        assertThat(reloaded.getCompiledRules().get(0).statistics().getEvaluations()).isZero();
+    }
+
+    @Test
+    void cachedPlansStillCountRequestLevelEvaluations() {
+        RuleIndex index = new RuleIndex(List.of(
+                rule("vehicle.licensePlate", "none", Map.of("context", Map.of("role", "internal")))), 1, 16);
+
+        index.plan(Map.of("role", "internal"), NOON).forEntityClass("vehicle");
+        index.plan(Map.of("role", "internal"), NOON).forEntityClass("vehicle");
+        index.plan(Map.of("role", "internal"), NOON);
+
+        RuleStatistics stats = index.getCompiledRules().get(0).statistics();
+        assertThat(index.planCacheStats().hits()).isEqualTo(2);
+        assertThat(stats.getEvaluations()).isEqualTo(3);
+        assertThat(stats.getCachedEvaluations()).isEqualTo(2);
+        assertThat(stats.getMatches()).isEqualTo(3);
+    }
+
+    private static RulePlan plan(Map<String, Object> context, RuleDefinition... rules) {
+        return new RulePlan(new RuleIndex(List.of(rules)), context, NOON);
+    }
+
+    private static RuleDefinition rule(String field, String action, Map<String, Object> condition) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setField(field);
+        rule.setAction(action);
+        rule.setCondition(condition);
+        return rule;
+    }
+}
@@ -0,0 +1,63 @@
+package com.gatekeepr.response;
+
+import com.gatekeepr.client.SourceDataClient;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.dto.RuleDefinition;
+import com.gatekeepr.policy.CompiledRule;
+import com.gatekeepr.policy.RuleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AccessResponseBuilderTests {
+
+    private static final List<String> READABLE = List.of("objectId", "licensePlate", "brand", "model");
+
+    @Test
+    void onlyRequestedReadableFieldsAreFilteredAndTransformed() {
+        RuleIndex index = new RuleIndex(List.of(
+                rule("vehicle.brand", "pseudonymize"),
+                rule("vehicle.model", "mask")), 1, 0);
+        AccessResponseBuilder builder = new AccessResponseBuilder(new ResponseEngine(null, new SimpleMeterRegistry()));
+
+        AccessRequestDto request = new AccessRequestDto();
+        request.setContext(new HashMap<>());
+        request.setFields(List.of("model", "status"));
+
+        AccessibleObject result = builder.build("app", "vehicle-1", "vehicle", "identity",
+                new ObjectProperties(READABLE, List.of(), List.of(), List.of(), List.of()),
+                SourceDataClient.simulate("vehicle-1", "vehicle"), index.plan(Map.of(), LocalTime.NOON), request);
+
+        assertThat(result.getFilteredData()).containsOnlyKeys("objectId", "model");
+        assertThat(index.getCompiledRules())
+                .extracting(CompiledRule::field, rule -> rule.statistics().getApplications())
+                .containsExactly(
+                        tuple("vehicle.brand", 0L),
+                        tuple("vehicle.model", 1L));
+    }
+
+    @Test
+    void sourceProjectionFollowsRequestedFields() {
+        assertThat(ResponseEngine.requiredFields(ResponseEngine.permittedFields(READABLE, List.of("brand", "status"))))
+                .containsExactly("brand", "objectEntityClass", "objectId");
+        assertThat(ResponseEngine.requiredFields(ResponseEngine.permittedFields(READABLE, null)))
+                .containsExactlyInAnyOrder("objectId", "objectEntityClass", "licensePlate", "brand", "model");
+    }
+
+    private static RuleDefinition rule(String field, String action) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setField(field);
+        rule.setAction(action);
+        rule.setCondition(Map.of("always", true));
+        return rule;
+    }
+}
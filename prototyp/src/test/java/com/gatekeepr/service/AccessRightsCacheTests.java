@@ -0,0 +1,88 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.client.TransitUnavailableException;
+import com.gatekeepr.dto.ObjectProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessRightsCacheTests {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void servesFreshEntriesWithoutCallingThePolicyMachine() {
+        AccessRightsCache cache = cache(100, HOUR, HOUR, Duration.ZERO, Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        get(cache, "o1", counting(calls, readable("brand")));
+        AccessRights second = get(cache, "o1", counting(calls, readable("model")));
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.getRead()).containsExactly("brand");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void negativeResultsUseTheirOwnTtl() {
+        AccessRightsCache cache = cache(100, HOUR, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        get(cache, "o1", counting(calls, AccessRights.empty()));
+        get(cache, "o1", counting(calls, AccessRights.empty()));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void servesStaleEntriesWhileThePolicyMachineIsDown() {
+        AccessRightsCache cache = cache(100, Duration.ZERO, Duration.ZERO, Duration.ZERO, HOUR);
+
+        get(cache, "o1", () -> readable("brand"));
+        AccessRights during = get(cache, "o1", () -> {
+            throw new TransitUnavailableException("down", new RuntimeException());
+        });
+
+        assertThat(during.getRead()).containsExactly("brand");
+        assertThat(cache.stats().staleServedOnError()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondMaxSize() {
+        AccessRightsCache cache = cache(2, HOUR, HOUR, Duration.ZERO, Duration.ZERO);
+
+        get(cache, "o1", () -> readable("brand"));
+        get(cache, "o2", () -> readable("brand"));
+        get(cache, "o3", () -> readable("brand"));
+
+        assertThat(cache.stats().size()).isEqualTo(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    private AccessRightsCache cache(int maxEntries, Duration ttl, Duration negativeTtl, Duration refreshWindow, Duration staleIfError) {
+        return new AccessRightsCache(true, maxEntries, ttl, negativeTtl, refreshWindow, staleIfError);
+    }
+
+    private AccessRights get(AccessRightsCache cache, String objectId, Supplier<AccessRights> loader) {
+        return cache.get("app", objectId, "identity", "identity", loader);
+    }
+
+    private Supplier<AccessRights> counting(AtomicInteger calls, AccessRights result) {
+        return () -> {
+            calls.incrementAndGet();
+            return result;
+        };
+    }
+
+    private AccessRights readable(String... fields) {
+        AccessRights rights = new AccessRights();
+        rights.setObjectProperties(new ObjectProperties(List.of(fields), List.of(), List.of(), List.of(), List.of()));
+        return rights;
+    }
+}
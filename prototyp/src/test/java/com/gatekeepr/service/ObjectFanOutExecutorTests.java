@@ -0,0 +1,147 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessResponseDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.metrics.PipelineMetrics;
+import com.gatekeepr.policy.PolicyEngine;
+import com.gatekeepr.response.AccessResponseBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ObjectFanOutExecutorTests {
+
+    private static final int PARALLELISM = 4;
+
+    private final ObjectFanOutExecutor fanOut = new ObjectFanOutExecutor(PARALLELISM, 16);
+
+    @AfterEach
+    void shutdown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void deliversResultsInInputOrder() {
+        List<Integer> items = IntStream.range(0, 40).boxed().toList();
+        Thread caller = Thread.currentThread();
+        List<Thread> sinkThreads = new ArrayList<>();
+        List<Integer> results = new ArrayList<>();
+
+        // Spätere Elemente werden früher fertig
+        fanOut.forEachOrdered(items, item -> {
+            sleep(40 - item);
+            return item * 10;
+        }, result -> {
+            sinkThreads.add(Thread.currentThread());
+            results.add(result);
+        });
+
+        assertThat(results).isEqualTo(items.stream().map(i -> i * 10).toList());
+        assertThat(sinkThreads).containsOnly(caller);
+        assertThat(fanOut.mapOrdered(items, Function.identity())).isEqualTo(items);
+    }
+
+    @Test
+    void keepsAtMostParallelismObjectsInFlight() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int[] emitted = {0};
+        int[] delivered = {0};
+        int[] maxPending = {0};
+
+        fanOut.forEachOrdered(source -> {
+            for (int i = 0; i < 50; i++) {
+                emitted[0]++;
+                source.accept(i);
+                maxPending[0] = Math.max(maxPending[0], emitted[0] - delivered[0]);
+            }
+        }, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(ThreadLocalRandom.current().nextInt(1, 5));
+            running.decrementAndGet();
+            return item;
+        }, result -> delivered[0]++);
+
+        assertThat(delivered[0]).isEqualTo(50);
+        // Gestartet, aber noch nicht übergeben: nie mehr als parallelism, obwohl der Pool 16 Threads hat
+        assertThat(maxPending[0]).isEqualTo(PARALLELISM);
+        assertThat(maxRunning.get()).isBetween(2, PARALLELISM);
+    }
+
+    @Test
+    void objectsOfARequestDoNotShareContext() {
+        AccessEvaluator evaluator = mock(AccessEvaluator.class);
+        DataFetcher dataFetcher = mock(DataFetcher.class);
+        AccessResponseBuilder responseBuilder = mock(AccessResponseBuilder.class);
+        AccessCounterStore counter = mock(AccessCounterStore.class);
+        ObjectRequestHandler handler = new ObjectRequestHandler(evaluator, dataFetcher, responseBuilder, fanOut,
+                mock(PolicyEngine.class), mock(PipelineMetrics.class),
+                new SpeculativeFetchPolicy(false, "", new SimpleMeterRegistry()), counter);
+
+        List<String> objectIds = IntStream.range(0, 20).mapToObj(i -> "o" + i).toList();
+        AccessRights rights = new AccessRights();
+        rights.setObjectProperties(new ObjectProperties(List.of("brand"), List.of(), List.of(), List.of(), List.of()));
+        when(evaluator.evaluateDirectAccess(anyString(), anyList(), anyString(), anyString()))
+                .thenReturn(objectIds.stream().collect(Collectors.toMap(id -> id, id -> rights)));
+        when(dataFetcher.fetchRawData(anyList(), eq("vehicle"), any()))
+                .thenReturn(objectIds.stream().collect(Collectors.toMap(id -> id, id -> Map.<String, Object>of("objectId", id))));
+        // Zählerstand je Objekt = Nummer des Objekts
+        when(counter.incrementAndGet(anyString()))
+                .thenAnswer(invocation -> Integer.parseInt(invocation.<String>getArgument(0).replaceAll(".*::o", "")));
+        doAnswer(invocation -> {
+            AccessRequestDto objectReq = invocation.getArgument(7);
+            Object before = objectReq.getContext().get("accessCount");
+            sleep(2);
+            Map<String, Object> seen = new HashMap<>(objectReq.getContext());
+            seen.put("stable", before.equals(seen.get("accessCount")));
+            return new AccessibleObject("app", invocation.getArgument(1), "vehicle", "identity", null, seen);
+        }).when(responseBuilder).build(any(), any(), any(), any(), any(), any(), any(), any());
+
+        AccessRequestDto request = new AccessRequestDto();
+        request.setApplicationId("app");
+        request.setIdentityId("identity");
+        request.setObjectEntityClass("vehicle");
+        request.setObjectIds(objectIds);
+        request.setContext(new HashMap<>(Map.of("role", "internal")));
+
+        AccessResponseDto response = handler.handleRequest(request);
+
+        assertThat(response.getObjects()).hasSize(objectIds.size());
+        for (int i = 0; i < objectIds.size(); i++) {
+            Map<String, Object> seen = response.getObjects().get(i).getFilteredData();
+            assertThat(seen).containsEntry("accessCount", i).containsEntry("role", "internal").containsEntry("stable", true);
+        }
+        assertThat(request.getContext()).containsOnly(Map.entry("role", "internal"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessResponseDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.metrics.PipelineMetrics;
+import com.gatekeepr.policy.PolicyEngine;
+import com.gatekeepr.response.AccessResponseBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ObjectRequestHandlerTests {
+
+    private final AccessEvaluator evaluator = mock(AccessEvaluator.class);
+    private final DataFetcher dataFetcher = mock(DataFetcher.class);
+    private final AccessResponseBuilder responseBuilder = mock(AccessResponseBuilder.class);
+    private final ObjectFanOutExecutor fanOut = new ObjectFanOutExecutor(4, 8);
+
+    private final ObjectRequestHandler handler = new ObjectRequestHandler(evaluator, dataFetcher, responseBuilder, fanOut,
+            mock(PolicyEngine.class), mock(PipelineMetrics.class), new SpeculativeFetchPolicy(false, "", new SimpleMeterRegistry()),
+            mock(AccessCounterStore.class));
+
+    @AfterEach
+    void shutdown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void skipsObjectsMissingFromBatchFetchWithoutRefetching() {
+        when(evaluator.evaluateDirectAccess(anyString(), anyList(), anyString(), anyString()))
+                .thenReturn(Map.of("o1", rights("brand"), "o2", rights("brand"), "o3", rights("brand")));
+        // o2 gibt es im Quellsystem nicht
+        when(dataFetcher.fetchRawData(anyList(), eq("vehicle"), any()))
+                .thenReturn(Map.of("o1", Map.of("objectId", "o1"), "o3", Map.of("objectId", "o3")));
+        doAnswer(invocation -> new AccessibleObject("app", invocation.getArgument(1), "vehicle", "identity", null,
+                invocation.getArgument(5))).when(responseBuilder).build(any(), any(), any(), any(), any(), any(), any(), any());
+
+        AccessRequestDto request = new AccessRequestDto();
+        request.setApplicationId("app");
+        request.setIdentityId("identity");
+        request.setObjectEntityClass("vehicle");
+        request.setObjectIds(List.of("o1", "o2", "o3"));
+
+        AccessResponseDto response = handler.handleRequest(request);
+
+        assertThat(response.getObjects()).extracting(AccessibleObject::getObjectId).containsExactly("o1", "o3");
+        verify(dataFetcher, times(1)).fetchRawData(anyList(), eq("vehicle"), any());
+        verify(dataFetcher, never()).fetchRawData(anyString(), anyString(), any());
+    }
+
+    private static AccessRights rights(String... read) {
+        AccessRights rights = new AccessRights();
+        rights.setObjectProperties(new ObjectProperties(List.of(read), List.of(), List.of(), List.of(), List.of()));
+        return rights;
+    }
+}
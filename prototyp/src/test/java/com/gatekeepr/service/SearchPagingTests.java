@@ -0,0 +1,84 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.TransitAccessClient;
+import com.gatekeepr.client.TransitAccessClient.ObjectAccess;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.service.AccessEvaluator.SearchPage;
+import com.gatekeepr.service.SearchPagePrefetcher.PageKey;
+import com.gatekeepr.standin.SyntheticAccessDataset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Seitenweise Suche mit Vorabladen gegen die eingebettete Stand-in Policy Machine.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("pm-standin")
+class SearchPagingTests {
+
+    private static final String APPLICATION_ID = "app";
+    private static final String IDENTITY_ID = "identity-1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SyntheticAccessDataset dataset;
+
+    @Test
+    void walkingAllPagesYieldsTheUnpagedResult() {
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + port + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 100, true, true,
+                new SimpleMeterRegistry());
+        AccessRightsCache rightsCache = new AccessRightsCache(false, 100, Duration.ofSeconds(10), Duration.ofSeconds(2),
+                Duration.ofSeconds(30), Duration.ofMinutes(5));
+        SearchPagePrefetcher prefetcher = new SearchPagePrefetcher(true, 16, Duration.ofSeconds(30));
+        AccessEvaluator evaluator = new AccessEvaluator(client, rightsCache, prefetcher);
+
+        List<String> paged = new ArrayList<>();
+        int pages = 0;
+        Integer offset = 0;
+        while (offset != null) {
+            SearchPage page = evaluator.evaluateSearchPage(
+                    new PageKey(APPLICATION_ID, IDENTITY_ID, IDENTITY_ID, "vehicle", true, 25, offset));
+            page.objects().forEach(o -> paged.add(o.getObjectId()));
+            offset = page.nextOffset();
+            pages++;
+        }
+
+        List<String> unpaged = dataset.search(APPLICATION_ID, IDENTITY_ID, null, Integer.MAX_VALUE).stream()
+                .map(ObjectAccess::getObjectId)
+                .toList();
+        assertThat(paged).containsExactlyElementsOf(unpaged);
+        assertThat(prefetcher.stats().hits()).isEqualTo(pages - 1);
+        assertThat(prefetcher.stats().size()).isZero();
+    }
+
+    @Test
+    void cursorIsBoundToItsSearch() {
+        AccessRequestDto request = new AccessRequestDto();
+        request.setApplicationId(APPLICATION_ID);
+        request.setIdentityId(IDENTITY_ID);
+        request.setObjectEntityClass("vehicle");
+        request.setCursor(SearchCursor.next(request, 50, 25).encode());
+
+        assertThat(SearchCursor.of(request)).isEqualTo(SearchCursor.next(request, 50, 25));
+
+        request.setIdentityId("identity-2");
+        assertThatThrownBy(() -> SearchCursor.of(request)).isInstanceOf(IllegalArgumentException.class);
+
+        request.setCursor("kein-cursor");
+        assertThatThrownBy(() -> SearchCursor.of(request)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.SourceDataClient;
+import com.gatekeepr.client.SourceDataClient.SourceObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceDataCacheTests {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("gatekeepr.source.cache.class-ttl.expiring", "1ms")
+            .withProperty("gatekeepr.source.cache.class-ttl.uncached", "0");
+
+    @Test
+    void servesHitsAndRevalidatesExpiredEntriesByEtag() throws InterruptedException {
+        SourceDataCache cache = new SourceDataCache(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1), environment);
+        List<String> etags = new ArrayList<>();
+        SourceDataCache.Loader loader = (fields, etag) -> {
+            etags.add(etag);
+            return etag != null ? new SourceObject(null, etag) : new SourceObject(SourceDataClient.simulate("o1", "vehicle"), "\"v1\"");
+        };
+
+        Map<String, Object> first = cache.get("vehicle", "o1", null, loader);
+        assertThat(cache.get("vehicle", "o1", null, loader)).isSameAs(first);
+        assertThat(etags).containsExactly((String) null);
+
+        // Klassen-TTL 1ms: Eintrag ist sofort abgelaufen und wird bedingt nachgeladen
+        cache.get("expiring", "o1", null, loader);
+        Thread.sleep(5);
+        cache.get("expiring", "o1", null, loader);
+        assertThat(etags).containsExactly(null, null, "\"v1\"");
+
+        // Klassen-TTL 0 = nicht cachen
+        cache.get("uncached", "o1", null, loader);
+        cache.get("uncached", "o1", null, loader);
+        assertThat(etags).containsExactly(null, null, "\"v1\"", null, null);
+
+        SourceDataCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.revalidations()).isEqualTo(1);
+        assertThat(stats.notModified()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(2);
+    }
+
+    @Test
+    void widensProjectionInsteadOfCachingPerFieldSet() {
+        SourceDataCache cache = new SourceDataCache(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1), environment);
+        List<Object> requested = new ArrayList<>();
+        SourceDataCache.BatchLoader loader = (objectIds, fields, etags) -> {
+            requested.add(fields);
+            return new SourceDataClient("simulated", "", Duration.ofSeconds(1), Duration.ofSeconds(1), 10, true, true, true, new SimpleMeterRegistry())
+                    .loadObjects(objectIds, "vehicle", fields, etags);
+        };
+
+        cache.getAll("vehicle", List.of("o1", "o2"), Set.of("brand"), loader);
+        Map<String, Map<String, Object>> widened = cache.getAll("vehicle", List.of("o1", "o2"), Set.of("model"), loader);
+        Map<String, Map<String, Object>> cached = cache.getAll("vehicle", List.of("o2", "o1"), Set.of("brand", "model"), loader);
+
+        assertThat(requested).containsExactly(Set.of("brand"), Set.of("brand", "model"));
+        assertThat(widened.get("o1")).containsOnlyKeys("brand", "model");
+        assertThat(cached.keySet()).containsExactly("o2", "o1");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondByteLimit() {
+        Map<String, Object> data = SourceDataClient.simulate("o1", "vehicle");
+        int entryBytes = SourceDataCache.estimateBytes(data);
+        SourceDataCache cache = new SourceDataCache(true, DataSize.ofBytes(entryBytes * 2L), Duration.ofMinutes(1), environment);
+        SourceDataCache.Loader loader = (fields, etag) -> new SourceObject(SourceDataClient.simulate("o1", "vehicle"), null);
+
+        cache.get("vehicle", "a", null, loader);
+        cache.get("vehicle", "b", null, loader);
+        cache.get("vehicle", "a", null, loader);
+        cache.get("vehicle", "c", null, loader);
+
+        SourceDataCache.Stats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.bytes()).isLessThanOrEqualTo(entryBytes * 2L);
+        assertThat(stats.evictions()).isEqualTo(1);
+
+        cache.get("vehicle", "a", null, loader);
+        assertThat(cache.stats().hits()).isEqualTo(2);
+    }
+}
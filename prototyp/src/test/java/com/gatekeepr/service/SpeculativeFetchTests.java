@@ -0,0 +1,151 @@
+package com.gatekeepr.service;
+
+import com.gatekeepr.client.SourceUnavailableException;
+import com.gatekeepr.client.TransitAccessClient.AccessRights;
+import com.gatekeepr.counter.AccessCounterStore;
+import com.gatekeepr.dto.AccessRequestDto;
+import com.gatekeepr.dto.AccessResponseDto;
+import com.gatekeepr.dto.AccessibleObject;
+import com.gatekeepr.dto.ObjectProperties;
+import com.gatekeepr.metrics.PipelineMetrics;
+import com.gatekeepr.policy.PolicyEngine;
+import com.gatekeepr.response.AccessResponseBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Spekulativer Datenabruf parallel zur Rechteprüfung ({@link SpeculativeFetchPolicy}).
+ */
+class SpeculativeFetchTests {
+
+    private static final Map<String, Object> DATA = Map.of("objectId", "o1", "brand", "VW");
+
+    private final AccessEvaluator evaluator = mock(AccessEvaluator.class);
+    private final DataFetcher dataFetcher = mock(DataFetcher.class);
+    private final AccessResponseBuilder responseBuilder = mock(AccessResponseBuilder.class);
+    private final ObjectFanOutExecutor fanOut = new ObjectFanOutExecutor(4, 8);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ObjectRequestHandler handler = new ObjectRequestHandler(evaluator, dataFetcher, responseBuilder, fanOut,
+            mock(PolicyEngine.class), mock(PipelineMetrics.class), new SpeculativeFetchPolicy(true, "", meterRegistry),
+            mock(AccessCounterStore.class));
+
+    SpeculativeFetchTests() {
+        doAnswer(invocation -> new AccessibleObject("app", invocation.getArgument(1), "vehicle", "identity", null,
+                invocation.getArgument(5))).when(responseBuilder).build(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @AfterEach
+    void shutdown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void fetchesAllObjectsWhileRightsAreEvaluatedAndDiscardsInaccessible() {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        when(dataFetcher.fetchRawData(anyList(), eq("vehicle"), any())).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            return Map.of("o1", DATA, "o2", Map.of("objectId", "o2"));
+        });
+        when(evaluator.evaluateDirectAccess(anyString(), anyList(), anyString(), anyString())).thenAnswer(invocation -> {
+            // Rechteprüfung endet erst, wenn der Abruf bereits läuft
+            assertThat(fetchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return Map.of("o1", rights("brand"), "o2", AccessRights.empty());
+        });
+
+        AccessResponseDto response = handler.handleRequest(request(null, List.of("o1", "o2")));
+
+        assertThat(response.getObjects()).extracting(AccessibleObject::getObjectId).containsExactly("o1");
+        assertThat(response.getObjects().get(0).getFilteredData()).isEqualTo(DATA);
+        verify(dataFetcher, times(1)).fetchRawData(anyList(), eq("vehicle"), any());
+        verify(dataFetcher, never()).fetchRawData(anyString(), anyString(), any());
+        assertThat(speculative("used")).isEqualTo(1);
+        assertThat(speculative("discarded")).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotWaitForSpeculativeFetchWithoutRights() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        when(dataFetcher.fetchRawData(anyString(), eq("vehicle"), any())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.countDown();
+            return DATA;
+        });
+        when(evaluator.evaluateDirectAccess(anyString(), anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            // Abruf läuft bereits, wenn die (leeren) Rechte vorliegen
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            return AccessRights.empty();
+        });
+
+        AccessResponseDto response = handler.handleRequest(request("o1", null));
+
+        assertThat(response.getObjects()).isEmpty();
+        assertThat(speculative("discarded")).isEqualTo(1);
+
+        // Der laufende Abruf wird nicht unterbrochen, sondern endet regulär und wird verworfen
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(interrupted).isFalse();
+    }
+
+    @Test
+    void refetchesWithRightsProjectionWhenSpeculativeFetchFails() {
+        when(dataFetcher.fetchRawData(anyString(), eq("vehicle"), any()))
+                .thenThrow(new SourceUnavailableException("Quellsystem nicht erreichbar", null))
+                .thenReturn(DATA);
+        when(evaluator.evaluateDirectAccess(anyString(), anyString(), anyString(), anyString())).thenReturn(rights("brand"));
+
+        AccessResponseDto response = handler.handleRequest(request("o1", null));
+
+        assertThat(response.getObjects()).extracting(AccessibleObject::getFilteredData).containsExactly(DATA);
+        verify(dataFetcher, times(2)).fetchRawData(anyString(), eq("vehicle"), any());
+        assertThat(speculative("used")).isEqualTo(1);
+    }
+
+    private double speculative(String outcome) {
+        return meterRegistry.get("gatekeepr.source.speculative").tag("outcome", outcome).counter().count();
+    }
+
+    private static AccessRequestDto request(String objectId, List<String> objectIds) {
+        AccessRequestDto request = new AccessRequestDto();
+        request.setApplicationId("app");
+        request.setIdentityId("identity");
+        request.setObjectEntityClass("vehicle");
+        request.setObjectId(objectId);
+        request.setObjectIds(objectIds);
+        return request;
+    }
+
+    private static AccessRights rights(String... read) {
+        AccessRights rights = new AccessRights();
+        rights.setObjectProperties(new ObjectProperties(List.of(read), List.of(), List.of(), List.of(), List.of()));
+        return rights;
+    }
+}
@@ -0,0 +1,41 @@
+package com.gatekeepr.standin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FaultInjectionTests {
+
+    @Test
+    void lognormalLatencyMatchesMedianAndP99() {
+        FaultInjection faults = FaultInjection.parse("lognormal:5,50", 0);
+        long[] samples = LongStream.range(0, 200_000).map(i -> faults.nextLatencyNanos()).sorted().toArray();
+
+        assertThat(samples[samples.length / 2] / 1e6).isBetween(4.8, 5.2);
+        assertThat(samples[(int) (samples.length * 0.99)] / 1e6).isBetween(45.0, 55.0);
+    }
+
+    @Test
+    void parsesAllDistributionsAndRejectsInvalidSpecs() {
+        assertThat(FaultInjection.parse("fixed:3", 0).nextLatencyNanos()).isEqualTo(3_000_000);
+        assertThat(FaultInjection.parse("uniform:2-4", 0).nextLatencyNanos()).isBetween(2_000_000L, 4_000_000L);
+        assertThat(FaultInjection.parse("exponential:1", 0).nextLatencyNanos()).isNotNegative();
+        assertThat(FaultInjection.parse("", 1).apply()).isTrue();
+
+        assertThatThrownBy(() -> FaultInjection.parse("gauss:5", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjection.parse("lognormal:5", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FaultInjection.parse("fixed:1", 1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rightsDistributionExpandsWeightsToBuckets() {
+        assertThat(Arrays.stream(SyntheticAccessDataset.parseDistribution("none:1,basic:2,full:1")).boxed())
+                .containsExactly(0, 1, 1, 3);
+        assertThatThrownBy(() -> SyntheticAccessDataset.parseDistribution("admin:1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
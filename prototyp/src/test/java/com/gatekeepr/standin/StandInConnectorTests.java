@@ -0,0 +1,57 @@
+package com.gatekeepr.standin;
+
+import com.gatekeepr.client.TransitAccessClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stand-ins auf eigenem Connector: eigener Port und eigener Thread-Pool neben dem GatekeepR-Connector.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"gatekeepr.standin.port=0", "gatekeepr.standin.max-threads=8"})
+@ActiveProfiles("pm-standin")
+class StandInConnectorTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private PolicyMachineStandInController standIn;
+
+    @Test
+    void servesStandInOnSeparateConnector() {
+        Connector[] connectors = ((TomcatWebServer) context.getWebServer()).getTomcat().getService().findConnectors();
+        assertThat(connectors).hasSize(2);
+
+        Connector standInConnector = Arrays.stream(connectors)
+                .filter(connector -> connector.getLocalPort() != port)
+                .findFirst().orElseThrow();
+        Connector mainConnector = Arrays.stream(connectors)
+                .filter(connector -> connector.getLocalPort() == port)
+                .findFirst().orElseThrow();
+        assertThat(standInConnector.getProtocolHandler().getExecutor())
+                .isNotSameAs(mainConnector.getProtocolHandler().getExecutor());
+        assertThat(standInConnector.getProperty("maxThreads")).isEqualTo(8);
+
+        TransitAccessClient client = new TransitAccessClient("http://localhost:" + standInConnector.getLocalPort() + "/v1", "test",
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 16, 4, 25, true, true, new SimpleMeterRegistry());
+        long before = standIn.getSingleCalls();
+        client.getAccessRights("app", SyntheticAccessDataset.objectId(0), "identity-1", "identity-1");
+        assertThat(standIn.getSingleCalls() - before).isEqualTo(1);
+    }
+}